@@ -0,0 +1,108 @@
+package com.itemis.fluffyj.tests;
+
+import java.nio.ByteBuffer;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+/**
+ * Walks the instructions of the code of a method, as far as {@link ClassFile} needs it. Only the
+ * length of each instruction is known, not its meaning.
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-6.html">JVMS, chapter 6</a>
+ */
+final class Bytecode {
+
+    static final int NEW = 0xBB;
+    static final int ATHROW = 0xBF;
+
+    private static final int TABLESWITCH = 0xAA;
+    private static final int LOOKUPSWITCH = 0xAB;
+    private static final int WIDE = 0xC4;
+    private static final int IINC = 0x84;
+
+    // Number of operand bytes of each opcode. Instructions of variable length are handled apart.
+    private static final int[] OPERAND_BYTES = new int[256];
+
+    static {
+        // bipush, ldc, iload..aload, istore..astore, ret, newarray
+        for (var opcode : new int[] {0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3A, 0xA9, 0xBC}) {
+            OPERAND_BYTES[opcode] = 1;
+        }
+        // sipush, ldc_w, ldc2_w, iinc, getstatic..invokestatic, new, anewarray, checkcast, instanceof,
+        // ifnull, ifnonnull
+        for (var opcode : new int[] {0x11, 0x13, 0x14, IINC, 0xB2, 0xB3, 0xB4, 0xB5, 0xB6, 0xB7, 0xB8, NEW, 0xBD, 0xC0, 0xC1, 0xC6, 0xC7}) {
+            OPERAND_BYTES[opcode] = 2;
+        }
+        // ifeq..jsr
+        for (int opcode = 0x99; opcode <= 0xA8; opcode++) {
+            OPERAND_BYTES[opcode] = 2;
+        }
+        // multianewarray
+        OPERAND_BYTES[0xC5] = 3;
+        // invokeinterface, invokedynamic, goto_w, jsr_w
+        for (var opcode : new int[] {0xB9, 0xBA, 0xC8, 0xC9}) {
+            OPERAND_BYTES[opcode] = 4;
+        }
+    }
+
+    private Bytecode() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * Calls {@code consumer} for each instruction in {@code code}, in order.
+     *
+     * @param code - The code array of a {@code Code} attribute. Starts at index zero.
+     * @throws IllegalArgumentException If an instruction is truncated.
+     */
+    static void forEachInstruction(ByteBuffer code, InstructionConsumer consumer) {
+        var length = code.limit();
+        var offset = 0;
+        while (offset < length) {
+            var opcode = code.get(offset) & 0xFF;
+            consumer.accept(opcode, offset);
+            offset += instructionLength(code, opcode, offset);
+        }
+        if (offset != length) {
+            throw new IllegalArgumentException("Encountered truncated instruction.");
+        }
+    }
+
+    private static int instructionLength(ByteBuffer code, int opcode, int offset) {
+        switch (opcode) {
+            case TABLESWITCH: {
+                // Operands are aligned to four bytes, relative to the start of the code.
+                var operands = offset + 1 + padding(offset);
+                var low = code.getInt(operands + 4);
+                var high = code.getInt(operands + 8);
+                return operands - offset + 12 + (high - low + 1) * 4;
+            }
+            case LOOKUPSWITCH: {
+                var operands = offset + 1 + padding(offset);
+                var pairCount = code.getInt(operands + 4);
+                return operands - offset + 8 + pairCount * 8;
+            }
+            case WIDE:
+                return (code.get(offset + 1) & 0xFF) == IINC ? 6 : 4;
+            default:
+                return 1 + OPERAND_BYTES[opcode];
+        }
+    }
+
+    private static int padding(int offset) {
+        return (4 - (offset + 1) % 4) % 4;
+    }
+
+    /**
+     * Receives the instructions of a method.
+     */
+    @FunctionalInterface
+    interface InstructionConsumer {
+
+        /**
+         * @param opcode - The opcode of the instruction, between 0 and 255.
+         * @param offset - Index of the opcode within the code.
+         */
+        void accept(int opcode, int offset);
+    }
+}
@@ -0,0 +1,361 @@
+package com.itemis.fluffyj.tests;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * The parts of a class file that implementation checks need, parsed right from its bytes, so that
+ * the class does not need to be loaded. Loading would link the class, run its static initializer
+ * if it is checked by reflection and take up metaspace.
+ * </p>
+ * <p>
+ * The parser reads the constant pool, the access flags, the super types, the fields, the methods
+ * with the code of the constructors and the {@code InnerClasses} attribute. Everything else is
+ * skipped. Names are binary names with dots, e. g. {@code com.acme.Outer$Inner}.
+ * </p>
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se11/html/jvms-4.html">JVMS, chapter 4</a>
+ */
+final class ClassFile {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_SYNTHETIC = 0x1000;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+
+    static final String CONSTRUCTOR_NAME = "<init>";
+    static final String STATIC_INITIALIZER_NAME = "<clinit>";
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_FLOAT = 4;
+    private static final int TAG_LONG = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_FIELD_REF = 9;
+    private static final int TAG_METHOD_REF = 10;
+    private static final int TAG_INTERFACE_METHOD_REF = 11;
+    private static final int TAG_NAME_AND_TYPE = 12;
+    private static final int TAG_METHOD_HANDLE = 15;
+    private static final int TAG_METHOD_TYPE = 16;
+    private static final int TAG_DYNAMIC = 17;
+    private static final int TAG_INVOKE_DYNAMIC = 18;
+    private static final int TAG_MODULE = 19;
+    private static final int TAG_PACKAGE = 20;
+
+    private final ByteBuffer bytes;
+    // Offset of each constant pool entry in bytes, indexed like the constant pool.
+    private final int[] poolOffsets;
+
+    private String name;
+    private int accessFlags;
+    private String superName;
+    private final List<String> interfaceNames = new ArrayList<>();
+    private final List<Member> fields = new ArrayList<>();
+    private final List<Member> methods = new ArrayList<>();
+    private boolean anonymousOrLocal;
+
+    private ClassFile(ByteBuffer bytes) {
+        this.bytes = bytes;
+        if (bytes.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+        // Minor and major version.
+        bytes.getInt();
+        this.poolOffsets = new int[bytes.getShort() & 0xFFFF];
+    }
+
+    /**
+     * @param bytes - The content of a class file, from its current position on. The parsed class
+     *        keeps reading from it.
+     * @return The parsed class.
+     * @throws IllegalArgumentException If {@code bytes} do not hold a valid class file.
+     */
+    static ClassFile parse(ByteBuffer bytes) {
+        try {
+            var result = new ClassFile(bytes.slice());
+            result.parse();
+            return result;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Encountered truncated class file.", e);
+        }
+    }
+
+    /**
+     * @return The binary name of the class.
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * @return The access flags of the class. For nested classes, these are the flags of their
+     *         declaration, like {@link Class#getModifiers()} returns them.
+     */
+    int accessFlags() {
+        return accessFlags;
+    }
+
+    boolean is(int accessFlag) {
+        return (accessFlags & accessFlag) != 0;
+    }
+
+    /**
+     * @return The binary name of the super class, {@code null} for {@link Object} only.
+     */
+    String superName() {
+        return superName;
+    }
+
+    List<String> interfaceNames() {
+        return Collections.unmodifiableList(interfaceNames);
+    }
+
+    List<Member> fields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * @return All methods, including constructors and the static initializer.
+     */
+    List<Member> methods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * @return {@code true} if the class is declared within a method or is anonymous.
+     */
+    boolean isAnonymousOrLocal() {
+        return anonymousOrLocal;
+    }
+
+    /**
+     * @param constructor - One of the {@link #methods()} named {@link #CONSTRUCTOR_NAME}.
+     * @return The binary names of the classes the constructor creates instances of with a
+     *         {@code new} instruction.
+     */
+    List<String> instantiatedClassNames(Member constructor) {
+        var result = new ArrayList<String>();
+        var code = constructor.code;
+        if (code != null) {
+            Bytecode.forEachInstruction(code, (opcode, offset) -> {
+                if (opcode == Bytecode.NEW) {
+                    result.add(className(code.getShort(offset + 1) & 0xFFFF));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @param constructor - One of the {@link #methods()} named {@link #CONSTRUCTOR_NAME}.
+     * @return {@code true} if the code of the constructor contains an {@code athrow} instruction.
+     */
+    boolean throwsIn(Member constructor) {
+        var code = constructor.code;
+        if (code == null) {
+            return false;
+        }
+        var result = new boolean[1];
+        Bytecode.forEachInstruction(code, (opcode, offset) -> result[0] |= opcode == Bytecode.ATHROW);
+        return result[0];
+    }
+
+    private void parse() {
+        readConstantPool();
+        accessFlags = bytes.getShort() & 0xFFFF;
+        name = className(bytes.getShort() & 0xFFFF);
+        var superIndex = bytes.getShort() & 0xFFFF;
+        superName = superIndex == 0 ? null : className(superIndex);
+        var interfaceCount = bytes.getShort() & 0xFFFF;
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(className(bytes.getShort() & 0xFFFF));
+        }
+        readMembers(fields, false);
+        readMembers(methods, true);
+        readClassAttributes();
+    }
+
+    private void readConstantPool() {
+        for (int i = 1; i < poolOffsets.length; i++) {
+            poolOffsets[i] = bytes.position();
+            var tag = bytes.get();
+            switch (tag) {
+                case TAG_UTF8:
+                    skip(bytes.getShort() & 0xFFFF);
+                    break;
+                case TAG_CLASS:
+                case TAG_STRING:
+                case TAG_METHOD_TYPE:
+                case TAG_MODULE:
+                case TAG_PACKAGE:
+                    skip(2);
+                    break;
+                case TAG_METHOD_HANDLE:
+                    skip(3);
+                    break;
+                case TAG_INTEGER:
+                case TAG_FLOAT:
+                case TAG_FIELD_REF:
+                case TAG_METHOD_REF:
+                case TAG_INTERFACE_METHOD_REF:
+                case TAG_NAME_AND_TYPE:
+                case TAG_DYNAMIC:
+                case TAG_INVOKE_DYNAMIC:
+                    skip(4);
+                    break;
+                case TAG_LONG:
+                case TAG_DOUBLE:
+                    skip(8);
+                    // Takes up two entries.
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Encountered unknown constant pool tag " + tag + ".");
+            }
+        }
+    }
+
+    private void readMembers(List<Member> members, boolean keepConstructorCode) {
+        var count = bytes.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            var memberFlags = bytes.getShort() & 0xFFFF;
+            var memberName = utf8(bytes.getShort() & 0xFFFF);
+            var descriptor = utf8(bytes.getShort() & 0xFFFF);
+            ByteBuffer code = null;
+            var attributeCount = bytes.getShort() & 0xFFFF;
+            for (int j = 0; j < attributeCount; j++) {
+                var attributeName = utf8(bytes.getShort() & 0xFFFF);
+                var length = bytes.getInt();
+                if (keepConstructorCode && CONSTRUCTOR_NAME.equals(memberName) && "Code".equals(attributeName)) {
+                    // max_stack, max_locals, code_length, code
+                    var codeLength = bytes.getInt(bytes.position() + 4);
+                    code = bytes.duplicate().position(bytes.position() + 8).limit(bytes.position() + 8 + codeLength).slice();
+                }
+                skip(length);
+            }
+            members.add(new Member(memberFlags, memberName, descriptor, code));
+        }
+    }
+
+    private void readClassAttributes() {
+        var attributeCount = bytes.getShort() & 0xFFFF;
+        for (int i = 0; i < attributeCount; i++) {
+            var attributeName = utf8(bytes.getShort() & 0xFFFF);
+            var length = bytes.getInt();
+            var start = bytes.position();
+            if ("InnerClasses".equals(attributeName)) {
+                var classCount = bytes.getShort() & 0xFFFF;
+                for (int j = 0; j < classCount; j++) {
+                    var innerIndex = bytes.getShort() & 0xFFFF;
+                    var outerIndex = bytes.getShort() & 0xFFFF;
+                    // inner_name_index
+                    bytes.getShort();
+                    var innerFlags = bytes.getShort() & 0xFFFF;
+                    if (name.equals(className(innerIndex))) {
+                        accessFlags = innerFlags;
+                        anonymousOrLocal = outerIndex == 0;
+                    }
+                }
+            }
+            skip(length - (bytes.position() - start));
+        }
+    }
+
+    private String className(int poolIndex) {
+        var offset = poolOffsets[poolIndex];
+        if (bytes.get(offset) != TAG_CLASS) {
+            throw new IllegalArgumentException("Constant pool entry " + poolIndex + " is not a class.");
+        }
+        return utf8(bytes.getShort(offset + 1) & 0xFFFF).replace('/', '.');
+    }
+
+    private String utf8(int poolIndex) {
+        var offset = poolOffsets[poolIndex];
+        if (bytes.get(offset) != TAG_UTF8) {
+            throw new IllegalArgumentException("Constant pool entry " + poolIndex + " is not a string.");
+        }
+        var length = bytes.getShort(offset + 1) & 0xFFFF;
+        return decodeModifiedUtf8(offset + 3, length);
+    }
+
+    // Class files encode strings in modified UTF-8: no four byte forms, and zero takes two bytes.
+    private String decodeModifiedUtf8(int start, int length) {
+        var result = new StringBuilder(length);
+        var end = start + length;
+        for (int i = start; i < end;) {
+            var first = bytes.get(i++) & 0xFF;
+            if (first < 0x80) {
+                result.append((char) first);
+            } else if ((first & 0xE0) == 0xC0) {
+                result.append((char) ((first & 0x1F) << 6 | bytes.get(i++) & 0x3F));
+            } else {
+                result.append((char) ((first & 0x0F) << 12 | (bytes.get(i++) & 0x3F) << 6 | bytes.get(i++) & 0x3F));
+            }
+        }
+        return result.toString();
+    }
+
+    private void skip(int byteCount) {
+        if (byteCount > bytes.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        bytes.position(bytes.position() + byteCount);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * A field or method of a {@link ClassFile}.
+     */
+    static final class Member {
+
+        private final int accessFlags;
+        private final String name;
+        private final String descriptor;
+        // Kept for constructors only.
+        private final ByteBuffer code;
+
+        private Member(int accessFlags, String name, String descriptor, ByteBuffer code) {
+            this.accessFlags = accessFlags;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+        }
+
+        int accessFlags() {
+            return accessFlags;
+        }
+
+        boolean is(int accessFlag) {
+            return (accessFlags & accessFlag) != 0;
+        }
+
+        String name() {
+            return name;
+        }
+
+        /**
+         * @return The type descriptor, e. g. {@code J} for a {@code long} field or {@code ()V} for a
+         *         method without args that returns {@code void}.
+         */
+        String descriptor() {
+            return descriptor;
+        }
+    }
+}
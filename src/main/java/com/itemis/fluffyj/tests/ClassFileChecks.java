@@ -0,0 +1,173 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.ClassFile.ACC_ANNOTATION;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_ENUM;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_FINAL;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_INTERFACE;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_PRIVATE;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_STATIC;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_SYNTHETIC;
+import static com.itemis.fluffyj.tests.ClassFile.CONSTRUCTOR_NAME;
+import static com.itemis.fluffyj.tests.ClassFile.STATIC_INITIALIZER_NAME;
+import static java.util.Optional.empty;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+/**
+ * <p>
+ * The checks of {@link FluffyTestHelper} that {@link ScanMode#CLASS_FILE} supports, answered from
+ * parsed {@link ClassFile class files}. Each check tells the rule that a class violates, if any, in
+ * the same words as the corresponding check by reflection.
+ * </p>
+ * <p>
+ * Super types that are not among the scanned class files, e. g. those of the JDK, are parsed on
+ * demand. Instances are thread safe.
+ * </p>
+ */
+final class ClassFileChecks {
+
+    private static final String OBJECT_NAME = Object.class.getName();
+    private static final String ENUM_NAME = Enum.class.getName();
+    private static final String SERIALIZABLE_NAME = Serializable.class.getName();
+    private static final String EXPECTED_EXCEPTION_NAME = InstantiationNotPermittedException.class.getName();
+    private static final String NO_ARGS_CONSTRUCTOR_DESCRIPTOR = "()V";
+
+    private final Map<String, ClassFile> classFiles = new ConcurrentHashMap<>();
+    // Looking up the same class twice by accident does no harm.
+    private final Map<String, Boolean> serializableByName = new ConcurrentHashMap<>();
+
+    /**
+     * @param scanned - The class files that are checked.
+     */
+    ClassFileChecks(List<ClassFile> scanned) {
+        scanned.forEach(classFile -> classFiles.put(classFile.name(), classFile));
+    }
+
+    /**
+     * Like {@link FluffyTestHelper#assertIsStaticHelper(Class)} for classes that look like static
+     * helpers, see {@link FluffyTestHelper#assertAllStaticHelpersIn(String, ScanMode)}.
+     *
+     * @return The violation, prefixed with the class name. Empty if there is none or if the class
+     *         does not look like a static helper.
+     */
+    Optional<String> staticHelperViolation(ClassFile classFile) {
+        return violation(classFile, ClassFileChecks::looksLikeStaticHelper, ClassFileChecks::staticHelperRuleViolated);
+    }
+
+    /**
+     * Like {@link FluffyTestHelper#assertSerialVersionUid(Class)} for serializable classes, see
+     * {@link FluffyTestHelper#assertAllSerializableHaveSerialVersionUid(String, ScanMode)}.
+     *
+     * @return The violation, prefixed with the class name. Empty if there is none or if the class is
+     *         not serializable.
+     */
+    Optional<String> serialVersionUidViolation(ClassFile classFile) {
+        return violation(classFile, this::mustHaveSerialVersionUid, ClassFileChecks::serialVersionUidRuleViolated);
+    }
+
+    private static Optional<String> violation(ClassFile classFile, Predicate<ClassFile> filter,
+            Function<ClassFile, Optional<String>> rule) {
+        try {
+            return filter.test(classFile) ? rule.apply(classFile).map(message -> classFile.name() + ": " + message) : empty();
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return Optional.of(classFile.name() + ": Encountered invalid class file. " + e.getMessage());
+        }
+    }
+
+    private static boolean looksLikeStaticHelper(ClassFile classFile) {
+        if (classFile.is(ACC_INTERFACE) || classFile.is(ACC_ENUM) || classFile.is(ACC_ANNOTATION) || classFile.is(ACC_SYNTHETIC)
+            || classFile.isAnonymousOrLocal() || !OBJECT_NAME.equals(classFile.superName())) {
+            return false;
+        }
+
+        var methods = declaredMethods(classFile);
+        return !methods.isEmpty() && methods.stream().allMatch(method -> method.is(ACC_STATIC))
+            && classFile.fields().stream().filter(field -> !field.is(ACC_SYNTHETIC)).allMatch(field -> field.is(ACC_STATIC))
+            && (classFile.is(ACC_FINAL) || classFile.methods().stream()
+                .filter(method -> CONSTRUCTOR_NAME.equals(method.name())).allMatch(constructor -> constructor.is(ACC_PRIVATE)));
+    }
+
+    private static Optional<String> staticHelperRuleViolated(ClassFile classFile) {
+        if (!classFile.is(ACC_FINAL)) {
+            return Optional.of("Class must be declared final.");
+        }
+
+        var constructors = classFile.methods().stream().filter(method -> CONSTRUCTOR_NAME.equals(method.name())).collect(toList());
+        if (constructors.size() != 1 || !constructors.get(0).is(ACC_PRIVATE)
+            || !NO_ARGS_CONSTRUCTOR_DESCRIPTOR.equals(constructors.get(0).descriptor())) {
+            return Optional.of("Encountered invalid constructor. Expected exactly one constructor, private and without args.");
+        }
+
+        var constructor = constructors.get(0);
+        if (!classFile.instantiatedClassNames(constructor).contains(EXPECTED_EXCEPTION_NAME) || !classFile.throwsIn(constructor)) {
+            return Optional.of("Constructor must throw " + EXPECTED_EXCEPTION_NAME + ".");
+        }
+
+        if (!declaredMethods(classFile).stream().allMatch(method -> method.is(ACC_STATIC))) {
+            return Optional.of("Static helper classes must not have any non static methods.");
+        }
+        return empty();
+    }
+
+    private boolean mustHaveSerialVersionUid(ClassFile classFile) {
+        return !classFile.is(ACC_INTERFACE) && !classFile.is(ACC_SYNTHETIC) && !isEnum(classFile) && isSerializable(classFile.name());
+    }
+
+    private static Optional<String> serialVersionUidRuleViolated(ClassFile classFile) {
+        var hasSerialVersionUid = classFile.fields().stream()
+            .anyMatch(field -> "serialVersionUID".equals(field.name()) && "J".equals(field.descriptor()) && field.is(ACC_PRIVATE)
+                && field.is(ACC_STATIC) && field.is(ACC_FINAL));
+        return hasSerialVersionUid ? empty() : Optional.of("Missing private static final long serialVersionUID.");
+    }
+
+    private boolean isEnum(ClassFile classFile) {
+        if (classFile.is(ACC_ENUM)) {
+            return true;
+        }
+        // The body of an enum constant is a subclass of the enum.
+        var superClass = classFile.superName() == null ? null : lookUp(classFile.superName());
+        return superClass != null && superClass.is(ACC_ENUM);
+    }
+
+    private boolean isSerializable(String className) {
+        if (SERIALIZABLE_NAME.equals(className)) {
+            return true;
+        }
+        var result = serializableByName.get(className);
+        if (result == null) {
+            var classFile = lookUp(className);
+            result = classFile != null && (classFile.superName() != null && isSerializable(classFile.superName())
+                || classFile.interfaceNames().stream().anyMatch(this::isSerializable));
+            serializableByName.put(className, result);
+        }
+        return result;
+    }
+
+    private ClassFile lookUp(String className) {
+        var result = classFiles.get(className);
+        if (result == null) {
+            result = ClassScanner.classFile(className);
+            if (result != null) {
+                classFiles.put(className, result);
+            }
+        }
+        return result;
+    }
+
+    private static List<ClassFile.Member> declaredMethods(ClassFile classFile) {
+        // Like Class.getDeclaredMethods(), which does not return constructors and initializers.
+        return classFile.methods().stream()
+            .filter(method -> !method.is(ACC_SYNTHETIC) && !CONSTRUCTOR_NAME.equals(method.name())
+                && !STATIC_INITIALIZER_NAME.equals(method.name()))
+            .collect(toList());
+    }
+}
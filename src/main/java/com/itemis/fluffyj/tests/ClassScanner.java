@@ -0,0 +1,216 @@
+package com.itemis.fluffyj.tests;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+/**
+ * <p>
+ * Finds the classes of a package and its subpackages on the class path, in directories as well as
+ * in jar files.
+ * </p>
+ * <p>
+ * Classes are loaded in parallel, without being initialized. Classes that cannot be loaded, e. g.
+ * because an optional dependency is missing, are skipped. Results are cached per package and class
+ * loader, so that several checks on the same package scan the class path once. The cache does not
+ * keep class loaders alive, and it is dropped if memory gets scarce.
+ * </p>
+ * <p>
+ * Alternatively, the class files are parsed without loading the classes, see {@link ClassFile}.
+ * Class files in directories and in jar files are read into the heap, the latter through the zip
+ * file system of NIO. Parsed class files are not cached, because they are cheap to parse again.
+ * </p>
+ */
+final class ClassScanner {
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    // Keyed weakly, so that class loaders that are no longer used, e. g. those of earlier test runs
+    // in the same JVM, can be collected. The scanned classes refer to their class loader, so they
+    // are kept softly. Otherwise, they would keep their own key alive.
+    private static final Map<ClassLoader, ConcurrentMap<String, SoftReference<List<Class<?>>>>> CACHE = new WeakHashMap<>();
+
+    private ClassScanner() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     * @return The classes of the package and its subpackages, sorted by name.
+     * @throws UncheckedIOException If the class path cannot be read.
+     */
+    static List<Class<?>> classesIn(String packageName) {
+        var loader = classLoader();
+        ConcurrentMap<String, SoftReference<List<Class<?>>>> packages;
+        synchronized (CACHE) {
+            packages = CACHE.computeIfAbsent(loader, unused -> new ConcurrentHashMap<>());
+        }
+
+        // Scanning the same package twice by accident does no harm.
+        var cached = packages.get(packageName);
+        var result = cached == null ? null : cached.get();
+        if (result == null) {
+            result = scan(loader, packageName);
+            packages.put(packageName, new SoftReference<>(result));
+        }
+        return result;
+    }
+
+    /**
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     * @return The parsed class files of the package and its subpackages, sorted by class name. If a
+     *         class is on the class path more than once, the first one wins, like with class
+     *         loading.
+     * @throws UncheckedIOException If the class path cannot be read.
+     * @throws IllegalArgumentException If a class file is invalid.
+     */
+    static List<ClassFile> classFilesIn(String packageName) {
+        var path = packageName.replace('.', '/');
+        var result = new TreeMap<String, ClassFile>();
+        try {
+            var roots = classLoader().getResources(path);
+            while (roots.hasMoreElements()) {
+                var root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    addClassFiles(Path.of(root.toURI()), result);
+                } else if ("jar".equals(root.getProtocol())) {
+                    var jarFile = Path.of(((JarURLConnection) root.openConnection()).getJarFileURL().toURI());
+                    try (var jar = FileSystems.newFileSystem(jarFile, (ClassLoader) null)) {
+                        addClassFiles(jar.getPath(path), result);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan package " + packageName + ".", e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Encountered invalid class path entry for package " + packageName + ".", e);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * @param className - Binary name of a class, e. g. {@code java.lang.Object}.
+     * @return The parsed class file of the class with the provided {@code className} as the class
+     *         loader would find it, including classes of the JDK. {@code null} if there is none.
+     * @throws UncheckedIOException If the class file cannot be read.
+     * @throws IllegalArgumentException If the class file is invalid.
+     */
+    static ClassFile classFile(String className) {
+        try (var in = classLoader().getResourceAsStream(className.replace('.', '/') + CLASS_FILE_SUFFIX)) {
+            return in == null ? null : ClassFile.parse(ByteBuffer.wrap(in.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file of " + className + ".", e);
+        }
+    }
+
+    private static ClassLoader classLoader() {
+        var result = Thread.currentThread().getContextClassLoader();
+        return result == null ? ClassScanner.class.getClassLoader() : result;
+    }
+
+    private static List<Class<?>> scan(ClassLoader loader, String packageName) {
+        return classNamesIn(loader, packageName).parallelStream().map(className -> load(loader, className)).filter(Objects::nonNull)
+            .collect(toList());
+    }
+
+    private static Set<String> classNamesIn(ClassLoader loader, String packageName) {
+        var path = packageName.replace('.', '/');
+        var result = new TreeSet<String>();
+        try {
+            var roots = loader.getResources(path);
+            while (roots.hasMoreElements()) {
+                var root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    addDirectory(Path.of(root.toURI()), packageName, result);
+                } else if ("jar".equals(root.getProtocol())) {
+                    addJar(root, path, result);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan package " + packageName + ".", e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Encountered invalid class path entry for package " + packageName + ".", e);
+        }
+        return result;
+    }
+
+    private static void addDirectory(Path directory, String packageName, Set<String> result) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> isClassFile(file.toString())).forEach(file -> {
+                var relativeName = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), ".");
+                result.add(toClassName(packageName.isEmpty() ? relativeName : packageName + "." + relativeName));
+            });
+        }
+    }
+
+    private static void addClassFiles(Path directory, Map<String, ClassFile> result) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(file -> isClassFile(file.toString())).collect(toList());
+        }
+        for (var classFile : files.parallelStream().map(ClassScanner::parse).collect(toList())) {
+            result.putIfAbsent(classFile.name(), classFile);
+        }
+    }
+
+    private static ClassFile parse(Path file) {
+        try {
+            // Not memory mapped, because the parsed class file keeps slices of the buffer. A mapping
+            // would then stay alive as long as the class file, and class files are small anyway.
+            return ClassFile.parse(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file " + file + ".", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Encountered invalid class file " + file + ".", e);
+        }
+    }
+
+    private static void addJar(URL root, String path, Set<String> result) throws IOException {
+        var connection = (JarURLConnection) root.openConnection();
+        connection.setUseCaches(false);
+        try (var jar = connection.getJarFile()) {
+            var prefix = path.isEmpty() ? "" : path + "/";
+            jar.stream().map(entry -> entry.getName()).filter(name -> name.startsWith(prefix) && isClassFile(name))
+                .forEach(name -> result.add(toClassName(name.replace('/', '.'))));
+        }
+    }
+
+    private static boolean isClassFile(String fileName) {
+        return fileName.endsWith(CLASS_FILE_SUFFIX) && !fileName.endsWith("module-info" + CLASS_FILE_SUFFIX)
+            && !fileName.endsWith("package-info" + CLASS_FILE_SUFFIX);
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - CLASS_FILE_SUFFIX.length());
+    }
+
+    private static Class<?> load(ClassLoader loader, String className) {
+        try {
+            return Class.forName(className, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.itemis.fluffyj.tests;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * <p>
+ * JUnit5 based extension that installs a virtual clock for each test method. While it is active,
+ * {@link FluffyTestHelper#sleep(Duration)} advances the virtual time right away instead of
+ * blocking, so that tests dominated by sleeps finish in no time.
+ * </p>
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * public class SomeTest {
+    &#64;RegisterExtension
+    FluffyTestClock testClock = new FluffyTestClock();
+
+    &#64;Test
+    public void testSomething() {
+        var underTest = new SomeApi(testClock.clock());
+        underTest.startSession();
+        FluffyTestHelper.sleep(Duration.ofMinutes(30));
+        assertThat(underTest.isSessionExpired()).isTrue();
+    }
+}
+ * </pre>
+ * </p>
+ * <p>
+ * Code under test that is supposed to see the virtual time must be given {@link #clock()} instead
+ * of reading the system clock. The virtual clock is active on the test thread and on threads
+ * started by it while the test runs. Threads that existed before, e. g. the threads of a shared
+ * pool, sleep for real. So do threads started by the test once the test is over, even if they are
+ * reused by later tests. Sleeps of threads running at the same time add up.
+ * </p>
+ */
+public final class FluffyTestClock implements BeforeEachCallback, AfterEachCallback {
+
+    // Threads started by a test inherit the activation of that test and keep it after the test.
+    private static final InheritableThreadLocal<Activation> ACTIVE = new InheritableThreadLocal<>();
+
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private Instant configuredStart;
+    private volatile Instant start = Instant.now();
+    private Activation activation;
+    private Activation previous;
+
+    /**
+     * Start the virtual time of each test at the provided {@code start} instead of the time the test
+     * starts at. Must be called before the extension is registered.
+     *
+     * @param start - Virtual time at the beginning of each test.
+     * @return This instance.
+     */
+    public FluffyTestClock startingAt(Instant start) {
+        this.configuredStart = requireNonNull(start, "start");
+        this.start = configuredStart;
+        return this;
+    }
+
+    /**
+     * @return A {@link Clock} showing the virtual time in UTC. Use {@link Clock#withZone(ZoneId)}
+     *         for other zones. Derived clocks keep showing the virtual time.
+     */
+    public Clock clock() {
+        return new VirtualClock(ZoneOffset.UTC);
+    }
+
+    /**
+     * Advance the virtual time by the provided {@code duration}.
+     *
+     * @param duration - Must not be negative.
+     */
+    public void advance(Duration duration) {
+        requireNonNull(duration, "duration");
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("duration must not be negative.");
+        }
+        elapsedNanos.addAndGet(duration.toNanos());
+    }
+
+    /**
+     * @return The virtual time that has passed since the current test started.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos.get());
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        start = configuredStart == null ? Instant.now() : configuredStart;
+        elapsedNanos.set(0);
+        activation = new Activation(this);
+        previous = ACTIVE.get();
+        ACTIVE.set(activation);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        if (activation != null) {
+            activation.ended = true;
+            activation = null;
+        }
+        if (previous == null) {
+            ACTIVE.remove();
+        } else {
+            ACTIVE.set(previous);
+            previous = null;
+        }
+    }
+
+    /**
+     * @return The clock that is active on the calling thread, {@code null} if there is none or if
+     *         the test that activated it is over.
+     */
+    static FluffyTestClock active() {
+        var result = ACTIVE.get();
+        return result == null || result.ended ? null : result.clock;
+    }
+
+    private static final class Activation {
+
+        private final FluffyTestClock clock;
+        private volatile boolean ended;
+
+        Activation(FluffyTestClock clock) {
+            this.clock = clock;
+        }
+    }
+
+    private final class VirtualClock extends Clock {
+
+        private final ZoneId zone;
+
+        VirtualClock(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new VirtualClock(requireNonNull(zone, "zone"));
+        }
+
+        @Override
+        public Instant instant() {
+            return start.plusNanos(elapsedNanos.get());
+        }
+    }
+}
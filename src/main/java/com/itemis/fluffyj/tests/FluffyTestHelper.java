@@ -5,7 +5,6 @@ import static java.lang.Thread.currentThread;
 import static java.lang.reflect.Modifier.isFinal;
 import static java.lang.reflect.Modifier.isPrivate;
 import static java.lang.reflect.Modifier.isStatic;
-import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.stream.Collectors.toList;
@@ -13,21 +12,20 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.assertj.core.api.Condition;
 
@@ -40,6 +38,10 @@ import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
  */
 public final class FluffyTestHelper {
 
+    // Parking overshoots by the latency of the OS scheduler, typically tens of microseconds. Thus,
+    // the rest of a sleep shorter than this is spun.
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
     private FluffyTestHelper() {
         throw new InstantiationNotPermittedException();
     }
@@ -95,7 +97,7 @@ public final class FluffyTestHelper {
         boolean isAbstract = Modifier.isAbstract(clazz.getModifiers());
 
         if (!isAbstract) {
-            var constructors = Arrays.asList(clazz.getDeclaredConstructors());
+            var constructors = ReflectionData.of(clazz).declaredConstructors();
             var description = "exactly one constructor, private and without args";
 
             assertThat(constructors).as(description).hasSize(1);
@@ -151,12 +153,13 @@ public final class FluffyTestHelper {
         }
 
 
+        var reflectionData = ReflectionData.of(clazz);
         List<Method> publicMethodCandidates =
-            asList(clazz.getMethods()).stream().filter(method -> !method.getDeclaringClass().equals(Object.class)).collect(toList());
+            reflectionData.methods().stream().filter(method -> !method.getDeclaringClass().equals(Object.class)).collect(toList());
         assertThat(publicMethodCandidates).as("Static helper classes must not have any non static methods.")
             .allMatch(method -> isStatic(method.getModifiers()));
 
-        assertThat(asList(clazz.getDeclaredMethods())).as("Static helper classes must not have any non static methods.")
+        assertThat(reflectionData.declaredMethods()).as("Static helper classes must not have any non static methods.")
             .allMatch(method -> isStatic(method.getModifiers()));
     }
 
@@ -183,7 +186,139 @@ public final class FluffyTestHelper {
                 && "serialVersionUID".equals(field.getName());
         }, "private static final long serialVersionUID");
 
-        assertThat(clazz.getDeclaredFields()).haveAtLeastOne(serialVersionUID);
+        assertThat(ReflectionData.of(clazz).declaredFields()).haveAtLeastOne(serialVersionUID);
+    }
+
+    /**
+     * <p>
+     * Assert that each class in the package with the provided {@code packageName} or in one of its
+     * subpackages that looks like a static helper is one, see {@link #assertIsStaticHelper(Class)}.
+     * </p>
+     * <p>
+     * A class looks like a static helper if it is neither an interface, an enum nor an annotation, it
+     * extends {@link Object} directly, it declares at least one method, all of its methods and
+     * fields are static and it is either final or all of its constructors are private. Hence, a
+     * class that only has a {@code main} method and the default constructor, like the application
+     * class of a Spring Boot application, is not checked.
+     * </p>
+     * <p>
+     * The class path is scanned once per package. All invalid classes are reported at once.
+     * Checking a static helper invokes its constructor and thus initializes the class. A static
+     * initializer that fails is reported as a violation, too. Classes are checked one after the
+     * other, because static initializers that depend on each other in a cycle may dead lock if they
+     * run in parallel. Use {@link #assertAllStaticHelpersIn(String, ScanMode)} with
+     * {@link ScanMode#CLASS_FILE} in order to check in parallel without loading classes.
+     * </p>
+     *
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     */
+    public static void assertAllStaticHelpersIn(String packageName) {
+        assertAllStaticHelpersIn(packageName, ScanMode.REFLECTION);
+    }
+
+    /**
+     * Like {@link #assertAllStaticHelpersIn(String)}, looking at the classes as the provided
+     * {@code scanMode} tells.
+     *
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     */
+    public static void assertAllStaticHelpersIn(String packageName, ScanMode scanMode) {
+        requireNonNull(packageName, "packageName");
+        requireNonNull(scanMode, "scanMode");
+
+        var description = "Encountered invalid static helpers.";
+        if (scanMode == ScanMode.CLASS_FILE) {
+            var classFiles = ClassScanner.classFilesIn(packageName);
+            assertNoViolations(packageName, classFiles, true, new ClassFileChecks(classFiles)::staticHelperViolation, description);
+        } else {
+            assertNoViolations(packageName, ClassScanner.classesIn(packageName), false,
+                clazz -> violationOf(clazz, FluffyTestHelper::looksLikeStaticHelper, FluffyTestHelper::assertIsStaticHelper), description);
+        }
+    }
+
+    /**
+     * <p>
+     * Assert that each serializable class in the package with the provided {@code packageName} or in
+     * one of its subpackages has a {@code serialVersionUID}, see {@link #assertSerialVersionUid(Class)}.
+     * Enums, including the bodies of their constants, are not checked, because their
+     * {@code serialVersionUID} is ignored.
+     * </p>
+     * <p>
+     * The class path is scanned once per package. Classes are checked in parallel, without being
+     * initialized. All invalid classes are reported at once.
+     * </p>
+     *
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     */
+    public static void assertAllSerializableHaveSerialVersionUid(String packageName) {
+        assertAllSerializableHaveSerialVersionUid(packageName, ScanMode.REFLECTION);
+    }
+
+    /**
+     * Like {@link #assertAllSerializableHaveSerialVersionUid(String)}, looking at the classes as the
+     * provided {@code scanMode} tells.
+     *
+     * @param packageName - Fully qualified name of the package, e. g. {@code com.acme}.
+     */
+    public static void assertAllSerializableHaveSerialVersionUid(String packageName, ScanMode scanMode) {
+        requireNonNull(packageName, "packageName");
+        requireNonNull(scanMode, "scanMode");
+
+        var description = "Encountered serializable classes without serialVersionUID.";
+        if (scanMode == ScanMode.CLASS_FILE) {
+            var classFiles = ClassScanner.classFilesIn(packageName);
+            assertNoViolations(packageName, classFiles, true, new ClassFileChecks(classFiles)::serialVersionUidViolation, description);
+        } else {
+            assertNoViolations(packageName, ClassScanner.classesIn(packageName), true, clazz -> violationOf(clazz,
+                type -> Serializable.class.isAssignableFrom(type) && !type.isInterface() && !Enum.class.isAssignableFrom(type)
+                    && !type.isSynthetic(),
+                FluffyTestHelper::assertSerialVersionUid), description);
+        }
+    }
+
+    private static <T> void assertNoViolations(String packageName, List<T> types, boolean parallel, Function<T, Optional<String>> check,
+            String description) {
+        assertThat(types).as("No classes found in package " + packageName + ".").isNotEmpty();
+
+        // Parallel streams run on the common fork join pool.
+        var stream = parallel ? types.parallelStream() : types.stream();
+        var violations = stream.map(check).flatMap(Optional::stream).collect(toList());
+        assertThat(violations).as(description).isEmpty();
+    }
+
+    private static Optional<String> violationOf(Class<?> clazz, Predicate<Class<?>> filter, Consumer<Class<?>> assertion) {
+        try {
+            if (filter.test(clazz)) {
+                assertion.accept(clazz);
+            }
+            return empty();
+        } catch (AssertionError e) {
+            return Optional.of(clazz.getName() + ": " + String.valueOf(e.getMessage()).strip().replaceAll("\\s+", " "));
+        } catch (ExceptionInInitializerError e) {
+            return Optional.of(clazz.getName() + ": Static initializer failed: " + e.getCause());
+        } catch (NoClassDefFoundError e) {
+            // Thrown if the static initializer has failed before or a type used by the class is
+            // missing.
+            return Optional.of(clazz.getName() + ": Could not be initialized: " + e.getMessage());
+        } catch (LinkageError e) {
+            // The class does not match the classes it has been compiled against. It cannot be used
+            // anyway.
+            return empty();
+        }
+    }
+
+    private static boolean looksLikeStaticHelper(Class<?> clazz) {
+        if (clazz.isInterface() || clazz.isEnum() || clazz.isAnnotation() || clazz.isAnonymousClass() || clazz.isLocalClass()
+            || clazz.isSynthetic() || clazz.getSuperclass() != Object.class) {
+            return false;
+        }
+
+        var reflectionData = ReflectionData.of(clazz);
+        var methods = reflectionData.declaredMethods().stream().filter(method -> !method.isSynthetic()).collect(toList());
+        return !methods.isEmpty() && methods.stream().allMatch(method -> isStatic(method.getModifiers()))
+            && reflectionData.declaredFields().stream().filter(field -> !field.isSynthetic()).allMatch(field -> isStatic(field.getModifiers()))
+            && (isFinal(clazz.getModifiers())
+                || reflectionData.declaredConstructors().stream().allMatch(constructor -> isPrivate(constructor.getModifiers())));
     }
 
     /**
@@ -202,30 +337,56 @@ public final class FluffyTestHelper {
     }
 
     /**
+     * <p>
      * Sleeps for the specified {@code waitingTime}. Thread interruptions are respected. In case of
      * interruption the thread interrupt flag will be preserved.
+     * </p>
+     * <p>
+     * The sleeping thread parks until shortly before the deadline and spins for the rest of the
+     * time, so that it neither wakes up early nor overshoots by the latency of the OS scheduler. No
+     * other thread is involved.
+     * </p>
+     * <p>
+     * If a {@link FluffyTestClock} is active, the virtual time is advanced instead and the method
+     * returns right away.
+     * </p>
      *
-     * @param waitingTime - Precision is milliseconds.
+     * @param waitingTime - Precision is nanoseconds, subject to the resolution of
+     *        {@link System#nanoTime()}.
      * @throws InterruptedException - In case the sleeping thread is interrupted.
      */
-    // Using an Executor based approach here in order to avoid "drift", i. e. sleeping shorter /
-    // longer than specified.
     public static void sleep(Duration waitingTime) {
-        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        requireNonNull(waitingTime, "waitingTime");
 
-        CountDownLatch latch = new CountDownLatch(1);
-        ScheduledFuture<?> future = executorService.schedule(() -> latch.countDown(), waitingTime.toMillis(), TimeUnit.MILLISECONDS);
+        var virtualClock = FluffyTestClock.active();
+        if (virtualClock != null) {
+            if (currentThread().isInterrupted()) {
+                throwThat(new InterruptedException("Sleep has been interrupted."));
+            }
+            virtualClock.advance(waitingTime.isNegative() ? Duration.ZERO : waitingTime);
+            return;
+        }
+
+        var waitingNanos = toNanosSaturated(waitingTime);
+        var start = System.nanoTime();
+        // Parking may return early for no reason, hence the loop.
+        for (var remaining = waitingNanos; remaining > 0; remaining = waitingNanos - (System.nanoTime() - start)) {
+            if (currentThread().isInterrupted()) {
+                throwThat(new InterruptedException("Sleep has been interrupted."));
+            }
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
 
+    private static long toNanosSaturated(Duration duration) {
         try {
-            future.get();
-        } catch (InterruptedException e) {
-            currentThread().interrupt();
-            throwThat(e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause() == null ? e : e.getCause();
-            fail("This should never happen.", cause);
-        } finally {
-            executorService.shutdownNow();
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
         }
     }
 }
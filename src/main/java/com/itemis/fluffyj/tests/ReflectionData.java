@@ -0,0 +1,94 @@
+package com.itemis.fluffyj.tests;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * <p>
+ * Caches the reflective metadata of a class, so that checking the same class more than once does
+ * not copy its members each time. {@link Class#getMethods()} and the like return fresh copies on
+ * each call.
+ * </p>
+ * <p>
+ * Each kind of member is looked up the first time it is needed only. The lists are unmodifiable.
+ * The members in them are shared, though. Callers must not rely on their accessibility flag.
+ * </p>
+ */
+final class ReflectionData {
+
+    private static final ClassValue<ReflectionData> CACHE = new ClassValue<>() {
+        @Override
+        protected ReflectionData computeValue(Class<?> type) {
+            return new ReflectionData(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    // Looking up the same members twice by accident does no harm.
+    private volatile List<Method> methods;
+    private volatile List<Method> declaredMethods;
+    private volatile List<Field> declaredFields;
+    private volatile List<Constructor<?>> declaredConstructors;
+
+    private ReflectionData(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * @return The cached metadata of the provided {@code type}.
+     */
+    static ReflectionData of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @return Like {@link Class#getMethods()}.
+     */
+    List<Method> methods() {
+        var result = methods;
+        if (result == null) {
+            result = List.of(type.getMethods());
+            methods = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Like {@link Class#getDeclaredMethods()}.
+     */
+    List<Method> declaredMethods() {
+        var result = declaredMethods;
+        if (result == null) {
+            result = List.of(type.getDeclaredMethods());
+            declaredMethods = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Like {@link Class#getDeclaredFields()}.
+     */
+    List<Field> declaredFields() {
+        var result = declaredFields;
+        if (result == null) {
+            result = List.of(type.getDeclaredFields());
+            declaredFields = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Like {@link Class#getDeclaredConstructors()}.
+     */
+    List<Constructor<?>> declaredConstructors() {
+        var result = declaredConstructors;
+        if (result == null) {
+            result = List.of(type.getDeclaredConstructors());
+            declaredConstructors = result;
+        }
+        return result;
+    }
+}
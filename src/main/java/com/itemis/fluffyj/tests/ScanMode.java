@@ -0,0 +1,21 @@
+package com.itemis.fluffyj.tests;
+
+/**
+ * Tells how package wide checks like {@link FluffyTestHelper#assertAllStaticHelpersIn(String, ScanMode)}
+ * look at the classes of a package.
+ */
+public enum ScanMode {
+
+    /**
+     * Load each class and check it by reflection. Classes are not initialized, except for static
+     * helpers, whose constructor is invoked in order to make sure that it throws.
+     */
+    REFLECTION,
+
+    /**
+     * Parse the class file of each class instead of loading it, so that checks neither run static
+     * initializers nor take up metaspace. Constructors are not invoked. Instead, their code is
+     * checked for creating and throwing the expected exception.
+     */
+    CLASS_FILE
+}
@@ -4,6 +4,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.ThreadFactory;
 
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -18,7 +19,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
  * <li>Write a test that calls code that may not be thread safe.</li>
  * <li>Annotate the test with {@link AssertThreadSafety}.</li>
  * <li>Optionally specify {@code threadCount}. The more threads, the more likely to identify errors.
+ * <li>Optionally specify {@code rounds} or {@code durationMillis} in order to let the same threads
+ * run the test over and over again. Each round starts all threads at roughly the same time.
+ * Optionally specify {@code beforeRound} in order to reset state between rounds.</li>
+ * <li>Optionally specify {@code threadCounts} in order to measure how throughput scales with the
+ * number of threads and {@code minScalingEfficiency} in order to let the test fail if it does not
+ * scale well enough.</li>
+ * <li>Optionally specify {@code startAlignment} in order to let threads start even closer
+ * together.</li>
+ * <li>Optionally specify {@code explore} in order to systematically try different interleavings
+ * of the threads at {@link FluffyYield#point() yield points}.</li>
+ * <li>Optionally specify a {@code backend} in order to run the test in virtual threads or in
+ * threads of your own {@link ThreadFactory}.</li>
+ * <li>Optionally declare a {@link ThreadSafetyContext} parameter in order to hand over the result of
+ * each thread and specify {@code results} in order to check them after each round.</li>
  * <li>Let JUnit5 run the test. Threads will be spawned and started at roughly the same time.</li>
+ * <li>Figures like throughput and latency percentiles of the invocations are published as JUnit
+ * report entries. Optionally specify thresholds like {@code maxP99Millis} in order to let the test
+ * fail if they are not met.</li>
  * <li>Each instance of the test is supposed to pass. If one instance failes while the others pass,
  * the tested code is likely to not be thread safe.</li>
  * </ol>
@@ -80,5 +98,199 @@ import org.junit.jupiter.api.extension.ExtendWith;
 @Retention(RetentionPolicy.RUNTIME)
 @ExtendWith(FluffyTestThreadSafety.class)
 public @interface AssertThreadSafety {
+
+    /**
+     * May be used in {@link #threadCounts()} as a placeholder for the number of processors
+     * available to the JVM.
+     */
+    int AVAILABLE_PROCESSORS = -1;
+
     int threadCount() default 2;
+
+    /**
+     * <p>
+     * If not empty, the test runs once per listed thread count, e. g.
+     * {@code threadCounts = {1, 2, 4, AVAILABLE_PROCESSORS}}. {@link #threadCount()} and
+     * {@link #rounds()} are ignored in this case.
+     * </p>
+     * <p>
+     * Threads do not wait for each other between invocations but invoke the test method over and
+     * over again for {@link #durationMillis()} per thread count, one second if not specified. This
+     * measures the throughput at each thread count rather than the cost of synchronizing the threads
+     * after each invocation.
+     * </p>
+     * <p>
+     * Cannot be combined with {@link #explore()}.
+     * </p>
+     */
+    int[] threadCounts() default {};
+
+    /**
+     * <p>
+     * The number of rounds to run the test in. Each thread runs the test once per round. All rounds
+     * are played by the same threads, i. e. there is no thread setup cost between rounds. The run
+     * stops after the first round in which a thread failed.
+     * </p>
+     * <p>
+     * All rounds run on the same test instance, i. e. state carries over from one round to the
+     * next. Unlike with {@code @RepeatedTest}, code that settles on its first call, e. g. a lazy
+     * initialization, only races in the first round. Reset such state in {@link #beforeRound()}.
+     * </p>
+     */
+    int rounds() default 1;
+
+    /**
+     * <p>
+     * The name of a method of the test class without parameters that is called before each round,
+     * including the first one. It is called while no thread runs the test, e. g. in order to create
+     * a fresh instance of the code under test. Threads see everything it did.
+     * </p>
+     * <p>
+     * A {@link #threadCounts()} test plays a single round per thread count. If it throws, the test
+     * fails without playing the round.
+     * </p>
+     */
+    String beforeRound() default "";
+
+    /**
+     * If positive, rounds are played until this many milliseconds have elapsed. At least one round
+     * is played. {@link #rounds()} is ignored in this case.
+     */
+    long durationMillis() default 0;
+
+    /**
+     * The kind of threads to run the test in. {@link ThreadBackend#VIRTUAL} requires Java 21 or
+     * newer.
+     */
+    ThreadBackend backend() default ThreadBackend.PLATFORM;
+
+    /**
+     * The {@link ThreadFactory} to use with {@link ThreadBackend#CUSTOM}. Must have a no args
+     * constructor. Ignored by all other backends.
+     */
+    Class<? extends ThreadFactory> threadFactory() default ThreadFactory.class;
+
+    /**
+     * <p>
+     * If {@code true}, the test runs in a pool of threads that is shared by all tests of the test
+     * run that use the same {@link #backend()}. The pool grows to the largest requested
+     * {@link #threadCount()} and is shut down once at the end of the test run. This saves setting up
+     * and tearing down threads for each test.
+     * </p>
+     * <p>
+     * Tests take turns in using the pool. Threads of a test that do not stop in time after the test
+     * is done are replaced, so that they cannot interfere with subsequent tests.
+     * </p>
+     */
+    boolean sharedPool() default false;
+
+    /**
+     * <p>
+     * How threads are released at the start of each round. With {@link StartAlignment#SPIN},
+     * waiting threads busy spin instead of parking, so that they start more closely together and
+     * are more likely to actually overlap. This makes races in short test methods more likely to
+     * show up.
+     * </p>
+     * <p>
+     * The measured start skew, i. e. the time between the first and the last thread starting a
+     * round, is published as a report entry.
+     * </p>
+     */
+    StartAlignment startAlignment() default StartAlignment.PARK;
+
+    /**
+     * <p>
+     * If {@code true}, threads do not run freely but take turns. They hand over to each other at
+     * {@link FluffyYield#point() yield points} only and the next thread to run is drawn at random.
+     * Thus, each round plays one interleaving of the threads. Instead of hoping for a race to
+     * happen, a couple of hundred rounds usually suffice to find interleavings that break the test,
+     * provided that each round starts from fresh state, see {@link #beforeRound()}. Otherwise, code
+     * that settles on its first call is explored in the first round only.
+     * </p>
+     * <p>
+     * The schedule of a failing round and its seed are logged and attached to the thrown error
+     * together with the annotation that replays it. With {@link #beforeRound()}, the failing round
+     * is replayed by itself. Without, all rounds up to the failing one are replayed, because it may
+     * depend on the state left behind by the earlier ones.
+     * </p>
+     */
+    boolean explore() default false;
+
+    /**
+     * <p>
+     * How to check the results the threads handed over via an injected {@link ThreadSafetyContext}.
+     * Results are checked once all threads have finished a round, so there is no need to collect
+     * them in a synchronized data structure.
+     * </p>
+     * <p>
+     * Every thread must set a result in every round unless this is {@link ResultAssertion#NONE}.
+     * </p>
+     */
+    ResultAssertion results() default ResultAssertion.NONE;
+
+    /**
+     * The seed of the schedule of the first round of an {@link #explore()} test. Round {@code n}
+     * uses {@code seed + n}, or 1 if that is 0. If 0, a random seed is used.
+     */
+    long seed() default 0;
+
+    /**
+     * If positive, the test fails if the 99th percentile of the durations of all invocations of
+     * the test method exceeds this many milliseconds. Only checked if all invocations passed.
+     */
+    double maxP99Millis() default 0;
+
+    /**
+     * If positive, the test fails if there are less invocations of the test method per second than
+     * this, counting the invocations of all threads. Only checked if all invocations passed.
+     */
+    double minThroughputPerSecond() default 0;
+
+    /**
+     * <p>
+     * If positive, a {@link #threadCounts()} test fails if the throughput at any thread count falls
+     * below this fraction of linear scaling, e. g. 0.7 for 70 percent. Linear scaling is
+     * extrapolated from the throughput at the smallest thread count and capped at the number of
+     * available processors, i. e. more threads than processors are expected to keep the throughput
+     * but not to increase it.
+     * </p>
+     * <p>
+     * The measured efficiencies are published as report entries.
+     * </p>
+     */
+    double minScalingEfficiency() default 0;
+
+    /**
+     * <p>
+     * If positive, the test fails if its threads did not finish within this many milliseconds.
+     * This applies to each thread count of a {@link #threadCounts()} test separately.
+     * </p>
+     * <p>
+     * Regardless of this, the test fails as soon as its threads are found to be dead locked. The
+     * extension first looks for dead locks after 200 ms and then at intervals that double up to 3 s,
+     * because each look pauses all threads of the JVM briefly. In both cases, the error contains a
+     * stack dump of all threads including the locks they hold.
+     * </p>
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * <p>
+     * If {@code true}, a JDK Flight Recorder recording of monitor enter, monitor wait and thread
+     * park events runs alongside the test. The time threads blocked in the test method is
+     * published as report entries, together with the classes and monitors they blocked on the
+     * longest. Blocking caused by the harness itself is left out.
+     * </p>
+     * <p>
+     * Every blocking event is recorded with its stack trace, which slows down heavily contended
+     * tests. Ignored with a warning if the JVM does not support JFR.
+     * </p>
+     */
+    boolean recordContention() default false;
+
+    /**
+     * If positive, a {@link #recordContention()} test fails if its threads blocked for more than
+     * this many milliseconds in total. Only checked if all invocations passed.
+     */
+    double maxBlockedMillis() default 0;
 }
@@ -0,0 +1,190 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * <p>
+ * Records where the workers of an {@link AssertThreadSafety#recordContention() recordContention}
+ * test blocked by means of a JDK Flight Recorder {@link Recording}.
+ * </p>
+ * <p>
+ * Monitor enter, monitor wait and thread park events are recorded for all threads of the JVM,
+ * because JFR cannot be restricted to certain threads. Afterwards, only events of the workers are
+ * taken into account. Events caused by the harness itself, e. g. waiting at the start barrier, are
+ * told apart by their stack traces: Blocking in the test method always happens in code called by
+ * {@link FluffyTestThreadSafety} on behalf of {@link ThreadSafetyRun}.
+ * </p>
+ */
+final class ContentionRecorder implements AutoCloseable {
+
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final String MONITOR_WAIT = "jdk.JavaMonitorWait";
+    private static final String THREAD_PARK = "jdk.ThreadPark";
+    private static final int TOP_COUNT = 5;
+
+    private final Recording recording = new Recording();
+
+    private ContentionRecorder() {
+        recording.setName(FluffyTestThreadSafety.class.getSimpleName());
+        recording.setToDisk(true);
+        for (var eventName : List.of(MONITOR_ENTER, MONITOR_WAIT, THREAD_PARK)) {
+            recording.enable(eventName).withThreshold(Duration.ZERO).withStackTrace();
+        }
+    }
+
+    /**
+     * @return A started recorder that must be {@link #close() closed} after use.
+     */
+    static ContentionRecorder start() {
+        var result = new ContentionRecorder();
+        result.recording.start();
+        return result;
+    }
+
+    /**
+     * Stop recording and summarize the events of the provided {@code workers}.
+     *
+     * @throws IOException If the recording cannot be read.
+     */
+    Summary stop(List<Thread> workers) throws IOException {
+        recording.stop();
+
+        Set<Long> workerIds = new HashSet<>();
+        workers.forEach(worker -> workerIds.add(worker.getId()));
+
+        var file = Files.createTempFile("fluffyj-contention", ".jfr");
+        try {
+            recording.dump(file);
+            var result = new Summary();
+            try (var recordingFile = new RecordingFile(file)) {
+                while (recordingFile.hasMoreEvents()) {
+                    var event = recordingFile.readEvent();
+                    var thread = event.getThread();
+                    if (thread != null && workerIds.contains(thread.getJavaThreadId()) && !isCausedByHarness(event.getStackTrace())) {
+                        result.add(event);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+
+    private static boolean isCausedByHarness(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return true;
+        }
+        if (stackTrace.isTruncated()) {
+            // Stacks are truncated at the bottom. Deep stacks most likely come from the test.
+            return false;
+        }
+        // Walk from the innermost frame outwards. The test method is called by
+        // FluffyTestThreadSafety which in turn is called by ThreadSafetyRun.
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            var className = frame.isJavaFrame() ? frame.getMethod().getType().getName() : "";
+            if (className.equals(FluffyTestThreadSafety.class.getName())) {
+                return false;
+            }
+            if (className.equals(ThreadSafetyRun.class.getName())) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocked time of the workers by kind of event and by monitor.
+     */
+    static final class Summary {
+        private final Map<String, long[]> nanosAndCountByEvent = new HashMap<>();
+        private final Map<String, long[]> nanosAndCountByClass = new HashMap<>();
+        private final Map<String, long[]> nanosAndCountByMonitor = new HashMap<>();
+        private long totalNanos;
+
+        private Summary() {
+            // Created by the recorder only.
+        }
+
+        /**
+         * @return The total time the workers blocked in the test method.
+         */
+        long totalBlockedNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Add the summary to the provided {@code report}.
+         */
+        void addTo(ThreadSafetyReport report) {
+            report.addMillis("blockedMillis", totalNanos)
+                .addMillis("monitorEnterBlockedMillis", nanosOf(nanosAndCountByEvent.get(MONITOR_ENTER)))
+                .addMillis("monitorWaitBlockedMillis", nanosOf(nanosAndCountByEvent.get(MONITOR_WAIT)))
+                .addMillis("parkBlockedMillis", nanosOf(nanosAndCountByEvent.get(THREAD_PARK)))
+                .add("topContendedClasses", describeTop(nanosAndCountByClass))
+                .add("topContendedMonitors", describeTop(nanosAndCountByMonitor));
+        }
+
+        /**
+         * @return A human readable list of the classes the workers blocked on the longest.
+         */
+        String describeTopClasses() {
+            return describeTop(nanosAndCountByClass);
+        }
+
+        private void add(RecordedEvent event) {
+            var nanos = event.getDuration().toNanos();
+            var eventName = event.getEventType().getName();
+            var classField = THREAD_PARK.equals(eventName) ? "parkedClass" : "monitorClass";
+            var recordedClass = event.hasField(classField) ? event.getClass(classField) : null;
+            var className = recordedClass == null ? "<unknown>" : recordedClass.getName();
+            var monitor = event.hasField("address") ? className + "@" + Long.toHexString(event.getLong("address")) : className;
+
+            totalNanos += nanos;
+            count(nanosAndCountByEvent, eventName, nanos);
+            count(nanosAndCountByClass, className, nanos);
+            count(nanosAndCountByMonitor, monitor, nanos);
+        }
+
+        private static void count(Map<String, long[]> nanosAndCountByKey, String key, long nanos) {
+            var nanosAndCount = nanosAndCountByKey.computeIfAbsent(key, unused -> new long[2]);
+            nanosAndCount[0] += nanos;
+            nanosAndCount[1]++;
+        }
+
+        private static long nanosOf(long[] nanosAndCount) {
+            return nanosAndCount == null ? 0 : nanosAndCount[0];
+        }
+
+        private static String describeTop(Map<String, long[]> nanosAndCountByKey) {
+            return nanosAndCountByKey.entrySet().stream()
+                .sorted(comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(TOP_COUNT)
+                .map(entry -> String.format(Locale.ROOT, "%s %.3f ms (%d events)", entry.getKey(),
+                    ThreadSafetyReport.toMillis(entry.getValue()[0]), entry.getValue()[1]))
+                .collect(joining("; "));
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.itemis.fluffyj.tests.concurrency;
 
 import static com.itemis.fluffyj.sneaky.Sneaky.throwThat;
+import static java.lang.reflect.Modifier.isPrivate;
 
-import com.itemis.fluffyj.concurrency.ExecutorServiceHandle;
 import com.itemis.fluffyj.concurrency.ThreadNameFactory;
 import com.itemis.fluffyj.concurrency.UniqueShortIdThreadNameFactory;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
 import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
 import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 import org.opentest4j.AssertionFailedError;
 import org.slf4j.Logger;
@@ -17,11 +20,18 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
 
 /**
  * A Junit5 based extension that runs a test concurrently in multiple threads to see if it behaves
@@ -29,11 +39,30 @@ import java.util.concurrent.Future;
  *
  * @see AssertThreadSafety for details on how to use it.
  */
-public final class FluffyTestThreadSafety implements InvocationInterceptor {
+public final class FluffyTestThreadSafety implements InvocationInterceptor, ParameterResolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(FluffyTestThreadSafety.class);
+    private static final String ERROR_MESSAGE_PREFIX = "Cannot test thread safety: ";
 
-    private final ThreadNameFactory defaultThreadNameFactory = new UniqueShortIdThreadNameFactory(getClass().getSimpleName() + "-Thread");
+    private static final String THREAD_NAME_PREFIX = FluffyTestThreadSafety.class.getSimpleName() + "-Thread";
+    private static final String SHARED_THREAD_NAME_PREFIX = FluffyTestThreadSafety.class.getSimpleName() + "-SharedThread";
+    private static final Namespace NAMESPACE = Namespace.create(FluffyTestThreadSafety.class);
+    private static final Duration DEFAULT_SWEEP_LEVEL_DURATION = Duration.ofSeconds(1);
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private final ThreadNameFactory defaultThreadNameFactory = new UniqueShortIdThreadNameFactory(THREAD_NAME_PREFIX);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == ThreadSafetyContext.class
+            && parameterContext.getDeclaringExecutable().isAnnotationPresent(AssertThreadSafety.class);
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        // Replaced with the context of the respective thread right before the test method is invoked.
+        return new ThreadSafetyContext(null, -1);
+    }
 
     @Override
     public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext)
@@ -44,72 +73,401 @@ public final class FluffyTestThreadSafety implements InvocationInterceptor {
             Method method = invocationContext.getExecutable();
             AssertThreadSafety annotation = method.getDeclaredAnnotation(AssertThreadSafety.class);
             if (annotation != null) {
-                int threadCount = annotation.threadCount();
-                ExecutorServiceHandle executorHandle = new ExecutorServiceHandle(threadCount, defaultThreadNameFactory);
-                ExecutorService executor = executorHandle.getExecutor();
-                var targetValue = target.get();
-                Object[] args = invocationContext.getArguments().toArray();
-                var errorMessagPrefix = "Cannot test thread safety: ";
-                CountDownLatch startAllThreadsLatch = new CountDownLatch(1);
-                List<Future<?>> futures = new ArrayList<>();
-                for (int i = 0; i < threadCount; i++) {
-                    futures.add(executor.submit(() -> {
-                        try {
-                            startAllThreadsLatch.await();
-                            method.invoke(targetValue, args);
-                        } catch (IllegalAccessException e) {
-                            fail(errorMessagPrefix + "Method is not accessible.", e);
-                        } catch (IllegalArgumentException e) {
-                            fail(errorMessagPrefix + "Method arguments are wrong.", e);
-                        } catch (InvocationTargetException e) {
-                            Throwable cause = e.getCause() == null ? e : e.getCause();
-                            if (cause instanceof AssertionError) {
-                                throwThat(cause);
-                            } else {
-                                fail(errorMessagPrefix + "Method threw an exception.", cause);
-                            }
-                        } catch (ExceptionInInitializerError e) {
-                            fail(errorMessagPrefix + "Initialization failed.", e);
-                        } catch (InterruptedException e) {
-                            fail(errorMessagPrefix + "Method invocation was interrupted.", e);
-                        }
-                    }));
+                if (!isPrivate(method.getModifiers())) {
+                    // JUnit does the same before it calls a test method, which may be declared in a
+                    // class that is not public. JUnit does not call private test methods, though.
+                    method.trySetAccessible();
                 }
+                var invocationFactory = new InvocationFactory(method, target.get(), invocationContext.getArguments().toArray(),
+                    beforeRound(annotation, target.get()));
+                if (annotation.threadCounts().length == 0) {
+                    var run = runInParallel(annotation, annotation.threadCount(), Duration.ofMillis(annotation.durationMillis()), false,
+                        invocationFactory, extensionContext);
+                    assertThresholds(annotation, run);
+                } else {
+                    sweep(annotation, invocationFactory, extensionContext);
+                }
+            }
+        }
+    }
 
-                startAllThreadsLatch.countDown();
-                AssertionError error = new AssertionError("Encountered problems while running test in parallel. Look at suppressed exceptions.");
-                try {
-                    for (var future : futures) {
-                        try {
-                            future.get();
-                        } catch (ExecutionException e) {
-                            Throwable cause = e.getCause() == null ? e : e.getCause();
-                            if (cause instanceof CustomAssertionErrorMarker) {
-                                error.addSuppressed(cause);
-                            } else {
-                                throw cause;
-                            }
-                        } catch (InterruptedException e) {
-                            throwThat(e);
-                        }
+    private ThreadSafetyRun runInParallel(AssertThreadSafety annotation, int threadCount, Duration duration, boolean freeRunning,
+            InvocationFactory invocationFactory, ExtensionContext extensionContext) throws Throwable {
+        var scheduler = annotation.explore() ? new InterleavingScheduler(threadCount, seed(annotation)) : null;
+        var run = new ThreadSafetyRun(threadCount, annotation.rounds(), duration, freeRunning, annotation.startAlignment(), scheduler,
+            annotation.results(), invocationFactory.beforeRound);
+        WorkerPool pool = createPool(annotation, threadCount, extensionContext);
+        ContentionRecorder contentionRecorder = null;
+        AssertionError error = new AssertionError("Encountered problems while running test in parallel. Look at suppressed exceptions.");
+        try {
+            if (annotation.recordContention()) {
+                contentionRecorder = startContentionRecorder();
+            }
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                int workerIndex = i;
+                var testMethodInvocation = invocationFactory.create(run.context(workerIndex));
+                futures.add(pool.submit(() -> {
+                    try {
+                        run.work(workerIndex, () -> invokeTestMethod(testMethodInvocation));
+                    } catch (InterruptedException | BrokenBarrierException e) {
+                        fail(ERROR_MESSAGE_PREFIX + "Method invocation was interrupted.", e);
                     }
+                }));
+            }
 
-                    if (error.getSuppressed().length > 0) {
-                        throw error;
+            var hangDetector = new HangDetector(run);
+            var deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(annotation.timeoutMillis());
+            for (var future : futures) {
+                try {
+                    awaitWorker(future, annotation, deadlineNanos, hangDetector);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    if (cause instanceof CustomAssertionErrorMarker) {
+                        error.addSuppressed(cause);
+                    } else {
+                        throw cause;
                     }
-                } finally {
-                    if (!executorHandle.kill(Duration.ofMillis(500))) {
-                        LOG.warn("Possible ressource leak. Could not kill executor in time. Some threads may still be running.");
+                } catch (InterruptedException e) {
+                    throwThat(e);
+                }
+            }
+
+            var contention = contentionRecorder == null ? null : contentionRecorder.stop(run.workerThreads());
+            publishReport(annotation, run, contention, extensionContext);
+
+            var failures = run.failures();
+            FailingSchedule failingSchedule = null;
+            if (scheduler != null && (run.resultFailure() != null || Arrays.stream(failures).anyMatch(Objects::nonNull))) {
+                failingSchedule = reportFailingSchedule(annotation, scheduler, threadCount, extensionContext);
+            }
+            for (var failure : failures) {
+                if (failure instanceof CustomAssertionErrorMarker) {
+                    error.addSuppressed(failure);
+                } else if (failure != null) {
+                    if (failingSchedule != null) {
+                        failure.addSuppressed(failingSchedule);
                     }
+                    throw failure;
+                }
+            }
+
+            if (error.getSuppressed().length > 0) {
+                if (failingSchedule != null) {
+                    error.addSuppressed(failingSchedule);
+                }
+                throw error;
+            }
+
+            var resultFailure = run.resultFailure();
+            if (resultFailure != null) {
+                if (failingSchedule != null) {
+                    resultFailure.addSuppressed(failingSchedule);
+                }
+                throw resultFailure;
+            }
+            assertContention(annotation, contention);
+            return run;
+        } finally {
+            if (contentionRecorder != null) {
+                contentionRecorder.close();
+            }
+            if (!pool.release(Duration.ofMillis(500))) {
+                LOG.warn("Possible ressource leak. Could not kill executor in time. Some threads may still be running.");
+            }
+        }
+    }
+
+    private void awaitWorker(Future<?> future, AssertThreadSafety annotation, long deadlineNanos, HangDetector hangDetector)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                var waitNanos = hangDetector.pollInterval().toNanos();
+                if (annotation.timeoutMillis() > 0) {
+                    waitNanos = Math.max(0, Math.min(waitNanos, deadlineNanos - System.nanoTime()));
+                }
+                future.get(waitNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (TimeoutException e) {
+                if (hangDetector.isDeadlocked()) {
+                    throw new AssertionError("Dead lock detected between threads running the test." + System.lineSeparator()
+                        + hangDetector.dumpWorkers());
+                }
+                if (annotation.timeoutMillis() > 0 && System.nanoTime() - deadlineNanos > 0) {
+                    throw new AssertionError("Test did not finish within " + annotation.timeoutMillis() + " ms." + System.lineSeparator()
+                        + hangDetector.dumpWorkers());
                 }
             }
         }
     }
 
+    private void sweep(AssertThreadSafety annotation, InvocationFactory invocationFactory, ExtensionContext extensionContext)
+            throws Throwable {
+        if (annotation.explore()) {
+            // Exploring lets a single thread run at a time, so there is no throughput to compare.
+            throw new IllegalArgumentException("explore cannot be combined with threadCounts.");
+        }
+
+        var levelDuration = annotation.durationMillis() > 0 ? Duration.ofMillis(annotation.durationMillis()) : DEFAULT_SWEEP_LEVEL_DURATION;
+        var threadCounts = IntStream.of(annotation.threadCounts())
+            .map(threadCount -> threadCount == AssertThreadSafety.AVAILABLE_PROCESSORS ? AVAILABLE_PROCESSORS : threadCount)
+            .sorted()
+            .distinct()
+            .toArray();
+
+        var throughputs = new double[threadCounts.length];
+        for (int i = 0; i < threadCounts.length; i++) {
+            var run = runInParallel(annotation, threadCounts[i], levelDuration, true, invocationFactory, extensionContext);
+            assertThresholds(annotation, run);
+            throughputs[i] = throughputPerSecond(run.latencies().count(), run.elapsed().toNanos());
+        }
+
+        // Linear scaling is not to be expected beyond the number of available processors.
+        var throughputPerThread = throughputs[0] / Math.min(threadCounts[0], AVAILABLE_PROCESSORS);
+        var report = new ThreadSafetyReport();
+        var regressions = new StringBuilder();
+        for (int i = 0; i < threadCounts.length; i++) {
+            var linearThroughput = throughputPerThread * Math.min(threadCounts[i], AVAILABLE_PROCESSORS);
+            var efficiency = linearThroughput > 0 ? throughputs[i] / linearThroughput : 0;
+            report.add("scalingEfficiency." + threadCounts[i], efficiency);
+            if (annotation.minScalingEfficiency() > 0 && efficiency < annotation.minScalingEfficiency()) {
+                regressions.append(String.format(Locale.ROOT, "%n%d threads: %.3f invocations per second, %.3f of linear scaling.",
+                    threadCounts[i], throughputs[i], efficiency));
+            }
+        }
+        report.publishTo(extensionContext);
+
+        if (regressions.length() > 0) {
+            throw new AssertionError(String.format(Locale.ROOT, "Scalability regressed: Expected at least %.3f of linear scaling from %d threads (%.3f invocations per second).%s",
+                annotation.minScalingEfficiency(), threadCounts[0], throughputs[0], regressions));
+        }
+    }
+
+    private static long seed(AssertThreadSafety annotation) {
+        var result = annotation.seed();
+        while (result == 0) {
+            result = ThreadLocalRandom.current().nextLong();
+        }
+        return result;
+    }
+
+    private FailingSchedule reportFailingSchedule(AssertThreadSafety annotation, InterleavingScheduler scheduler, int threadCount,
+            ExtensionContext extensionContext) {
+        String description;
+        if (annotation.beforeRound().isEmpty()) {
+            // The failing round may depend on the state earlier rounds left behind. Thus, all of
+            // them need to be played again.
+            description = String.format(Locale.ROOT,
+                "Test failed in round %d with schedule %s. Replay it with "
+                    + "@AssertThreadSafety(threadCount = %d, rounds = %d, explore = true, seed = %dL).",
+                scheduler.roundIndex(), scheduler.describeSchedule(), threadCount, scheduler.roundIndex() + 1, scheduler.seed());
+        } else {
+            description = String.format(Locale.ROOT,
+                "Test failed in round %d with schedule %s. Replay it with "
+                    + "@AssertThreadSafety(threadCount = %d, explore = true, seed = %dL, beforeRound = \"%s\").",
+                scheduler.roundIndex(), scheduler.describeSchedule(), threadCount, scheduler.roundSeed(), annotation.beforeRound());
+        }
+        LOG.error(description);
+        new ThreadSafetyReport().add("failingRound", scheduler.roundIndex()).add("failingScheduleSeed", scheduler.roundSeed())
+            .add("failingSchedule", scheduler.describeSchedule()).publishTo(extensionContext);
+        return new FailingSchedule(description);
+    }
+
+    private ContentionRecorder startContentionRecorder() {
+        try {
+            return ContentionRecorder.start();
+        } catch (LinkageError | IllegalStateException | SecurityException e) {
+            LOG.warn("Cannot record contention: JDK Flight Recorder is not available.", e);
+            return null;
+        }
+    }
+
+    private void assertContention(AssertThreadSafety annotation, ContentionRecorder.Summary contention) {
+        if (contention == null || annotation.maxBlockedMillis() <= 0) {
+            return;
+        }
+
+        var blockedMillis = ThreadSafetyReport.toMillis(contention.totalBlockedNanos());
+        if (blockedMillis > annotation.maxBlockedMillis()) {
+            throw new AssertionError(String.format(Locale.ROOT, "Threads blocked for %.3f ms in total but must not exceed %.3f ms. Top contended classes: %s",
+                blockedMillis, annotation.maxBlockedMillis(), contention.describeTopClasses()));
+        }
+    }
+
+    private void publishReport(AssertThreadSafety annotation, ThreadSafetyRun run, ContentionRecorder.Summary contention,
+            ExtensionContext extensionContext) {
+        var latencies = run.latencies();
+        var elapsedNanos = run.elapsed().toNanos();
+        var report = new ThreadSafetyReport()
+            .add("threads", run.threadCount())
+            .add("rounds", run.roundsPlayed())
+            .add("invocations", latencies.count())
+            .addMillis("elapsedMillis", elapsedNanos)
+            .add("throughputPerSecond", throughputPerSecond(latencies.count(), elapsedNanos))
+            .addMillis("latencyP50Millis", latencies.percentile(50))
+            .addMillis("latencyP99Millis", latencies.percentile(99))
+            .addMillis("latencyMaxMillis", latencies.max())
+            .add("startAlignment", annotation.startAlignment().name())
+            .addMillis("startSkewP50Millis", run.startSkews().percentile(50))
+            .addMillis("startSkewMaxMillis", run.startSkews().max());
+        if (contention != null) {
+            contention.addTo(report);
+        }
+        report.publishTo(extensionContext);
+    }
+
+    private void assertThresholds(AssertThreadSafety annotation, ThreadSafetyRun run) {
+        var latencies = run.latencies();
+        var p99Millis = ThreadSafetyReport.toMillis(latencies.percentile(99));
+        if (annotation.maxP99Millis() > 0 && p99Millis > annotation.maxP99Millis()) {
+            throw new AssertionError(String.format(Locale.ROOT, "Latency under contention regressed: p99 is %.3f ms but must not exceed %.3f ms.",
+                p99Millis, annotation.maxP99Millis()));
+        }
+
+        var throughput = throughputPerSecond(latencies.count(), run.elapsed().toNanos());
+        if (annotation.minThroughputPerSecond() > 0 && throughput < annotation.minThroughputPerSecond()) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                "Throughput under contention regressed: %.3f invocations per second but expected at least %.3f.", throughput,
+                annotation.minThroughputPerSecond()));
+        }
+    }
+
+    private static double throughputPerSecond(long invocations, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : invocations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    private WorkerPool createPool(AssertThreadSafety annotation, int threadCount, ExtensionContext extensionContext) throws InterruptedException {
+        if (annotation.sharedPool()) {
+            var store = extensionContext.getRoot().getStore(NAMESPACE);
+            var key = SharedWorkerPool.class.getName() + "-" + annotation.backend() + "-" + annotation.threadFactory().getName();
+            var sharedPool = store.getOrComputeIfAbsent(key, unused -> new SharedWorkerPool(sharedThreadFactory(annotation)), SharedWorkerPool.class);
+            return sharedPool.lease(threadCount);
+        }
+
+        return PrivateWorkerPool.create(annotation, threadCount, defaultThreadNameFactory, THREAD_NAME_PREFIX);
+    }
+
+    private ThreadFactory sharedThreadFactory(AssertThreadSafety annotation) {
+        if (annotation.backend() == ThreadBackend.PLATFORM) {
+            return SharedWorkerPool.platformThreads(SHARED_THREAD_NAME_PREFIX);
+        }
+        return WorkerPool.threadFactory(annotation, SHARED_THREAD_NAME_PREFIX);
+    }
+
+    private void invokeTestMethod(TestMethodInvocation testMethodInvocation) {
+        try {
+            testMethodInvocation.invoke();
+        } catch (AssertionError e) {
+            throw e;
+        } catch (ExceptionInInitializerError e) {
+            fail(ERROR_MESSAGE_PREFIX + "Initialization failed.", e);
+        } catch (Throwable t) {
+            fail(ERROR_MESSAGE_PREFIX + "Method threw an exception.", t);
+        }
+    }
+
+    // Used if the method cannot be resolved into a method handle. Reflection tells us why.
+    private void invokeReflectively(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            fail(ERROR_MESSAGE_PREFIX + "Method is not accessible.", e);
+        } catch (IllegalArgumentException e) {
+            fail(ERROR_MESSAGE_PREFIX + "Method arguments are wrong.", e);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() == null ? e : e.getCause();
+        }
+    }
+
+    private Runnable beforeRound(AssertThreadSafety annotation, Object target) {
+        var methodName = annotation.beforeRound();
+        if (methodName.isEmpty()) {
+            return () -> {};
+        }
+
+        var method = findBeforeRoundMethod(target.getClass(), methodName);
+        method.trySetAccessible();
+        return () -> {
+            try {
+                method.invoke(target);
+            } catch (IllegalAccessException e) {
+                fail(ERROR_MESSAGE_PREFIX + "beforeRound method is not accessible.", e);
+            } catch (InvocationTargetException e) {
+                fail(ERROR_MESSAGE_PREFIX + "beforeRound method threw an exception.", e.getCause() == null ? e : e.getCause());
+            }
+        };
+    }
+
+    private static Method findBeforeRoundMethod(Class<?> testClass, String methodName) {
+        for (Class<?> type = testClass; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredMethod(methodName);
+            } catch (NoSuchMethodException e) {
+                // Look in the super class.
+            }
+        }
+        throw new IllegalArgumentException("beforeRound method " + methodName + "() does not exist in " + testClass.getName() + ".");
+    }
+
     private void fail(String message, Throwable cause) {
         throw new CustomAssertionErrorMarker(message, cause);
     }
 
+    /**
+     * Creates the invocations of the test method for the individual threads. Arguments that are a
+     * {@link ThreadSafetyContext} are replaced with the context of the respective thread.
+     */
+    private final class InvocationFactory {
+        private final Method method;
+        private final Object target;
+        private final Object[] args;
+        private final boolean needsContext;
+        // Kept here, because it works on the same test instance as the invocations.
+        private final Runnable beforeRound;
+        private TestMethodInvocation sharedInvocation;
+
+        private InvocationFactory(Method method, Object target, Object[] args, Runnable beforeRound) {
+            this.method = method;
+            this.target = target;
+            this.args = args;
+            this.beforeRound = beforeRound;
+            this.needsContext = Arrays.stream(args).anyMatch(ThreadSafetyContext.class::isInstance);
+        }
+
+        private TestMethodInvocation create(ThreadSafetyContext context) {
+            if (!needsContext) {
+                if (sharedInvocation == null) {
+                    sharedInvocation = bind(args);
+                }
+                return sharedInvocation;
+            }
+
+            var threadArgs = args.clone();
+            for (int i = 0; i < threadArgs.length; i++) {
+                if (threadArgs[i] instanceof ThreadSafetyContext) {
+                    threadArgs[i] = context;
+                }
+            }
+            return bind(threadArgs);
+        }
+
+        private TestMethodInvocation bind(Object[] boundArgs) {
+            return TestMethodInvocation.bind(method, target, boundArgs).orElseGet(() -> () -> invokeReflectively(method, target, boundArgs));
+        }
+    }
+
+    /**
+     * Carries the description of the schedule that made an {@link AssertThreadSafety#explore()
+     * explore} test fail. Attached to the thrown error as a suppressed exception.
+     */
+    private static final class FailingSchedule extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public FailingSchedule(String description) {
+            super(description, null, false, false);
+        }
+    }
+
     private static final class CustomAssertionErrorMarker extends AssertionFailedError {
         private static final long serialVersionUID = 1L;
 
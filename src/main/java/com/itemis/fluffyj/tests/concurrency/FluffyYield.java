@@ -0,0 +1,43 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+/**
+ * <p>
+ * Marks the places at which threads of an {@link AssertThreadSafety#explore() explore} test may be
+ * interleaved.
+ * </p>
+ * <p>
+ * Place yield points in the code under test or in the test itself between the steps that must
+ * not be interleaved with steps of other threads, e. g. between the read and the write of a lazy
+ * initialization:
+ *
+ * <pre>
+ * if (value == null) {
+ *     FluffyYield.point();
+ *     value = UUID.randomUUID().toString();
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * Outside of explore tests, yield points do nothing and cost next to nothing, so they may stay in
+ * production code if need be. Do not place yield points while holding a lock other threads of the
+ * test need. If a thread blocks outside of a yield point for too long, the harness lets another
+ * thread run in order to avoid dead locks but the interleaving may not be reproducible anymore.
+ * </p>
+ */
+public final class FluffyYield {
+
+    private FluffyYield() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * Let the scheduler of the current {@link AssertThreadSafety#explore() explore} test decide
+     * which thread runs next. Returns as soon as it is the calling thread's turn again. Does
+     * nothing if the calling thread does not run an explore test.
+     */
+    public static void point() {
+        InterleavingScheduler.yieldCurrentThread();
+    }
+}
@@ -0,0 +1,151 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Looks for dead locks among the workers of an {@link AssertThreadSafety} test and describes what
+ * the workers are doing in case they hang.
+ * </p>
+ * <p>
+ * Dead locks are detected via {@link ThreadMXBean#findDeadlockedThreads()}, i. e. they must
+ * involve monitors or {@link java.util.concurrent.locks.AbstractOwnableSynchronizer ownable
+ * synchronizers} like {@link java.util.concurrent.locks.ReentrantLock ReentrantLock}. Virtual
+ * threads are not covered by the platform's detection.
+ * </p>
+ * <p>
+ * Looking for dead locks brings all threads of the JVM to a safepoint. In order not to disturb the
+ * figures of long running tests, the interval between two looks doubles with each look until it
+ * reaches {@link #MAX_POLL_INTERVAL}.
+ * </p>
+ */
+final class HangDetector {
+
+    static final Duration INITIAL_POLL_INTERVAL = Duration.ofMillis(200);
+    static final Duration MAX_POLL_INTERVAL = Duration.ofSeconds(3);
+    private static final int MAX_FRAMES_PER_THREAD = 16;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final ThreadSafetyRun run;
+    private long pollIntervalNanos = INITIAL_POLL_INTERVAL.toNanos();
+
+    /**
+     * @param run - Watch the workers of this run.
+     */
+    HangDetector(ThreadSafetyRun run) {
+        this.run = requireNonNull(run, "run");
+    }
+
+    /**
+     * @return How long to wait for the workers before calling {@link #isDeadlocked()} again.
+     */
+    Duration pollInterval() {
+        return Duration.ofNanos(pollIntervalNanos);
+    }
+
+    /**
+     * @return {@code true} if at least one worker is part of a dead lock.
+     */
+    boolean isDeadlocked() {
+        pollIntervalNanos = Math.min(pollIntervalNanos * 2, MAX_POLL_INTERVAL.toNanos());
+        var deadlockedIds = threadBean.isSynchronizerUsageSupported() ? threadBean.findDeadlockedThreads()
+            : threadBean.findMonitorDeadlockedThreads();
+        if (deadlockedIds == null) {
+            return false;
+        }
+
+        Set<Long> workerIds = workerIds(run.workerThreads());
+        for (var id : deadlockedIds) {
+            if (workerIds.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return A compact stack dump of all workers including the locks they hold and the lock they
+     *         wait for, if any.
+     */
+    String dumpWorkers() {
+        var workers = run.workerThreads();
+        var ids = new long[workers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = workers.get(i).getId();
+        }
+
+        var result = new StringBuilder();
+        for (var info : threadBean.getThreadInfo(ids, threadBean.isObjectMonitorUsageSupported(), threadBean.isSynchronizerUsageSupported())) {
+            if (info != null) {
+                appendThread(result, info);
+            }
+        }
+        return result.toString();
+    }
+
+    private static Set<Long> workerIds(List<Thread> workers) {
+        Set<Long> result = new HashSet<>();
+        for (var worker : workers) {
+            result.add(worker.getId());
+        }
+        return result;
+    }
+
+    private static void appendThread(StringBuilder result, ThreadInfo info) {
+        result.append('"').append(info.getThreadName()).append("\" ").append(info.getThreadState());
+        if (info.getLockInfo() != null) {
+            result.append(" on ").append(describe(info.getLockInfo()));
+            if (info.getLockOwnerName() != null) {
+                result.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+            }
+        }
+        result.append(System.lineSeparator());
+
+        var stackTrace = info.getStackTrace();
+        var frames = Math.min(harnessFrameIndex(stackTrace), MAX_FRAMES_PER_THREAD);
+        for (int depth = 0; depth < frames; depth++) {
+            result.append("    at ").append(stackTrace[depth]).append(System.lineSeparator());
+            for (MonitorInfo monitor : info.getLockedMonitors()) {
+                if (monitor.getLockedStackDepth() == depth) {
+                    result.append("    - locked ").append(describe(monitor)).append(System.lineSeparator());
+                }
+            }
+        }
+        if (frames < harnessFrameIndex(stackTrace)) {
+            result.append("    ...").append(System.lineSeparator());
+        }
+
+        var synchronizers = info.getLockedSynchronizers();
+        if (synchronizers.length > 0) {
+            result.append("    Locked synchronizers:");
+            for (var synchronizer : synchronizers) {
+                result.append(' ').append(describe(synchronizer));
+            }
+            result.append(System.lineSeparator());
+        }
+    }
+
+    // Frames from here on belong to the harness and are left out.
+    private static int harnessFrameIndex(StackTraceElement[] stackTrace) {
+        for (int i = 0; i < stackTrace.length; i++) {
+            if (stackTrace[i].getClassName().equals(ThreadSafetyRun.class.getName())) {
+                return i;
+            }
+        }
+        return stackTrace.length;
+    }
+
+    private static String describe(LockInfo lock) {
+        return lock.getClassName() + "@" + Integer.toHexString(lock.getIdentityHashCode());
+    }
+}
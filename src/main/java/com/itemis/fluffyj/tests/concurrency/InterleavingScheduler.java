@@ -0,0 +1,256 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Lets the workers of an {@link AssertThreadSafety#explore() explore} test take turns, so that only
+ * one of them runs at a time. Workers hand over at {@link FluffyYield#point() yield points} only.
+ * The next worker is drawn at random from the ones that have not finished yet. Thus, each round
+ * plays exactly one interleaving, the schedule, which is determined by its seed.
+ * </p>
+ * <p>
+ * Round {@code n} uses the seed {@code seed + n}, so that any round can be replayed by itself,
+ * provided that it starts from the same state. A seed of 0 stands for a random seed in
+ * {@link AssertThreadSafety#seed()}. Thus, 1 is used instead, so that every reported seed can be
+ * specified for a replay.
+ * </p>
+ * <p>
+ * If the worker holding the turn gets blocked outside of the scheduler for some time, e. g.
+ * because it waits for a lock held by a worker that is waiting for its turn, the turn is forcibly
+ * passed on. Forced hand overs are marked in the schedule. Replaying a schedule containing them
+ * may not hit the same interleaving.
+ * </p>
+ */
+final class InterleavingScheduler {
+
+    private static final ThreadLocal<Participant> PARTICIPANT = new ThreadLocal<>();
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_DESCRIBED_STEPS = 500;
+    private static final int FORCED = -1;
+
+    private final int threadCount;
+    private final long seed;
+    private final AtomicReferenceArray<Thread> threads;
+
+    // Guarded by this.
+    private final boolean[] finished;
+    private SplittableRandom random;
+    private int[] steps = new int[64];
+    private int stepCount;
+    private int roundIndex;
+    private long roundSeed;
+
+    private volatile int turn;
+    private volatile long lastHandOverNanos;
+    private volatile boolean aborted;
+
+    /**
+     * @param threadCount - Number of workers taking turns.
+     * @param seed - Seed of the schedule of the first round.
+     */
+    InterleavingScheduler(int threadCount, long seed) {
+        this.threadCount = threadCount;
+        this.seed = seed;
+        this.threads = new AtomicReferenceArray<>(threadCount);
+        this.finished = new boolean[threadCount];
+    }
+
+    /**
+     * @param seed - Seed of the schedule of the first round.
+     * @param roundIndex - Index of a round, starting at zero.
+     * @return The seed of the schedule of the round with the provided index. Never 0.
+     */
+    static long seedOfRound(long seed, int roundIndex) {
+        var result = seed + roundIndex;
+        return result == 0 ? 1 : result;
+    }
+
+    /**
+     * Called by {@link FluffyYield#point()}. Does nothing if the calling thread is not a worker of
+     * an exploring test.
+     */
+    static void yieldCurrentThread() {
+        var participant = PARTICIPANT.get();
+        if (participant != null) {
+            participant.scheduler.yieldTurn(participant.workerIndex);
+        }
+    }
+
+    /**
+     * Set up the schedule of the round with the provided index. Must be called while no worker is
+     * running, i. e. by the barrier action.
+     */
+    synchronized void startRound(int roundIndex) {
+        this.roundIndex = roundIndex;
+        roundSeed = seedOfRound(seed, roundIndex);
+        random = new SplittableRandom(roundSeed);
+        Arrays.fill(finished, false);
+        stepCount = 0;
+        turn = choose();
+        lastHandOverNanos = System.nanoTime();
+    }
+
+    /**
+     * Register the calling thread as the worker with the provided index and wait for its first
+     * turn.
+     */
+    void enter(int workerIndex) {
+        PARTICIPANT.set(new Participant(this, workerIndex));
+        threads.set(workerIndex, Thread.currentThread());
+        awaitTurn(workerIndex);
+    }
+
+    /**
+     * Mark the worker with the provided index as done with the current round and pass its turn on.
+     */
+    void leave(int workerIndex) {
+        PARTICIPANT.remove();
+        synchronized (this) {
+            finished[workerIndex] = true;
+            if (turn == workerIndex) {
+                handOver(choose());
+            }
+        }
+    }
+
+    /**
+     * @return The seed of the schedule of the first round.
+     */
+    long seed() {
+        return seed;
+    }
+
+    /**
+     * @return The index of the current, i. e. the last, round.
+     */
+    synchronized int roundIndex() {
+        return roundIndex;
+    }
+
+    /**
+     * @return The seed of the schedule of the current, i. e. the last, round.
+     */
+    synchronized long roundSeed() {
+        return roundSeed;
+    }
+
+    /**
+     * @return A human readable description of the schedule of the current, i. e. the last, round.
+     */
+    synchronized String describeSchedule() {
+        var result = new StringBuilder("seed=").append(roundSeed).append(", schedule=[");
+        var describedSteps = Math.min(stepCount, MAX_DESCRIBED_STEPS);
+        for (int i = 0; i < describedSteps; i++) {
+            if (i > 0) {
+                result.append(' ');
+            }
+            result.append(steps[i] == FORCED ? "!" : String.valueOf(steps[i]));
+        }
+        if (stepCount > describedSteps) {
+            result.append(" ... (").append(stepCount - describedSteps).append(" more)");
+        }
+        return result.append(']').toString();
+    }
+
+    private void yieldTurn(int workerIndex) {
+        synchronized (this) {
+            if (turn == workerIndex) {
+                handOver(choose());
+            }
+        }
+        awaitTurn(workerIndex);
+    }
+
+    private void awaitTurn(int workerIndex) {
+        while (turn != workerIndex && !aborted) {
+            LockSupport.parkNanos(this, WAIT_SLICE_NANOS);
+            if (Thread.interrupted()) {
+                // The run is being torn down. Let everybody run freely from now on.
+                aborted = true;
+                Thread.currentThread().interrupt();
+            } else if (System.nanoTime() - lastHandOverNanos > STALL_NANOS) {
+                passStalledTurn();
+            }
+        }
+    }
+
+    private synchronized void passStalledTurn() {
+        var holder = turn < 0 ? null : threads.get(turn);
+        if (holder != null && System.nanoTime() - lastHandOverNanos > STALL_NANOS) {
+            var state = holder.getState();
+            if ((state == Thread.State.BLOCKED || state == Thread.State.WAITING) && candidateCount(turn) > 0) {
+                record(FORCED);
+                handOver(chooseOtherThan(turn));
+            }
+        }
+    }
+
+    // Must hold this.
+    private void handOver(int next) {
+        turn = next;
+        lastHandOverNanos = System.nanoTime();
+        if (next >= 0) {
+            var thread = threads.get(next);
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    // Must hold this.
+    private int choose() {
+        return chooseOtherThan(-1);
+    }
+
+    // Must hold this.
+    private int chooseOtherThan(int excluded) {
+        var candidates = candidateCount(excluded);
+        if (candidates == 0) {
+            return excluded;
+        }
+
+        var pick = random.nextInt(candidates);
+        for (int i = 0; i < threadCount; i++) {
+            if (!finished[i] && i != excluded && pick-- == 0) {
+                record(i);
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unreachable.");
+    }
+
+    // Must hold this.
+    private int candidateCount(int excluded) {
+        var result = 0;
+        for (int i = 0; i < threadCount; i++) {
+            if (!finished[i] && i != excluded) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    // Must hold this.
+    private void record(int step) {
+        if (stepCount == steps.length) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        }
+        steps[stepCount++] = step;
+    }
+
+    private static final class Participant {
+        private final InterleavingScheduler scheduler;
+        private final int workerIndex;
+
+        private Participant(InterleavingScheduler scheduler, int workerIndex) {
+            this.scheduler = scheduler;
+            this.workerIndex = workerIndex;
+        }
+    }
+}
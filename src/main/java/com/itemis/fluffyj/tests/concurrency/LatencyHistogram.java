@@ -0,0 +1,143 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Records durations in nanoseconds with a relative error of less than 1/16 and allows for
+ * computing percentiles of them. Recording does not allocate, except for the first time the
+ * histogram grows beyond a handful of values.
+ * </p>
+ * <p>
+ * Durations are counted in buckets. Values below 32 get a bucket of their own. Above that, each
+ * power of two range is divided into 16 buckets of equal width.
+ * </p>
+ * <p>
+ * Not thread safe. Meant to be used by a single thread and to be merged afterwards.
+ * </p>
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int LINEAR_LIMIT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = LINEAR_LIMIT / 2;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+    // Most histograms only ever see a few values, e. g. if a test runs for a single round. Those
+    // are kept as they are in order to not allocate a full set of buckets for each thread.
+    private static final int RAW_CAPACITY = 8;
+
+    private final long[] rawValues = new long[RAW_CAPACITY];
+    private int rawCount;
+    private long[] bucketCounts;
+    private long count;
+    private long max;
+
+    /**
+     * @param nanos - The duration to record. Negative values are recorded as zero.
+     */
+    void record(long nanos) {
+        var value = Math.max(0, nanos);
+        if (bucketCounts == null && rawCount < RAW_CAPACITY) {
+            rawValues[rawCount++] = value;
+        } else {
+            ensureBuckets();
+            bucketCounts[bucketIndex(value)]++;
+        }
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add all values recorded by {@code other} to this histogram.
+     */
+    void add(LatencyHistogram other) {
+        if (other.bucketCounts == null) {
+            for (int i = 0; i < other.rawCount; i++) {
+                record(other.rawValues[i]);
+            }
+        } else {
+            ensureBuckets();
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                bucketCounts[i] += other.bucketCounts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return The largest recorded value, 0 if there is none.
+     */
+    long max() {
+        return max;
+    }
+
+    /**
+     * @param percentile - A value between 0 (exclusive) and 100 (inclusive).
+     * @return An upper bound of the value below which {@code percentile} percent of the recorded
+     *         values fall, 0 if there are no values.
+     */
+    long percentile(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be within (0, 100].");
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        var rank = (long) Math.ceil(count * percentile / 100.0);
+        if (bucketCounts == null) {
+            var sorted = Arrays.copyOf(rawValues, rawCount);
+            Arrays.sort(sorted);
+            return sorted[(int) rank - 1];
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    private void ensureBuckets() {
+        if (bucketCounts == null) {
+            bucketCounts = new long[BUCKET_COUNT];
+            for (int i = 0; i < rawCount; i++) {
+                bucketCounts[bucketIndex(rawValues[i])]++;
+            }
+            rawCount = 0;
+        }
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        var magnitude = 63 - numberOfLeadingZeros(value);
+        var shift = magnitude - (SUB_BUCKET_BITS - 1);
+        var subBucket = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        var offset = index - LINEAR_LIMIT;
+        var shift = offset / SUB_BUCKET_HALF + 1;
+        long subBucket = offset % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,76 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import com.itemis.fluffyj.concurrency.ExecutorServiceHandle;
+import com.itemis.fluffyj.concurrency.ThreadNameFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link WorkerPool} exclusively created for a single test, backed by the {@link ThreadBackend}
+ * requested by the annotation. Released by killing it.
+ */
+final class PrivateWorkerPool implements WorkerPool {
+
+    private final ExecutorService executor;
+    private final ExecutorServiceHandle platformHandle;
+
+    private PrivateWorkerPool(ExecutorServiceHandle platformHandle) {
+        this.platformHandle = platformHandle;
+        this.executor = platformHandle.getExecutor();
+    }
+
+    private PrivateWorkerPool(ExecutorService executor) {
+        this.platformHandle = null;
+        this.executor = executor;
+    }
+
+    /**
+     * @param annotation - Use the {@link ThreadBackend} requested by this annotation.
+     * @param size - Number of threads in the pool.
+     * @param platformThreadNames - Names platform threads.
+     * @param threadNamePrefix - Names of virtual threads start with this prefix.
+     * @return A new pool of threads of the requested kind.
+     * @throws UnsupportedOperationException If virtual threads are requested but not supported.
+     * @throws IllegalArgumentException If a custom thread factory is requested but not
+     *         specified or cannot be instantiated.
+     */
+    static PrivateWorkerPool create(AssertThreadSafety annotation, int size, ThreadNameFactory platformThreadNames, String threadNamePrefix) {
+        requireNonNull(annotation, "annotation");
+        requireNonNull(platformThreadNames, "platformThreadNames");
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+
+        if (annotation.backend() == ThreadBackend.PLATFORM) {
+            return new PrivateWorkerPool(new ExecutorServiceHandle(size, platformThreadNames));
+        }
+        return new PrivateWorkerPool(Executors.newFixedThreadPool(size, WorkerPool.threadFactory(annotation, threadNamePrefix)));
+    }
+
+    @Override
+    public Future<?> submit(Runnable worker) {
+        return executor.submit(worker);
+    }
+
+    /**
+     * Shut down the pool and interrupt all threads.
+     */
+    @Override
+    public boolean release(Duration timeout) {
+        if (platformHandle != null) {
+            return platformHandle.kill(timeout);
+        }
+
+        executor.shutdownNow();
+        try {
+            return executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
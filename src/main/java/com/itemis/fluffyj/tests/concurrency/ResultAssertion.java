@@ -0,0 +1,97 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Checks the results the threads of an {@link AssertThreadSafety} test handed over via
+ * {@link ThreadSafetyContext#setResult(Object)} once all threads have finished a round.
+ */
+public enum ResultAssertion {
+    /**
+     * Results are not checked.
+     */
+    NONE {
+        @Override
+        void check(Object[] results, int round) {
+            // Nothing to do.
+        }
+    },
+
+    /**
+     * All threads must have handed over equal results.
+     */
+    ALL_IDENTICAL {
+        @Override
+        void check(Object[] results, int round) {
+            requireAll(results, round);
+            for (int i = 1; i < results.length; i++) {
+                if (!Objects.equals(results[0], results[i])) {
+                    throw new AssertionError(
+                        "Results of round " + round + " are not identical: Thread 0 got " + results[0] + " but thread " + i + " got " + results[i] + ".");
+                }
+            }
+        }
+    },
+
+    /**
+     * All threads must have handed over different results.
+     */
+    ALL_DISTINCT {
+        @Override
+        void check(Object[] results, int round) {
+            requireAll(results, round);
+            var threadIndexByResult = new HashMap<Object, Integer>(results.length * 2);
+            for (int i = 0; i < results.length; i++) {
+                var other = threadIndexByResult.putIfAbsent(results[i], i);
+                if (other != null) {
+                    throw new AssertionError(
+                        "Results of round " + round + " are not distinct: Threads " + other + " and " + i + " both got " + results[i] + ".");
+                }
+            }
+        }
+    },
+
+    /**
+     * The results must be integral numbers that form a range without gaps or duplicates, e. g.
+     * tickets drawn from a shared counter.
+     */
+    PERMUTATION {
+        @Override
+        void check(Object[] results, int round) {
+            requireAll(results, round);
+            var values = new long[results.length];
+            for (int i = 0; i < results.length; i++) {
+                if (!(results[i] instanceof Long || results[i] instanceof Integer || results[i] instanceof Short || results[i] instanceof Byte)) {
+                    throw new AssertionError("Result of thread " + i + " in round " + round + " is not an integral number: " + results[i]);
+                }
+                values[i] = ((Number) results[i]).longValue();
+            }
+
+            Arrays.sort(values);
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] != values[i - 1] + 1) {
+                    throw new AssertionError("Results of round " + round + " do not form a permutation of " + values[0] + " to "
+                        + (values[0] + values.length - 1) + ": " + (values[i] == values[i - 1] ? "Duplicate " + values[i] : "Missing " + (values[i - 1] + 1))
+                        + ".");
+                }
+            }
+        }
+    };
+
+    /**
+     * @param results - The result of each thread by thread index.
+     * @param round - The index of the round the results belong to.
+     * @throws AssertionError If the results do not meet this assertion.
+     */
+    abstract void check(Object[] results, int round);
+
+    private static void requireAll(Object[] results, int round) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                throw new AssertionError("Thread " + i + " did not set a result in round " + round + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A pool of threads that is shared by all {@link AssertThreadSafety#sharedPool() sharedPool} tests
+ * of a test run. It is meant to be stored in the root {@link
+ * org.junit.jupiter.api.extension.ExtensionContext.Store Store} so that it is closed once at the
+ * end of the run.
+ * </p>
+ * <p>
+ * Tests {@link #lease(int) lease} the pool exclusively. The pool grows to the largest thread count
+ * requested so far and keeps its threads between leases. In order to keep tests isolated from each
+ * other:
+ * <ul>
+ * <li>Workers of a lease that has been released do not start anymore.</li>
+ * <li>Releasing a lease interrupts its workers and waits for them to stop.</li>
+ * <li>If workers do not stop in time or tasks of an earlier lease are unfinished when a lease
+ * starts, the pool replaces all its threads.</li>
+ * </ul>
+ * </p>
+ */
+final class SharedWorkerPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedWorkerPool.class);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofMillis(500);
+    private static final long RELEASE_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ThreadFactory threadFactory;
+    private final Semaphore leasePermit = new Semaphore(1, true);
+
+    // Guarded by this.
+    private TaskCountingExecutor executor;
+    private long leaseCount;
+
+    // Number of the lease that currently owns the pool, 0 if none.
+    private volatile long activeLease;
+
+    /**
+     * @param threadFactory - Creates the threads of this pool.
+     */
+    SharedWorkerPool(ThreadFactory threadFactory) {
+        this.threadFactory = requireNonNull(threadFactory, "threadFactory");
+    }
+
+    /**
+     * @param threadNamePrefix - Names of created threads start with this prefix.
+     * @return A {@link ThreadFactory} that creates daemon platform threads, so that leaked threads do
+     *         not keep the JVM alive.
+     */
+    static ThreadFactory platformThreads(String threadNamePrefix) {
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+
+        var threadNumber = new AtomicInteger();
+        return runnable -> {
+            var result = new Thread(runnable, threadNamePrefix + "-" + threadNumber.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        };
+    }
+
+    /**
+     * Get exclusive access to the pool. Blocks until the pool has been released by all earlier
+     * leases.
+     *
+     * @param threadCount - The pool is going to have at least this many threads.
+     * @return A {@link WorkerPool} that must be {@link WorkerPool#release(Duration) released} after
+     *         use.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the pool.
+     */
+    WorkerPool lease(int threadCount) throws InterruptedException {
+        leasePermit.acquire();
+        synchronized (this) {
+            if (executor != null && executor.unfinishedTasks() > 0) {
+                LOG.warn("Threads of shared pool are still busy with tasks of an earlier test. Replacing them.");
+                retireExecutor();
+            }
+
+            if (executor == null) {
+                executor = new TaskCountingExecutor(threadCount, threadFactory);
+            } else if (executor.getMaximumPoolSize() < threadCount) {
+                executor.setMaximumPoolSize(threadCount);
+                executor.setCorePoolSize(threadCount);
+            }
+            executor.prestartAllCoreThreads();
+
+            leaseCount++;
+            activeLease = leaseCount;
+            return new Lease(leaseCount, executor);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(CLOSE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+                    LOG.warn("Possible ressource leak. Could not shut down shared pool in time. Some threads may still be running.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor = null;
+            }
+        }
+    }
+
+    private synchronized void retireExecutor(TaskCountingExecutor retiree) {
+        if (executor == retiree) {
+            retireExecutor();
+        }
+    }
+
+    private void retireExecutor() {
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    private final class Lease implements WorkerPool {
+        private final long leaseNumber;
+        private final TaskCountingExecutor leasedExecutor;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private boolean released;
+
+        private Lease(long leaseNumber, TaskCountingExecutor leasedExecutor) {
+            this.leaseNumber = leaseNumber;
+            this.leasedExecutor = leasedExecutor;
+        }
+
+        @Override
+        public Future<?> submit(Runnable worker) {
+            if (released) {
+                throw new IllegalStateException("Lease has already been released.");
+            }
+
+            // The executor counts the task before it is queued, so that release either waits for it
+            // or the task sees that the lease is over.
+            var result = leasedExecutor.submit(() -> {
+                if (activeLease == leaseNumber) {
+                    worker.run();
+                }
+            });
+            futures.add(result);
+            return result;
+        }
+
+        @Override
+        public boolean release(Duration timeout) {
+            if (released) {
+                return true;
+            }
+            released = true;
+
+            try {
+                activeLease = 0;
+                futures.forEach(future -> future.cancel(true));
+
+                var deadline = System.nanoTime() + timeout.toNanos();
+                while (leasedExecutor.unfinishedTasks() > 0 && System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(RELEASE_POLL_NANOS);
+                }
+
+                var allStopped = leasedExecutor.unfinishedTasks() == 0;
+                if (!allStopped) {
+                    retireExecutor(leasedExecutor);
+                }
+                return allStopped;
+            } finally {
+                leasePermit.release();
+            }
+        }
+    }
+
+    /**
+     * Counts the tasks that have been handed over but have not finished yet, cancelled ones
+     * included. Unlike {@link ThreadPoolExecutor#getActiveCount()}, the count drops as soon as a
+     * task has finished, not when its thread is done with the bookkeeping after the task.
+     */
+    private static final class TaskCountingExecutor extends ThreadPoolExecutor {
+        private final AtomicInteger unfinishedTasks = new AtomicInteger();
+
+        private TaskCountingExecutor(int threadCount, ThreadFactory threadFactory) {
+            super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            unfinishedTasks.incrementAndGet();
+            try {
+                super.execute(command);
+            } catch (RuntimeException e) {
+                unfinishedTasks.decrementAndGet();
+                throw e;
+            }
+        }
+
+        @Override
+        protected void afterExecute(Runnable task, Throwable failure) {
+            unfinishedTasks.decrementAndGet();
+        }
+
+        int unfinishedTasks() {
+            return unfinishedTasks.get();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A reusable barrier whose waiting threads busy spin instead of parking, so that all of them are
+ * released within a very short time.
+ * </p>
+ * <p>
+ * Each thread reports its arrival by incrementing a shared counter. The last one to arrive runs the
+ * barrier action and releases all others by advancing a shared volatile generation number. Waiting
+ * threads spin on that number with {@link Thread#onSpinWait()}. If they have to wait for longer than
+ * the spin budget, they fall back to parking in short slices, so that a late thread does not have
+ * to compete with spinning threads for CPU time for too long.
+ * </p>
+ * <p>
+ * Like {@link java.util.concurrent.CyclicBarrier CyclicBarrier}, actions of a thread prior to
+ * {@link #await()} happen before the barrier action which in turn happens before the return of
+ * {@link #await()} in all threads.
+ * </p>
+ */
+final class SpinBarrier implements StartBarrier {
+
+    private static final long PARK_SLICE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int parties;
+    private final Runnable barrierAction;
+    private final long spinBudgetNanos;
+    private final AtomicInteger arrived = new AtomicInteger();
+
+    private volatile long generation;
+    private volatile boolean broken;
+
+    /**
+     * @param parties - Number of threads that must arrive before the barrier opens.
+     * @param barrierAction - Run by the last thread to arrive before any thread is released.
+     * @param spinBudget - Waiting threads spin for as long as this before they fall back to
+     *        parking.
+     */
+    SpinBarrier(int parties, Runnable barrierAction, Duration spinBudget) {
+        if (parties < 1) {
+            throw new IllegalArgumentException("parties must be at least 1.");
+        }
+
+        this.parties = parties;
+        this.barrierAction = requireNonNull(barrierAction, "barrierAction");
+        this.spinBudgetNanos = requireNonNull(spinBudget, "spinBudget").toNanos();
+    }
+
+    @Override
+    public void await() throws InterruptedException, BrokenBarrierException {
+        var currentGeneration = generation;
+        if (broken) {
+            throw new BrokenBarrierException();
+        }
+
+        if (arrived.incrementAndGet() == parties) {
+            arrived.set(0);
+            try {
+                barrierAction.run();
+            } catch (RuntimeException | Error e) {
+                broken = true;
+                throw e;
+            }
+            generation = currentGeneration + 1;
+            return;
+        }
+
+        var spinDeadline = System.nanoTime() + spinBudgetNanos;
+        while (generation == currentGeneration) {
+            if (broken) {
+                throw new BrokenBarrierException();
+            }
+            if (Thread.interrupted()) {
+                broken = true;
+                throw new InterruptedException();
+            }
+
+            if (System.nanoTime() - spinDeadline < 0) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, PARK_SLICE_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+/**
+ * How {@link AssertThreadSafety} releases its threads at the start of each round.
+ */
+public enum StartAlignment {
+    /**
+     * Threads park while waiting for the others and are woken up by the last one to arrive. Cheap on
+     * CPU, but waking up parked threads takes some time, i. e. the first threads may already be done
+     * before the last ones start.
+     */
+    PARK,
+
+    /**
+     * Threads busy spin on a shared flag while waiting for the others, so that they all start within
+     * a very short time. Burns CPU while waiting. Threads that have to wait for too long fall back to
+     * parking. If there are more threads than CPU cores, threads do not spin at all but poll in
+     * short parking intervals.
+     */
+    SPIN
+}
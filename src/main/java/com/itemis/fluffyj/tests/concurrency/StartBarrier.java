@@ -0,0 +1,18 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import java.util.concurrent.BrokenBarrierException;
+
+/**
+ * Where the workers of an {@link AssertThreadSafety} test meet before each round.
+ */
+@FunctionalInterface
+interface StartBarrier {
+
+    /**
+     * Wait until all workers have arrived.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     * @throws BrokenBarrierException If another worker has been interrupted while waiting.
+     */
+    void await() throws InterruptedException, BrokenBarrierException;
+}
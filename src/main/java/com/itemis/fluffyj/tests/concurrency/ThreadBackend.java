@@ -0,0 +1,25 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The kind of threads {@link AssertThreadSafety} runs a test in.
+ */
+public enum ThreadBackend {
+    /**
+     * Classic platform threads. Each thread is backed by a native thread of the operating system.
+     */
+    PLATFORM,
+
+    /**
+     * Virtual threads. Allows for very high thread counts, e. g. to simulate the concurrency of
+     * servers that handle each request in its own virtual thread. Requires Java 21 or newer.
+     */
+    VIRTUAL,
+
+    /**
+     * Threads are created by the {@link ThreadFactory} specified by
+     * {@link AssertThreadSafety#threadFactory()}.
+     */
+    CUSTOM
+}
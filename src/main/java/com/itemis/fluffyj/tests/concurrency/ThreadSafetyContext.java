@@ -0,0 +1,83 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+/**
+ * <p>
+ * Tells an {@link AssertThreadSafety} test method which thread and round it runs in and lets it
+ * hand over a result. Declare a parameter of this type in order to get it injected:
+ *
+ * <pre>
+ * &#64;AssertThreadSafety(threadCount = 100, results = ResultAssertion.ALL_IDENTICAL)
+ * &#64;Test
+ * public void testLazy(ThreadSafetyContext context) {
+ *     context.setResult(underTest.getValue());
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * Each thread gets its own instance. Results go into a slot that is reserved for the thread, so
+ * setting them does not involve any synchronization. They are checked as specified by
+ * {@link AssertThreadSafety#results()} once all threads have finished a round.
+ * </p>
+ */
+public final class ThreadSafetyContext {
+
+    private final ThreadSafetyRun run;
+    private final int threadIndex;
+
+    // Written and read by the owning thread only.
+    private int round;
+
+    /**
+     * @param run - The run this context belongs to. {@code null} for a placeholder that is to be
+     *        replaced before the test method is invoked.
+     * @param threadIndex - Index of the owning thread.
+     */
+    ThreadSafetyContext(ThreadSafetyRun run, int threadIndex) {
+        this.run = run;
+        this.threadIndex = threadIndex;
+    }
+
+    /**
+     * @return The index of the calling thread, starting at zero. Stays the same for all rounds.
+     */
+    public int threadIndex() {
+        requireRun();
+        return threadIndex;
+    }
+
+    /**
+     * @return The number of threads running the test.
+     */
+    public int threadCount() {
+        return requireRun().threadCount();
+    }
+
+    /**
+     * @return The index of the current round, starting at zero.
+     */
+    public int round() {
+        requireRun();
+        return round;
+    }
+
+    /**
+     * Hand over the result of the calling thread in the current round. Setting it more than once
+     * per round overwrites the earlier result.
+     *
+     * @param result - Checked as specified by {@link AssertThreadSafety#results()}.
+     */
+    public void setResult(Object result) {
+        requireRun().setResult(threadIndex, result);
+    }
+
+    void startRound(int round) {
+        this.round = round;
+    }
+
+    private ThreadSafetyRun requireRun() {
+        if (run == null) {
+            throw new IllegalStateException("Context is only available to test methods run by " + FluffyTestThreadSafety.class.getSimpleName() + ".");
+        }
+        return run;
+    }
+}
@@ -0,0 +1,89 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Figures collected while running an {@link AssertThreadSafety} test. Published as JUnit report
+ * entries, so that they end up in the reports of the build tool, e. g. the surefire XML files.
+ */
+final class ThreadSafetyReport {
+
+    /**
+     * All keys of published entries start with this prefix.
+     */
+    static final String KEY_PREFIX = "fluffyj.threadSafety.";
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, String> entries = new LinkedHashMap<>();
+
+    /**
+     * @param name - Name of the entry without {@link #KEY_PREFIX}.
+     * @param value - The value to report.
+     * @return This instance.
+     */
+    ThreadSafetyReport add(String name, long value) {
+        return add(name, Long.toString(value));
+    }
+
+    /**
+     * @param name - Name of the entry without {@link #KEY_PREFIX}.
+     * @param value - The value to report.
+     * @return This instance.
+     */
+    ThreadSafetyReport add(String name, double value) {
+        return add(name, String.format(Locale.ROOT, "%.3f", value));
+    }
+
+    /**
+     * @param name - Name of the entry without {@link #KEY_PREFIX}.
+     * @param value - The value to report.
+     * @return This instance.
+     */
+    ThreadSafetyReport add(String name, String value) {
+        requireNonNull(name, "name");
+        requireNonNull(value, "value");
+
+        entries.put(KEY_PREFIX + name, value);
+        return this;
+    }
+
+    /**
+     * @param name - Name of the entry without {@link #KEY_PREFIX}. Should end with "Millis".
+     * @param nanos - The value to report in nanoseconds. Is reported in milliseconds.
+     * @return This instance.
+     */
+    ThreadSafetyReport addMillis(String name, long nanos) {
+        return add(name, toMillis(nanos));
+    }
+
+    /**
+     * @return An unmodifiable view of all entries.
+     */
+    Map<String, String> entries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Publish all entries as a single report entry.
+     */
+    void publishTo(ExtensionContext extensionContext) {
+        if (!entries.isEmpty()) {
+            extensionContext.publishReportEntry(entries());
+        }
+    }
+
+    /**
+     * @return The provided {@code nanos} in milliseconds.
+     */
+    static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,339 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * Drives the rounds of a single {@link AssertThreadSafety} test.
+ * </p>
+ * <p>
+ * Every worker thread waits on a shared start barrier, invokes the test body and then waits on the
+ * same barrier again. The barrier re-arms itself after each round, so that the same threads can be
+ * used for as many rounds as requested. The last thread to arrive at the barrier decides whether
+ * another round is to be played. Thus, all workers agree on when to stop and nobody is left
+ * waiting.
+ * </p>
+ * <p>
+ * A run stops after the round in which the first failure occurred.
+ * </p>
+ * <p>
+ * The start skew of a round is the time between the first and the last worker invoking the test
+ * body. It tells how well the start barrier aligned the workers.
+ * </p>
+ * <p>
+ * If there is an {@link InterleavingScheduler}, workers do not run freely within a round but take
+ * turns as dictated by the schedule of the round.
+ * </p>
+ * <p>
+ * Each worker has a {@link ThreadSafetyContext} whose results are checked by the barrier action
+ * after each round, i. e. while no worker is running. The barrier action also prepares each round
+ * before the workers are released, e. g. by resetting the state the test method works on.
+ * </p>
+ */
+final class ThreadSafetyRun {
+
+    private static final Duration SPIN_BUDGET = Duration.ofMillis(1);
+    // Result slots of different threads are kept this many references apart, so that they do not
+    // share a cache line.
+    private static final int RESULT_SLOT_STRIDE = 16;
+
+    private final int threadCount;
+    private final int rounds;
+    private final long durationNanos;
+    private final boolean freeRunning;
+    private final StartBarrier startBarrier;
+    private final Throwable[] failures;
+    private final LatencyHistogram[] latencies;
+    private final long[] callStarts;
+    private final LatencyHistogram startSkews = new LatencyHistogram();
+    private final InterleavingScheduler scheduler;
+    private final ResultAssertion resultAssertion;
+    private final Runnable beforeRound;
+    private final Object[] resultSlots;
+    private final ThreadSafetyContext[] contexts;
+    private final AtomicReferenceArray<Thread> workerThreads;
+
+    // Written by the barrier action only. The barrier makes sure that workers see the latest values.
+    private boolean running = true;
+    private int roundsPlayed;
+    private long deadlineNanos;
+    private long startNanos;
+    private long stopNanos;
+
+    private Throwable resultFailure;
+
+    private volatile boolean failed;
+
+    /**
+     * @param threadCount - Number of workers that take part in each round.
+     * @param rounds - Number of rounds to play. Ignored if {@code duration} is positive.
+     * @param duration - If positive, play rounds until this much time has elapsed.
+     * @param freeRunning - If {@code true}, workers do not wait for each other after each call of
+     *        the body but call it over and over again until {@code duration} has elapsed. Thus,
+     *        there is just a single round. Requires a positive {@code duration}.
+     * @param alignment - How to release the workers at the start of each round.
+     * @param scheduler - Lets the workers take turns within each round. {@code null} to let them run
+     *        freely.
+     * @param resultAssertion - Checks the results the workers set on their
+     *        {@link #context(int) context} after each round.
+     * @param beforeRound - Called before each round while no worker is running. Anything it throws
+     *        fails the run, see {@link #resultFailure()}.
+     */
+    ThreadSafetyRun(int threadCount, int rounds, Duration duration, boolean freeRunning, StartAlignment alignment,
+            InterleavingScheduler scheduler, ResultAssertion resultAssertion, Runnable beforeRound) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be at least 1.");
+        }
+        if (rounds < 1) {
+            throw new IllegalArgumentException("rounds must be at least 1.");
+        }
+        if (freeRunning && duration.toNanos() <= 0) {
+            throw new IllegalArgumentException("A free running run requires a positive duration.");
+        }
+
+        this.threadCount = threadCount;
+        this.rounds = rounds;
+        this.durationNanos = duration.toNanos();
+        this.freeRunning = freeRunning;
+        this.failures = new Throwable[threadCount];
+        this.latencies = new LatencyHistogram[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        this.callStarts = new long[threadCount];
+        this.scheduler = scheduler;
+        this.resultAssertion = requireNonNull(resultAssertion, "resultAssertion");
+        this.beforeRound = requireNonNull(beforeRound, "beforeRound");
+        this.resultSlots = new Object[threadCount * RESULT_SLOT_STRIDE];
+        this.contexts = new ThreadSafetyContext[threadCount];
+        this.workerThreads = new AtomicReferenceArray<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            contexts[i] = new ThreadSafetyContext(this, i);
+        }
+        if (alignment == StartAlignment.SPIN) {
+            // Spinning threads would only steal CPU time from the threads they wait for if there are
+            // not enough cores for all of them.
+            var spinBudget = threadCount <= Runtime.getRuntime().availableProcessors() ? SPIN_BUDGET : Duration.ZERO;
+            this.startBarrier = new SpinBarrier(threadCount, this::nextRound, spinBudget);
+        } else {
+            this.startBarrier = new CyclicBarrier(threadCount, this::nextRound)::await;
+        }
+    }
+
+    /**
+     * Run the provided {@code body} round after round until the run is over. Must be called by
+     * exactly {@code threadCount} threads, each with its own {@code workerIndex}.
+     *
+     * @param workerIndex - Index of the calling worker, starting at zero.
+     * @param body - The code to run in each round. Anything it throws is recorded as a failure of
+     *        this worker. The duration of each call is recorded, too.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the other
+     *         workers.
+     * @throws BrokenBarrierException If another worker has been interrupted while waiting.
+     */
+    void work(int workerIndex, Runnable body) throws InterruptedException, BrokenBarrierException {
+        var latency = latencies[workerIndex];
+        var context = contexts[workerIndex];
+        workerThreads.set(workerIndex, Thread.currentThread());
+        while (true) {
+            startBarrier.await();
+            if (!running) {
+                return;
+            }
+            context.startRound(roundsPlayed - 1);
+
+            var firstCall = true;
+            long callEnd;
+            do {
+                if (scheduler != null) {
+                    scheduler.enter(workerIndex);
+                }
+                var callStart = System.nanoTime();
+                try {
+                    body.run();
+                } catch (Throwable t) {
+                    if (failures[workerIndex] == null) {
+                        failures[workerIndex] = t;
+                    }
+                    failed = true;
+                } finally {
+                    callEnd = System.nanoTime();
+                    latency.record(callEnd - callStart);
+                    // Published after the call, so that the shared array is not touched while the
+                    // workers are supposed to start at the same time.
+                    if (firstCall) {
+                        callStarts[workerIndex] = callStart;
+                        firstCall = false;
+                    }
+                    if (scheduler != null) {
+                        scheduler.leave(workerIndex);
+                    }
+                }
+            } while (freeRunning && !failed && callEnd - deadlineNanos < 0);
+        }
+    }
+
+    /**
+     * @return The first failure of each worker ordered by worker index. Entries of workers that did
+     *         not fail are {@code null}. Only meaningful after all workers returned.
+     */
+    Throwable[] failures() {
+        return failures.clone();
+    }
+
+    /**
+     * @return The failure of the check of the results of the last round or of preparing the next
+     *         round, {@code null} if there is none. Only meaningful after all workers returned.
+     */
+    Throwable resultFailure() {
+        return resultFailure;
+    }
+
+    /**
+     * @return The threads that have started working so far. May be called at any time.
+     */
+    List<Thread> workerThreads() {
+        var result = new ArrayList<Thread>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            var thread = workerThreads.get(i);
+            if (thread != null) {
+                result.add(thread);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param workerIndex - Index of a worker, starting at zero.
+     * @return The context of the worker with the provided index.
+     */
+    ThreadSafetyContext context(int workerIndex) {
+        return contexts[workerIndex];
+    }
+
+    /**
+     * @return The number of rounds that have been started so far.
+     */
+    int roundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * @return The durations of all calls of all workers. Only meaningful after all workers
+     *         returned.
+     */
+    LatencyHistogram latencies() {
+        var result = new LatencyHistogram();
+        for (var latency : latencies) {
+            result.add(latency);
+        }
+        return result;
+    }
+
+    /**
+     * @return The start skews of all rounds. Only meaningful after all workers returned.
+     */
+    LatencyHistogram startSkews() {
+        return startSkews;
+    }
+
+    /**
+     * @return The time between the start of the first round and the end of the last round. Zero if
+     *         the run did not come to a regular end.
+     */
+    Duration elapsed() {
+        return stopNanos == 0 ? Duration.ZERO : Duration.ofNanos(stopNanos - startNanos);
+    }
+
+    /**
+     * @return The number of workers taking part in each round.
+     */
+    int threadCount() {
+        return threadCount;
+    }
+
+    private void nextRound() {
+        var now = System.nanoTime();
+        if (roundsPlayed == 0) {
+            startNanos = now;
+            deadlineNanos = now + durationNanos;
+        } else {
+            recordStartSkew();
+            checkResults();
+        }
+
+        if (failed) {
+            running = false;
+        } else if (durationNanos > 0) {
+            running = roundsPlayed == 0 || now - deadlineNanos < 0;
+        } else {
+            running = roundsPlayed < rounds;
+        }
+
+        if (running && !prepareRound()) {
+            running = false;
+        }
+        if (running) {
+            if (scheduler != null) {
+                scheduler.startRound(roundsPlayed);
+            }
+            roundsPlayed++;
+        } else {
+            stopNanos = now;
+        }
+    }
+
+    private boolean prepareRound() {
+        try {
+            beforeRound.run();
+            return true;
+        } catch (RuntimeException | AssertionError e) {
+            resultFailure = e;
+            failed = true;
+            return false;
+        }
+    }
+
+    void setResult(int workerIndex, Object result) {
+        resultSlots[workerIndex * RESULT_SLOT_STRIDE] = result;
+    }
+
+    private void checkResults() {
+        if (resultAssertion == ResultAssertion.NONE) {
+            return;
+        }
+
+        var results = new Object[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            results[i] = resultSlots[i * RESULT_SLOT_STRIDE];
+            resultSlots[i * RESULT_SLOT_STRIDE] = null;
+        }
+        // Failures of the workers themselves take precedence, e. g. a worker that threw did not set
+        // a result anyway.
+        if (!failed) {
+            try {
+                resultAssertion.check(results, roundsPlayed - 1);
+            } catch (AssertionError e) {
+                resultFailure = e;
+                failed = true;
+            }
+        }
+    }
+
+    private void recordStartSkew() {
+        var first = callStarts[0];
+        var last = first;
+        for (int i = 1; i < threadCount; i++) {
+            first = Math.min(first, callStarts[i]);
+            last = Math.max(last, callStarts[i]);
+        }
+        startSkews.record(last - first);
+    }
+}
@@ -0,0 +1,37 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Access to virtual threads.
+ * </p>
+ * <p>
+ * This is the variant for Java versions without virtual threads. The jar contains another variant
+ * for Java 21 and newer in {@code META-INF/versions/21}.
+ * </p>
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * @return {@code true} if the running JVM supports virtual threads, {@code false} otherwise.
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @param namePrefix - Names of created threads start with this prefix.
+     * @return A {@link ThreadFactory} that creates virtual threads.
+     * @throws UnsupportedOperationException If the running JVM does not support virtual threads.
+     */
+    static ThreadFactory factory(String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer. Running on Java " + Runtime.version().feature() + ".");
+    }
+}
@@ -0,0 +1,58 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The threads an {@link AssertThreadSafety} test runs in.
+ */
+interface WorkerPool {
+
+    /**
+     * Run the provided {@code worker} in a thread of this pool.
+     *
+     * @param worker - The code to run.
+     * @return A {@link Future} that completes when {@code worker} is done.
+     */
+    Future<?> submit(Runnable worker);
+
+    /**
+     * Stop all workers of the current test. The pool must not be used by the current test anymore
+     * afterwards.
+     *
+     * @param timeout - Wait for as long as this for all workers to stop.
+     * @return {@code true} if all workers stopped in time, {@code false} otherwise.
+     */
+    boolean release(Duration timeout);
+
+    /**
+     * @param annotation - Create threads of the kind requested by this annotation.
+     * @param threadNamePrefix - Names of created threads start with this prefix, if the kind of
+     *        thread supports it.
+     * @return A {@link ThreadFactory} for {@link ThreadBackend#VIRTUAL} or
+     *         {@link ThreadBackend#CUSTOM} threads.
+     * @throws UnsupportedOperationException If virtual threads are requested but not supported.
+     * @throws IllegalArgumentException If a custom {@link ThreadFactory} is requested but not
+     *         specified or cannot be instantiated.
+     */
+    static ThreadFactory threadFactory(AssertThreadSafety annotation, String threadNamePrefix) {
+        if (annotation.backend() == ThreadBackend.VIRTUAL) {
+            return VirtualThreads.factory(threadNamePrefix);
+        }
+
+        var factoryType = annotation.threadFactory();
+        if (factoryType.isInterface()) {
+            throw new IllegalArgumentException("Backend " + ThreadBackend.CUSTOM + " requires a threadFactory to be specified.");
+        }
+
+        try {
+            var constructor = factoryType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot instantiate thread factory " + factoryType.getName() + ". It requires a no args constructor.", e);
+        }
+    }
+}
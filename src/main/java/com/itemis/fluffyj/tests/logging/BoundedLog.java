@@ -0,0 +1,204 @@
+package com.itemis.fluffyj.tests.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * <p>
+ * A {@link CapturedLog} that keeps the latest entries only, either a maximum number of them or as
+ * many as fit into a budget of {@link LogEntry#estimatedBytes() estimated bytes}.
+ * </p>
+ * <p>
+ * Entries are kept in a ring. Each entry takes the slot after the one of the previous entry and
+ * evicts the entry in it, if any. If the byte budget is exceeded, the oldest
+ * entries are evicted until it is not anymore. Entries leave the ring by means of an atomic swap
+ * only. Thus, each entry is evicted at most once and the counters of added and evicted entries are
+ * exact, even if many threads add entries at the same time. The order of evictions is exact only if
+ * entries are not added faster than a thread can fill a slot, though.
+ * </p>
+ * <p>
+ * The slots of the ring are allocated in chunks of {@value #CHUNK_SIZE} as entries arrive, so that a
+ * generous capacity, e. g. one derived from a large byte budget, does not take memory up front.
+ * </p>
+ * <p>
+ * Lookups scan the slots that have been used so far. There is no index, because the number of
+ * entries is bounded anyway.
+ * </p>
+ */
+final class BoundedLog implements CapturedLog {
+
+    static final int CHUNK_SIZE = 1 << 10;
+    private static final int CHUNK_BITS = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int capacity;
+    private final int chunkCount;
+    private final long maxBytes;
+    private final Object chunkLock = new Object();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final LongAdder addedCount = new LongAdder();
+    private final ConcurrentMap<Level, LongAdder> evictedCounts = new ConcurrentHashMap<>();
+
+    // Replaced as a whole whenever a chunk is added, so that readers never see a partially
+    // populated directory.
+    private volatile Object[] chunks = new Object[0];
+
+    /**
+     * @param capacity - Keep at most this many entries. The ring has this many slots, which are
+     *        allocated as they are needed.
+     * @param maxBytes - Keep at most as many entries as fit into this many estimated bytes.
+     *        {@link Long#MAX_VALUE} if entries are to be limited by {@code capacity} only.
+     */
+    BoundedLog(int capacity, long maxBytes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1.");
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be at least 1.");
+        }
+
+        this.capacity = capacity;
+        this.chunkCount = (int) (((long) capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void add(LogEntry entry) {
+        addedCount.increment();
+        retainedBytes.addAndGet(entry.estimatedBytes());
+        evict(getAndSet(slotOf(head.getAndIncrement()), entry));
+
+        while (retainedBytes.get() > maxBytes) {
+            var headIndex = head.get();
+            var tailIndex = tail.get();
+            var oldest = Math.max(tailIndex, headIndex - capacity);
+            if (oldest >= headIndex - 1) {
+                // Always keep the latest entry, even if it exceeds the budget by itself.
+                break;
+            }
+            if (tail.compareAndSet(tailIndex, oldest + 1)) {
+                evict(getAndSet(slotOf(oldest), null));
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Level logLevel, String logMsg) {
+        var usedSlots = usedSlots();
+        for (int i = 0; i < usedSlots; i++) {
+            var entry = get(i);
+            if (entry != null && entry.logLevel().equals(logLevel) && entry.logMsg().contains(logMsg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> missing(Level logLevel, List<String> logMsgs) {
+        var found = new boolean[logMsgs.size()];
+        var matcher = new MultiPatternMatcher(logMsgs);
+        var missing = matcher.patternCount();
+        var usedSlots = usedSlots();
+        for (int i = 0; i < usedSlots && missing > 0; i++) {
+            var entry = get(i);
+            if (entry != null && entry.logLevel().equals(logLevel)) {
+                missing -= matcher.markFound(entry.logMsg(), found);
+            }
+        }
+        return CapturedLog.notFound(logMsgs, found);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return addedCount.sum() == 0;
+    }
+
+    @Override
+    public List<LogEntry> snapshot() {
+        var result = new ArrayList<LogEntry>();
+        var headIndex = head.get();
+        // Start with the oldest slot, so that entries are roughly in the order they were added.
+        var start = headIndex < capacity ? 0 : slotOf(headIndex);
+        var usedSlots = usedSlots();
+        for (int i = 0; i < usedSlots; i++) {
+            var entry = get((int) (((long) start + i) % capacity));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long evictedCount(Level logLevel) {
+        var result = evictedCounts.get(logLevel);
+        return result == null ? 0 : result.sum();
+    }
+
+    /**
+     * @return The sum of the estimated bytes of all entries currently kept.
+     */
+    long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    private void evict(LogEntry entry) {
+        if (entry != null) {
+            retainedBytes.addAndGet(-entry.estimatedBytes());
+            evictedCounts.computeIfAbsent(entry.logLevel(), unused -> new LongAdder()).increment();
+        }
+    }
+
+    private int slotOf(long index) {
+        return (int) (index % capacity);
+    }
+
+    private int usedSlots() {
+        return (int) Math.min(head.get(), capacity);
+    }
+
+    private LogEntry get(int slot) {
+        var directory = chunks;
+        var chunkIndex = slot >>> CHUNK_BITS;
+        return chunkIndex < directory.length ? chunkAt(directory, chunkIndex).get(slot & CHUNK_MASK) : null;
+    }
+
+    private LogEntry getAndSet(int slot, LogEntry entry) {
+        var directory = chunks;
+        var chunkIndex = slot >>> CHUNK_BITS;
+        var chunk = chunkIndex < directory.length ? chunkAt(directory, chunkIndex) : allocateChunk(chunkIndex);
+        return chunk.getAndSet(slot & CHUNK_MASK, entry);
+    }
+
+    private AtomicReferenceArray<LogEntry> allocateChunk(int chunkIndex) {
+        synchronized (chunkLock) {
+            var directory = chunks;
+            if (chunkIndex >= directory.length) {
+                var grown = Arrays.copyOf(directory, Math.min(Math.max(chunkIndex + 1, directory.length * 2), chunkCount));
+                for (int i = directory.length; i < grown.length; i++) {
+                    // The last chunk holds the remaining slots only.
+                    grown[i] = new AtomicReferenceArray<LogEntry>((int) Math.min(CHUNK_SIZE, (long) capacity - ((long) i << CHUNK_BITS)));
+                }
+                chunks = grown;
+                directory = grown;
+            }
+            return chunkAt(directory, chunkIndex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<LogEntry> chunkAt(Object[] directory, int chunkIndex) {
+        return (AtomicReferenceArray<LogEntry>) directory[chunkIndex];
+    }
+}
@@ -0,0 +1,74 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Objects.requireNonNull;
+
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * <p>
+ * Tells which log events belong to a certain test, so that tests running in parallel do not see
+ * each other's messages.
+ * </p>
+ * <p>
+ * While a test runs, its id is bound to the test thread twice: In an
+ * {@link InheritableThreadLocal}, so that threads started by the test belong to it, too, and in
+ * the {@link MDC}, so that code that propagates the MDC to other threads, e. g. to the threads of a
+ * pool that existed before the test, keeps the connection. The MDC takes precedence, because it
+ * is propagated explicitly.
+ * </p>
+ */
+final class CaptureScope {
+
+    private static final InheritableThreadLocal<String> CURRENT_TEST = new InheritableThreadLocal<>();
+
+    private final String testId;
+    private final String previousThreadTestId;
+    private final String previousMdcTestId;
+
+    private CaptureScope(String testId) {
+        this.testId = testId;
+        this.previousThreadTestId = CURRENT_TEST.get();
+        this.previousMdcTestId = MDC.get(FluffyTestAppender.MDC_TEST_KEY);
+    }
+
+    /**
+     * Bind the test with the provided {@code testId} to the calling thread.
+     *
+     * @return A scope that must be {@link #exit() exited} by the same thread.
+     */
+    static CaptureScope enter(String testId) {
+        var result = new CaptureScope(requireNonNull(testId, "testId"));
+        CURRENT_TEST.set(testId);
+        MDC.put(FluffyTestAppender.MDC_TEST_KEY, testId);
+        return result;
+    }
+
+    /**
+     * Restore the binding of the calling thread to what it was before {@link #enter(String)}.
+     */
+    void exit() {
+        if (previousThreadTestId == null) {
+            CURRENT_TEST.remove();
+        } else {
+            CURRENT_TEST.set(previousThreadTestId);
+        }
+        if (previousMdcTestId == null) {
+            MDC.remove(FluffyTestAppender.MDC_TEST_KEY);
+        } else {
+            MDC.put(FluffyTestAppender.MDC_TEST_KEY, previousMdcTestId);
+        }
+    }
+
+    /**
+     * Must be called by the thread that logged the provided {@code event}.
+     *
+     * @return {@code true} if the provided {@code event} belongs to the test of this scope.
+     */
+    boolean owns(ILoggingEvent event) {
+        var mdc = event.getMDCPropertyMap();
+        var mdcTestId = mdc == null ? null : mdc.get(FluffyTestAppender.MDC_TEST_KEY);
+        return testId.equals(mdcTestId == null ? CURRENT_TEST.get() : mdcTestId);
+    }
+}
@@ -0,0 +1,89 @@
+package com.itemis.fluffyj.tests.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * <p>
+ * The entries captured by a {@link FluffyTestAppender} during a single test.
+ * </p>
+ * <p>
+ * Implementations are thread safe. Adding entries does not wait for lookups or for entries being
+ * added by other threads.
+ * </p>
+ */
+interface CapturedLog extends AutoCloseable {
+
+    /**
+     * @param entry - Add this entry to the log.
+     */
+    void add(LogEntry entry);
+
+    /**
+     * @return {@code true} if the message of at least one entry with the provided {@code logLevel}
+     *         contains {@code logMsg}.
+     */
+    boolean contains(Level logLevel, String logMsg);
+
+    /**
+     * Look for all provided message parts with a single pass over the entries of the provided
+     * {@code logLevel}.
+     *
+     * @return The message parts that are not contained in any message, in the order provided.
+     */
+    List<String> missing(Level logLevel, List<String> logMsgs);
+
+    /**
+     * @return {@code true} if no entry has been added so far, including entries that have been
+     *         evicted since.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return A copy of the entries that are currently kept, in the order in which they have been
+     *         captured, across levels.
+     */
+    List<LogEntry> snapshot();
+
+    /**
+     * @param maxCount - Return at most this many entries.
+     * @return A copy of the latest entries that are currently kept. The default implementation
+     *         copies all entries first.
+     */
+    default List<LogEntry> latest(int maxCount) {
+        var result = snapshot();
+        return result.subList(Math.max(0, result.size() - maxCount), result.size());
+    }
+
+    /**
+     * @return The number of entries with the provided {@code logLevel} that have been added but are
+     *         not kept anymore.
+     */
+    long evictedCount(Level logLevel);
+
+    /**
+     * Release resources held by the log. Entries added afterwards may be dropped. The default
+     * implementation does nothing.
+     */
+    @Override
+    default void close() {
+        // Nothing to release.
+    }
+
+    /**
+     * @param logMsgs - Message parts looked for.
+     * @param found - Indexed like {@code logMsgs}. Tells which parts have been found.
+     * @return The message parts that have not been found, in the order provided.
+     */
+    static List<String> notFound(List<String> logMsgs, boolean[] found) {
+        var result = new ArrayList<String>();
+        for (int i = 0; i < found.length; i++) {
+            if (!found[i]) {
+                result.add(logMsgs.get(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Comparator.comparingInt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import ch.qos.logback.classic.Level;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+/**
+ * <p>
+ * Finds the captured messages that come closest to a message part that was looked for in vain, so
+ * that failures tell whether the message was logged slightly differently or with another level.
+ * </p>
+ * <p>
+ * The distance of a message is the least number of characters that need to be inserted, deleted
+ * or replaced so that the message contains the part looked for. Messages of the level looked for
+ * come first among messages of the same distance.
+ * </p>
+ */
+final class ClosestMatches {
+
+    /**
+     * Computing distances is quadratic, so only this many of the latest entries are taken into
+     * account.
+     */
+    static final int MAX_CANDIDATES = 10_000;
+
+    private ClosestMatches() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * @param entries - Candidates, oldest first.
+     * @param logLevel - The level looked for.
+     * @param logMsg - The message part looked for.
+     * @param count - Describe at most this many entries.
+     * @return A human readable list of the closest entries, or a note that no entry comes close.
+     */
+    static String describe(List<LogEntry> entries, Level logLevel, String logMsg, int count) {
+        var candidates = entries.subList(Math.max(0, entries.size() - MAX_CANDIDATES), entries.size());
+        var scored = new ArrayList<ScoredEntry>();
+        for (var entry : candidates) {
+            var distance = distance(entry.logMsg(), logMsg);
+            // Too different to be of any help.
+            if (distance < logMsg.length()) {
+                scored.add(new ScoredEntry(entry, entry.logLevel().equals(logLevel) ? 2 * distance : 2 * distance + 1));
+            }
+        }
+        if (scored.isEmpty()) {
+            return "No similar messages captured.";
+        }
+        return scored.stream()
+            .sorted(comparingInt((ScoredEntry scoredEntry) -> scoredEntry.score))
+            .limit(count)
+            .map(scoredEntry -> scoredEntry.entry.toString())
+            .collect(Collectors.joining("; ", "Closest matches: ", ""));
+    }
+
+    // Sellers' algorithm: Edit distance where the match may start and end anywhere in text.
+    static int distance(String text, String part) {
+        var previous = new int[part.length() + 1];
+        var current = new int[part.length() + 1];
+        for (int j = 0; j <= part.length(); j++) {
+            previous[j] = j;
+        }
+        var result = previous[part.length()];
+        for (int i = 1; i <= text.length(); i++) {
+            current[0] = 0;
+            for (int j = 1; j <= part.length(); j++) {
+                var replace = previous[j - 1] + (text.charAt(i - 1) == part.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            result = Math.min(result, current[part.length()]);
+            var swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return result;
+    }
+
+    private static final class ScoredEntry {
+        private final LogEntry entry;
+        private final int score;
+
+        private ScoredEntry(LogEntry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * An append only list that many threads may add to at the same time without waiting for each
+ * other.
+ * </p>
+ * <p>
+ * Each {@link #add(Object) add} reserves the next index with a single atomic increment and writes
+ * the element into the chunk that index belongs to. Chunks are allocated once every
+ * {@value #CHUNK_SIZE} elements. Only allocating a chunk takes a lock, so that threads do not
+ * allocate the same chunk twice.
+ * </p>
+ * <p>
+ * Reading does not block writers either. A {@link #snapshot() snapshot} contains all elements whose
+ * {@code add} returned before the snapshot was taken, in the order their indices were reserved.
+ * Elements that are being added concurrently may or may not be contained.
+ * </p>
+ *
+ * @param <T> - Type of the elements.
+ */
+final class ConcurrentAppendLog<T> {
+
+    static final int CHUNK_SIZE = 1 << 10;
+    private static final int CHUNK_BITS = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final Object chunkLock = new Object();
+
+    // Replaced as a whole whenever a chunk is added, so that readers never see a partially
+    // populated directory.
+    private volatile Object[] chunks = new Object[0];
+
+    /**
+     * @param element - Add this element to the end of the log. Must not be {@code null}.
+     */
+    void add(T element) {
+        requireNonNull(element, "element");
+
+        var index = reserved.getAndIncrement();
+        var chunkIndex = (int) (index >>> CHUNK_BITS);
+        var directory = chunks;
+        var chunk = chunkIndex < directory.length ? chunkAt(directory, chunkIndex) : allocateChunk(chunkIndex);
+        chunk.lazySet((int) (index & CHUNK_MASK), element);
+    }
+
+    /**
+     * @return A copy of the elements added so far.
+     */
+    List<T> snapshot() {
+        var directory = chunks;
+        var count = Math.min(reserved.get(), (long) directory.length * CHUNK_SIZE);
+        var result = new ArrayList<T>((int) Math.min(count, Integer.MAX_VALUE));
+        for (long index = 0; index < count; index++) {
+            // Null means that the element's index is reserved but the element has not been written
+            // yet.
+            var element = chunkAt(directory, (int) (index >>> CHUNK_BITS)).get((int) (index & CHUNK_MASK));
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param index - Index of an element, starting at zero.
+     * @return The element with the provided {@code index}, {@code null} if it has not been written
+     *         yet or if {@code index} is not less than {@link #size()}.
+     */
+    T get(long index) {
+        var directory = chunks;
+        var chunkIndex = index >>> CHUNK_BITS;
+        if (index < 0 || chunkIndex >= directory.length) {
+            return null;
+        }
+        return chunkAt(directory, (int) chunkIndex).get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * @return The number of elements whose {@code add} has at least started. Elements with an index
+     *         below it may still be in the process of being written.
+     */
+    long size() {
+        return reserved.get();
+    }
+
+    /**
+     * @return {@code true} if no element has been added so far.
+     */
+    boolean isEmpty() {
+        return reserved.get() == 0;
+    }
+
+    private AtomicReferenceArray<T> allocateChunk(int chunkIndex) {
+        synchronized (chunkLock) {
+            var directory = chunks;
+            if (chunkIndex >= directory.length) {
+                var grown = Arrays.copyOf(directory, Math.max(chunkIndex + 1, directory.length * 2));
+                for (int i = directory.length; i < grown.length; i++) {
+                    grown[i] = new AtomicReferenceArray<T>(CHUNK_SIZE);
+                }
+                chunks = grown;
+                directory = grown;
+            }
+            return chunkAt(directory, chunkIndex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtomicReferenceArray<T> chunkAt(Object[] directory, int chunkIndex) {
+        return (AtomicReferenceArray<T>) directory[chunkIndex];
+    }
+}
@@ -0,0 +1,287 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * <p>
+ * A JUnit5 extension that detects log calls at disabled levels whose message or arguments have
+ * been built before the call, e. g.
+ *
+ * <pre>
+ * LOG.debug("Processing " + order);
+ * LOG.debug("Processing {}", order.toString());
+ * </pre>
+ *
+ * instead of
+ *
+ * <pre>
+ * LOG.debug("Processing {}", order);
+ * </pre>
+ *
+ * The former concatenate or call {@code toString()} on each call, even if the message is never
+ * logged. Requires SLF4J and Logback.
+ * </p>
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * public class SomeTest {
+ *     // Visibility must at least be package private
+ *     &#64;RegisterExtension
+       FluffyDisabledLevelDetector disabledLevelDetector = new FluffyDisabledLevelDetector();
+
+       &#64;Test
+       public void testSomething() {
+           someApi.someSideEffect();
+           disabledLevelDetector.assertNoPreformattedMessages();
+       }
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * It registers itself as a Logback {@link TurboFilter} before each test method and removes itself
+ * afterwards. Turbo filters see each log call before the level of the logger is checked. The
+ * detector never changes whether a message is logged. It does not see calls that a turbo filter
+ * registered before it accepts or denies, though.
+ * </p>
+ * <p>
+ * A call counts as pre-formatted if its message or one of its arguments is a string that has been
+ * built for this very call. Such strings are told apart by their identity: The detector remembers
+ * the strings each call site passed the time before. A string literal or constant expression is the
+ * same instance on each call, while concatenation, {@code String.format}, {@code toString()} and
+ * the like return a new one. Hence, a call site is judged from its second call on. Arguments that
+ * are not strings are formatted only if the message is logged and are not checked. Calls like
+ * {@code LOG.isDebugEnabled()} are not counted.
+ * </p>
+ * <p>
+ * Strings that are the same instance on each call pass, even if they are not constants, e. g. the
+ * value of a field. Strings that differ per call for other reasons are reported, though, e. g.
+ * {@code user.getName()} for different users. Pass the object itself or check the level first.
+ * Finding the call site takes a walk of the stack. It is skipped for strings that have already
+ * been found to be the same instance on each call.
+ * </p>
+ */
+public class FluffyDisabledLevelDetector extends TurboFilter implements BeforeEachCallback, AfterEachCallback {
+
+    private static final int EXAMPLE_COUNT = 3;
+    // Bounds the memory taken by the strings known to be the same instance on each call.
+    private static final int MAX_STABLE_STRINGS = 4096;
+
+    // Replaced after each test instead of being reset, so that log calls never have to wait.
+    private volatile Detections detections = new Detections();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format != null && level != null && !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            detections.add(logger, level, format, params);
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * @return The number of log calls at disabled levels during the current test.
+     */
+    public long disabledCallCount() {
+        return detections.disabledCalls.sum();
+    }
+
+    /**
+     * @return The number of log calls at disabled levels with a pre-formatted message during the
+     *         current test.
+     */
+    public long preformattedCallCount() {
+        return detections.preformattedCalls.sum();
+    }
+
+    /**
+     * Assert that no log call at a disabled level had a pre-formatted message during the current
+     * test. The error lists the first of these calls and where they have been made.
+     */
+    public void assertNoPreformattedMessages() {
+        var current = detections;
+        var count = current.preformattedCalls.sum();
+        assertThat(count).as(() -> "Found " + count + " of " + current.disabledCalls.sum()
+            + " log calls at disabled levels with pre-formatted messages. Use placeholders instead. Examples: " + current.examples())
+            .isZero();
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        var logCtx = (LoggerContext) LoggerFactory.getILoggerFactory();
+        setContext(logCtx);
+        start();
+        logCtx.addTurboFilter(this);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        var logCtx = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logCtx.getTurboFilterList().remove(this);
+        stop();
+        detections = new Detections();
+    }
+
+    private static boolean isLoggingFrame(StackFrame frame) {
+        var className = frame.getClassName();
+        return className.startsWith("ch.qos.logback.") || className.startsWith("org.slf4j.")
+            || className.equals(FluffyDisabledLevelDetector.class.getName()) || className.equals(Detections.class.getName());
+    }
+
+    private static final class Detections {
+
+        private final LongAdder disabledCalls = new LongAdder();
+        private final LongAdder preformattedCalls = new LongAdder();
+        private final AtomicInteger exampleSlots = new AtomicInteger();
+        private final AtomicReferenceArray<String> examples = new AtomicReferenceArray<>(EXAMPLE_COUNT);
+        // The strings each call site passed the time before, the message first, then the arguments.
+        // Typed as objects, because they are compared by identity.
+        private final ConcurrentMap<CallSite, Object[]> lastStrings = new ConcurrentHashMap<>();
+        // Maps strings that have been passed twice in a row by the same call site to that instance.
+        private final ConcurrentMap<String, Object> stableStrings = new ConcurrentHashMap<>();
+
+        void add(Logger logger, Level level, String format, Object[] params) {
+            disabledCalls.increment();
+            var strings = strings(format, params);
+            if (areStable(strings)) {
+                return;
+            }
+
+            var frame = callSite();
+            if (frame == null) {
+                return;
+            }
+            var previous = lastStrings.put(new CallSite(frame), strings);
+            if (previous == null) {
+                return;
+            }
+            var builtIndex = builtIndex(previous, strings);
+            if (builtIndex < 0) {
+                markStable(strings);
+                return;
+            }
+
+            preformattedCalls.increment();
+            if (exampleSlots.get() < EXAMPLE_COUNT) {
+                var slot = exampleSlots.getAndIncrement();
+                if (slot < EXAMPLE_COUNT) {
+                    var built = builtIndex == 0 ? "message" : "argument " + builtIndex;
+                    examples.set(slot, "[" + level + "] " + logger.getName() + " - " + format + " (" + built + " built per call) at "
+                        + frame.toStackTraceElement());
+                }
+            }
+        }
+
+        List<String> examples() {
+            var result = new ArrayList<String>();
+            for (int i = 0; i < EXAMPLE_COUNT; i++) {
+                var example = examples.get(i);
+                if (example != null) {
+                    result.add(example);
+                }
+            }
+            return result;
+        }
+
+        private boolean areStable(Object[] strings) {
+            for (var string : strings) {
+                if (string != null && stableStrings.get(string) != string) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void markStable(Object[] strings) {
+            for (var string : strings) {
+                if (string != null && stableStrings.size() < MAX_STABLE_STRINGS) {
+                    stableStrings.putIfAbsent((String) string, string);
+                }
+            }
+        }
+
+        private static Object[] strings(String format, Object[] params) {
+            var result = new Object[params == null ? 1 : params.length + 1];
+            result[0] = format;
+            for (int i = 1; i < result.length; i++) {
+                if (params[i - 1] instanceof String) {
+                    result[i] = params[i - 1];
+                }
+            }
+            return result;
+        }
+
+        // Index of the first string that is a different instance than the time before, -1 if none.
+        private static int builtIndex(Object[] previous, Object[] strings) {
+            for (int i = 0; i < Math.min(previous.length, strings.length); i++) {
+                if (previous[i] != null && strings[i] != null && previous[i] != strings[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static StackFrame callSite() {
+            return StackWalker.getInstance().walk(frames -> frames.dropWhile(FluffyDisabledLevelDetector::isLoggingFrame).findFirst())
+                .orElse(null);
+        }
+    }
+
+    /**
+     * Identifies a call by the instruction that made it, so that calls on the same line are told
+     * apart.
+     */
+    private static final class CallSite {
+
+        private final String className;
+        private final String methodName;
+        private final String descriptor;
+        private final int byteCodeIndex;
+
+        CallSite(StackFrame frame) {
+            this.className = frame.getClassName();
+            this.methodName = frame.getMethodName();
+            this.descriptor = frame.getDescriptor();
+            this.byteCodeIndex = frame.getByteCodeIndex();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CallSite)) {
+                return false;
+            }
+            var other = (CallSite) obj;
+            return byteCodeIndex == other.byteCodeIndex && className.equals(other.className) && methodName.equals(other.methodName)
+                && descriptor.equals(other.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(className, methodName, descriptor, byteCodeIndex);
+        }
+    }
+}
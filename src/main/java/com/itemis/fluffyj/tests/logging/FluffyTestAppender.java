@@ -9,8 +9,13 @@ import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongPredicate;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
@@ -42,10 +47,259 @@ import ch.qos.logback.core.AppenderBase;
  * }
  * </pre>
  * </p>
+ * <p>
+ * Appending does not take a lock, so that code logging from many threads at once is not
+ * serialized by the appender. Messages are formatted when they are asserted on only.
+ * </p>
+ * <p>
+ * Captured messages are partitioned by level and indexed with the first assertion, so that
+ * repeated assertions on large logs do not scan all messages each time.
+ * </p>
+ * <p>
+ * By default, all messages are kept until the end of the test. Use {@link #keepLast(int)} or
+ * {@link #keepLastBytes(long)} to bound the memory taken by long running tests or
+ * {@link #spillToDisk()} to keep them in a file.
+ * </p>
+ * <p>
+ * By default, messages of all loggers and all levels are captured. Use
+ * {@link #captureFrom(String...)} and {@link #minLevel(Level)} to capture the messages of interest
+ * only.
+ * </p>
+ * <p>
+ * Use {@link #isolated()} if tests capturing messages run in parallel.
+ * </p>
+ * <p>
+ * Besides messages, the number of messages is counted by level and logger, see
+ * {@link #assertLogCount(Level, LongPredicate)}. Use {@link #countOnly()} if counts are all that
+ * is asserted on.
+ * </p>
  */
 public class FluffyTestAppender extends AppenderBase<ILoggingEvent> implements BeforeEachCallback, AfterEachCallback {
+
+    /**
+     * Key of the {@link org.slf4j.MDC MDC} entry that ties messages to the test that caused them,
+     * see {@link #isolated()}.
+     */
+    public static final String MDC_TEST_KEY = "fluffyj.test";
+
     private static final String LOGBACK_ROOT_LOGGER_NAME = ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME;
-    private final List<LogEntry> logEntries = new ArrayList<>();
+    private static final int CLOSEST_MATCH_COUNT = 3;
+    // Slots of a BoundedLog are addressed with an int.
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE;
+
+    // Replaced after each test instead of being cleared, so that appends never have to wait.
+    private volatile CapturedLog logEntries = new PartitionedLog();
+    private final List<LogWaiter> waiters = new CopyOnWriteArrayList<>();
+    private volatile int maxEntries;
+    private volatile long maxBytes;
+    private volatile boolean spillToDisk;
+    private volatile Set<String> loggerNames = Set.of(LOGBACK_ROOT_LOGGER_NAME);
+    private volatile Level minLevel = Level.TRACE;
+    private volatile boolean isolated;
+    private volatile CaptureScope scope;
+    private volatile LogCounts counts = new LogCounts();
+    private volatile boolean countOnly;
+
+    /**
+     * <p>
+     * Capture messages of the provided loggers and their descendants only instead of all messages.
+     * </p>
+     * <p>
+     * The appender is attached to these loggers instead of the root logger. Thus, messages of other
+     * loggers never reach it. Must be called before the appender is attached, see
+     * {@link #keepLast(int)}.
+     * </p>
+     *
+     * @param loggerNames - Names of the loggers to capture messages of.
+     * @return This instance.
+     */
+    public FluffyTestAppender captureFrom(String... loggerNames) {
+        requireNonNull(loggerNames, "loggerNames");
+        if (loggerNames.length == 0) {
+            throw new IllegalArgumentException("loggerNames must not be empty.");
+        }
+
+        var names = new HashSet<String>();
+        for (var loggerName : loggerNames) {
+            names.add(requireNonNull(loggerName, "loggerNames"));
+        }
+        // Descendants of other loggers are left out, because their messages would be captured twice
+        // otherwise.
+        names.removeIf(name -> names.stream().anyMatch(other -> isAncestor(other, name)));
+        this.loggerNames = Set.copyOf(names);
+        return this;
+    }
+
+    /**
+     * Like {@link #captureFrom(String...)} but with the loggers of the provided classes.
+     *
+     * @param loggerClasses - Classes whose loggers to capture messages of.
+     * @return This instance.
+     */
+    public FluffyTestAppender captureFrom(Class<?>... loggerClasses) {
+        requireNonNull(loggerClasses, "loggerClasses");
+        var names = new String[loggerClasses.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = requireNonNull(loggerClasses[i], "loggerClasses").getName();
+        }
+        return captureFrom(names);
+    }
+
+    /**
+     * <p>
+     * Capture messages with the provided {@code minLevel} or a higher level only. Messages with a
+     * lower level are dropped by the appender before they are counted or stored. The logging event
+     * has been created by logback at this point, though. There is no {@code TurboFilter} to drop
+     * them earlier, because it would drop them for all appenders. Raise the level of the logger to
+     * avoid creating the event as well.
+     * </p>
+     * <p>
+     * The levels of the loggers are not changed, i. e. other appenders are not affected. On the
+     * flip side, messages that are disabled by the level of their logger are not captured either.
+     * </p>
+     *
+     * @param minLevel - The lowest level to capture.
+     * @return This instance.
+     */
+    public FluffyTestAppender minLevel(Level minLevel) {
+        this.minLevel = requireNonNull(minLevel, "minLevel");
+        return this;
+    }
+
+    /**
+     * <p>
+     * Keep the latest {@code maxEntries} entries only, so that long running tests do not run out of
+     * memory. Older entries are evicted but still counted, see {@link #evictedCount(Level)}.
+     * </p>
+     * <p>
+     * Must be called before the appender is attached, i. e. when registering it:
+     *
+     * <pre>
+     * &#64;RegisterExtension
+     * FluffyTestAppender logAssert = new FluffyTestAppender().keepLast(10_000);
+     * </pre>
+     * </p>
+     *
+     * @param maxEntries - Keep at most this many entries. Memory for the references to them is
+     *        allocated in chunks as entries are added.
+     * @return This instance.
+     */
+    public FluffyTestAppender keepLast(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1.");
+        }
+        checkNotSpillingToDisk();
+        this.maxEntries = maxEntries;
+        logEntries = newLog();
+        return this;
+    }
+
+    /**
+     * Like {@link #keepLast(int)} but keep as many of the latest entries as fit into roughly
+     * {@code maxBytes} bytes of heap. The latest entry is always kept. May be combined with
+     * {@link #keepLast(int)}.
+     *
+     * @param maxBytes - Estimated bytes the kept entries may take at most, not including the memory
+     *        for the references to the entries. Must not exceed the maximum heap size.
+     * @return This instance.
+     */
+    public FluffyTestAppender keepLastBytes(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be at least 1.");
+        }
+        var maxHeapBytes = Runtime.getRuntime().maxMemory();
+        if (maxBytes > maxHeapBytes) {
+            throw new IllegalArgumentException("maxBytes must not exceed the maximum heap size of " + maxHeapBytes + " bytes.");
+        }
+        checkNotSpillingToDisk();
+        this.maxBytes = maxBytes;
+        logEntries = newLog();
+        return this;
+    }
+
+    /**
+     * <p>
+     * Write captured messages to a memory mapped temporary file instead of keeping them on the heap,
+     * so that heap usage does not grow with the number of messages. Only about eight bytes per
+     * message are kept in memory. Meant for tests that log millions of messages, e. g. load tests.
+     * </p>
+     * <p>
+     * The file is created with the first message and deleted after each test. Assertions read the
+     * messages from the file. Cannot be combined with {@link #keepLast(int)} or
+     * {@link #keepLastBytes(long)}. Must be called before the appender is attached, see
+     * {@link #keepLast(int)}.
+     * </p>
+     *
+     * @return This instance.
+     * @throws IllegalStateException If the number of kept messages is bounded.
+     */
+    public FluffyTestAppender spillToDisk() {
+        if (maxEntries != 0 || maxBytes != 0) {
+            throw new IllegalStateException("Spilling to disk cannot be combined with keeping the latest entries only.");
+        }
+        this.spillToDisk = true;
+        logEntries = newLog();
+        return this;
+    }
+
+    /**
+     * @return The number of entries with the provided {@code logLevel} that have been evicted by
+     *         {@link #keepLast(int)} or {@link #keepLastBytes(long)} during the current test.
+     */
+    public long evictedCount(Level logLevel) {
+        requireNonNull(logLevel, "logLevel");
+        return logEntries.evictedCount(logLevel);
+    }
+
+    /**
+     * <p>
+     * Capture the messages of the current test only, so that tests may run in parallel. Without
+     * this, each appender captures all messages, including those of other tests running at the same
+     * time.
+     * </p>
+     * <p>
+     * A message belongs to the current test if it is logged
+     * <ul>
+     * <li>by the test thread,</li>
+     * <li>by a thread that has been started by the test thread or by one of its descendants or</li>
+     * <li>by a thread whose {@link org.slf4j.MDC MDC} contains the {@link #MDC_TEST_KEY} of the
+     * test. The appender puts the key into the MDC of the test thread before each test. Code that
+     * propagates the MDC, e. g. to the threads of a pool that existed before the test, propagates
+     * the key as well.</li>
+     * </ul>
+     * </p>
+     * <p>
+     * Each test must have an appender of its own, i. e. the test class must not use
+     * {@code Lifecycle.PER_CLASS} if its tests run in parallel. Must be called before the appender
+     * is attached, see {@link #keepLast(int)}.
+     * </p>
+     *
+     * @return This instance.
+     */
+    public FluffyTestAppender isolated() {
+        this.isolated = true;
+        return this;
+    }
+
+    /**
+     * <p>
+     * Count messages by level and logger only instead of capturing them, so that capturing takes a
+     * few nanoseconds per message and neither formats nor retains anything. Meant for tests that
+     * assert on counts only, e. g. performance tests, see {@link #assertLogCount(Level, LongPredicate)}
+     * and {@link #assertLogRateBelow(Level, double)}.
+     * </p>
+     * <p>
+     * Assertions on the content of messages throw an {@link IllegalStateException} in this mode.
+     * Options that concern kept messages, like {@link #keepLast(int)}, have no effect. Must be
+     * called before the appender is attached, see {@link #keepLast(int)}.
+     * </p>
+     *
+     * @return This instance.
+     */
+    public FluffyTestAppender countOnly() {
+        this.countOnly = true;
+        return this;
+    }
 
     @Override
     public void doAppend(ILoggingEvent e) {
@@ -74,59 +328,247 @@ public class FluffyTestAppender extends AppenderBase<ILoggingEvent> implements B
     public void assertLogContains(Level logLevel, String logMsg) {
         requireNonNull(logLevel, "logLevel");
         requireNonNull(logMsg, "logMsg");
+        checkMessagesCaptured();
+
+        var log = logEntries;
+        var matchFound = log.contains(logLevel, logMsg);
+
+        assertThat(matchFound).describedAs("Not found in log: [" + logLevel + "] " + logMsg + evictedHint(log, logLevel)).isTrue();
+    }
+
+    /**
+     * <p>
+     * Assert that the log contains each of the provided {@code logMsgs} with the provided
+     * {@code logLevel}. Like {@link #assertLogContains(Level, String)}, parts of messages are
+     * matched, too. The messages need not be contained in the same log message.
+     * </p>
+     * <p>
+     * The log is scanned once for all of the provided {@code logMsgs} rather than once per message.
+     * All missing messages are reported.
+     * </p>
+     */
+    public void assertLogContainsAll(Level logLevel, String... logMsgs) {
+        requireNonNull(logLevel, "logLevel");
+        requireNonNull(logMsgs, "logMsgs");
+        for (var logMsg : logMsgs) {
+            requireNonNull(logMsg, "logMsgs");
+        }
+        checkMessagesCaptured();
+
+        var log = logEntries;
+        var missing = log.missing(logLevel, Arrays.asList(logMsgs));
+
+        assertThat(missing).describedAs("Not found in log: [" + logLevel + "] " + missing + evictedHint(log, logLevel)).isEmpty();
+    }
+
+    /**
+     * <p>
+     * Wait for the log to contain the provided {@code logMsg} with the provided {@code logLevel}.
+     * Meant for messages logged by other threads, e. g. by asynchronous code.
+     * </p>
+     * <p>
+     * Returns right away if the message has been logged already. Otherwise, new messages are
+     * checked by the threads logging them and the waiting thread is woken up as soon as a message
+     * matches. Parts of messages are matched like with {@link #assertLogContains(Level, String)}.
+     * </p>
+     * <p>
+     * If waiting is interrupted, the method preserves the interrupt flag and throws a
+     * {@link RuntimeException}.
+     * </p>
+     *
+     * @param timeout - Wait for as long as this. Precision is milliseconds.
+     * @throws AssertionError If the message is not logged within {@code timeout}. The error lists
+     *         the captured messages that come closest.
+     */
+    public void awaitLogContains(Level logLevel, String logMsg, Duration timeout) {
+        requireNonNull(logLevel, "logLevel");
+        requireNonNull(logMsg, "logMsg");
+        requireNonNull(timeout, "timeout");
+        checkMessagesCaptured();
+
+        var log = logEntries;
+        var waiter = new LogWaiter(logLevel, logMsg);
+        // Registered before looking at the log, so that no message falls in between.
+        waiters.add(waiter);
+        try {
+            // The log is looked at once more after waiting: An entry that is added at the very
+            // moment the waiter is registered may not be offered to it.
+            if (log.contains(logLevel, logMsg) || waiter.await(timeout) || log.contains(logLevel, logMsg)) {
+                return;
+            }
+        } finally {
+            waiters.remove(waiter);
+        }
+
+        assertThat(false).as(() -> "Not found in log within " + timeout.toMillis() + " ms: [" + logLevel + "] " + logMsg
+            + evictedHint(log, logLevel) + ". " + ClosestMatches.describe(log.latest(ClosestMatches.MAX_CANDIDATES), logLevel, logMsg,
+                CLOSEST_MATCH_COUNT)).isTrue();
+    }
+
+    /**
+     * <p>
+     * Assert that the number of messages with the provided {@code logLevel} matches
+     * {@code expectedCount}, e. g.
+     *
+     * <pre>
+     * logAssert.assertLogCount(Level.WARN, count -&gt; count &lt;= 3);
+     * </pre>
+     * </p>
+     * <p>
+     * Evicted messages count, too. Works in all modes, see {@link #countOnly()}.
+     * </p>
+     */
+    public void assertLogCount(Level logLevel, LongPredicate expectedCount) {
+        requireNonNull(logLevel, "logLevel");
+        requireNonNull(expectedCount, "expectedCount");
+
+        var count = counts.count(logLevel);
+        assertThat(expectedCount.test(count)).as(() -> "Unexpected number of messages in log: [" + logLevel + "] " + count).isTrue();
+    }
+
+    /**
+     * Like {@link #assertLogCount(Level, LongPredicate)} but count the messages of the logger with
+     * the provided {@code loggerName} and of its descendants only.
+     */
+    public void assertLogCount(Level logLevel, String loggerName, LongPredicate expectedCount) {
+        requireNonNull(logLevel, "logLevel");
+        requireNonNull(loggerName, "loggerName");
+        requireNonNull(expectedCount, "expectedCount");
 
-        var matchFound = false;
-        synchronized (logEntries) {
-            matchFound = logEntries.stream().anyMatch(logEntry -> logEntry.logLevel.equals(logLevel) && logEntry.logMsg.contains(logMsg));
+        var count = counts.count(logLevel, name -> name.equals(loggerName) || isAncestor(loggerName, name));
+        assertThat(expectedCount.test(count))
+            .as(() -> "Unexpected number of messages of logger " + loggerName + " in log: [" + logLevel + "] " + count).isTrue();
+    }
+
+    /**
+     * <p>
+     * Assert that messages with the provided {@code logLevel} have been logged at a rate below
+     * {@code perSecond} on average since the current test started.
+     * </p>
+     * <p>
+     * Evicted messages count, too. Works in all modes, see {@link #countOnly()}.
+     * </p>
+     *
+     * @param perSecond - Maximum rate, exclusive. Must be greater than zero.
+     */
+    public void assertLogRateBelow(Level logLevel, double perSecond) {
+        requireNonNull(logLevel, "logLevel");
+        if (!(perSecond > 0)) {
+            throw new IllegalArgumentException("perSecond must be greater than 0.");
         }
 
-        assertThat(matchFound).describedAs("Not found in log: [" + logLevel + "] " + logMsg).isTrue();
+        var logCounts = counts;
+        var count = logCounts.count(logLevel);
+        var elapsedNanos = Math.max(1, logCounts.elapsedNanos());
+        var rate = count * 1e9 / elapsedNanos;
+        assertThat(rate < perSecond).as(() -> "Rate of messages in log too high: [" + logLevel + "] " + count + " within "
+            + elapsedNanos / 1_000_000 + " ms, i. e. " + rate + " per second, expected below " + perSecond).isTrue();
     }
 
     /**
-     * Assert that the log does not contain any message.
+     * Assert that the log does not contain any message. Evicted messages count, too.
      */
     public void assertLogIsEmpty() {
-        assertThat(logEntries).as("Encountered unempty log").isEmpty();
+        var log = logEntries;
+        var logCounts = counts;
+        assertThat(logCounts.total() == 0).as(() -> "Encountered unempty log: " + (countOnly ? logCounts : log.snapshot())).isTrue();
     }
 
     /**
-     * Assert that the log contains at least one message.
+     * Assert that the log contains at least one message. Evicted messages count, too.
      */
     public void assertLogIsNotEmpty() {
-        assertThat(logEntries).as("Encountered empty log").isNotEmpty();
+        assertThat(counts.total() == 0).as("Encountered empty log").isFalse();
     }
 
     private void internalAppend(ILoggingEvent event) {
-        var logLevel = event.getLevel();
-        var logMsg = event.getFormattedMessage();
-        synchronized (logEntries) {
-            logEntries.add(new LogEntry(logLevel, logMsg));
+        if (event.getLevel().isGreaterOrEqual(minLevel) && isOwnEvent(event)) {
+            counts.increment(event.getLevel(), event.getLoggerName());
+            if (countOnly) {
+                return;
+            }
+            var entry = LogEntry.of(event);
+            logEntries.add(entry);
+            if (!waiters.isEmpty()) {
+                for (var waiter : waiters) {
+                    waiter.offer(entry);
+                }
+            }
         }
     }
 
+    private boolean isOwnEvent(ILoggingEvent event) {
+        if (!isolated) {
+            return true;
+        }
+        var currentScope = scope;
+        return currentScope != null && currentScope.owns(event);
+    }
+
+    private void checkMessagesCaptured() {
+        if (countOnly) {
+            throw new IllegalStateException("Messages are counted only, see countOnly().");
+        }
+    }
+
+    private void checkNotSpillingToDisk() {
+        if (spillToDisk) {
+            throw new IllegalStateException("Keeping the latest entries only cannot be combined with spilling to disk.");
+        }
+    }
+
+    private CapturedLog newLog() {
+        if (spillToDisk) {
+            return new SpilledLog(SpilledLog.DEFAULT_SEGMENT_SIZE);
+        }
+        if (maxEntries == 0 && maxBytes == 0) {
+            return new PartitionedLog();
+        }
+
+        var capacity = maxEntries;
+        if (capacity == 0) {
+            capacity = (int) Math.min(maxBytes / LogEntry.MIN_ESTIMATED_BYTES + 1, MAX_CAPACITY);
+        }
+        return new BoundedLog(capacity, maxBytes == 0 ? Long.MAX_VALUE : maxBytes);
+    }
+
+    private static boolean isAncestor(String ancestor, String loggerName) {
+        return !ancestor.equals(loggerName)
+            && (ancestor.equals(LOGBACK_ROOT_LOGGER_NAME) || loggerName.startsWith(ancestor + ".") || loggerName.startsWith(ancestor + "$"));
+    }
+
+    private static String evictedHint(CapturedLog log, Level logLevel) {
+        var evicted = log.evictedCount(logLevel);
+        return evicted == 0 ? "" : " (evicted entries of this level: " + evicted + ")";
+    }
+
     @Override
     public void beforeEach(ExtensionContext context) throws Exception {
         var logCtx = (LoggerContext) LoggerFactory.getILoggerFactory();
         setContext(logCtx);
-        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LOGBACK_ROOT_LOGGER_NAME)).addAppender(this);
+        // Started over, so that rates do not include the time between tests.
+        counts = new LogCounts();
+        if (isolated) {
+            scope = CaptureScope.enter(context.getUniqueId());
+        }
+        for (var loggerName : loggerNames) {
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(loggerName)).addAppender(this);
+        }
     }
 
     @Override
     public void afterEach(ExtensionContext context) throws Exception {
-        synchronized (logEntries) {
-            logEntries.clear();
+        var log = logEntries;
+        logEntries = newLog();
+        counts = new LogCounts();
+        for (var loggerName : loggerNames) {
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(loggerName)).detachAppender(this);
         }
-        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LOGBACK_ROOT_LOGGER_NAME)).detachAppender(this);
-    }
-
-    private static final class LogEntry {
-        final Level logLevel;
-        final String logMsg;
-
-        public LogEntry(Level logLevel, String logMsg) {
-            this.logLevel = logLevel;
-            this.logMsg = logMsg;
+        log.close();
+        var currentScope = scope;
+        if (currentScope != null) {
+            scope = null;
+            currentScope.exit();
         }
     }
 }
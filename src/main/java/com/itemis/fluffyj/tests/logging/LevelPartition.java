@@ -0,0 +1,178 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * The captured entries of a single level.
+ * </p>
+ * <p>
+ * Looking for a message part is backed by a trigram index: Each trigram of each message is hashed
+ * into one of a fixed number of buckets. A bucket lists the positions of all entries with a trigram
+ * that falls into it. Only the entries of the bucket with the fewest entries among the buckets of
+ * the searched text's trigrams need to be checked. Hash collisions merely add candidates that are
+ * ruled out by the check.
+ * </p>
+ * <p>
+ * Building the index requires formatting the messages. Hence, it is built with the first lookup,
+ * not when entries are added, and is brought up to date with each lookup after that. Adding entries
+ * never waits for lookups.
+ * </p>
+ */
+final class LevelPartition {
+
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int BUCKET_BITS = 16;
+    private static final int INITIAL_POSTINGS_CAPACITY = 4;
+
+    private final ConcurrentAppendLog<LogEntry> entries = new ConcurrentAppendLog<>();
+
+    // Guarded by this.
+    private int[][] postings;
+    private int[] postingCounts;
+    private int indexedCount;
+
+    /**
+     * @param entry - Add this entry to the partition.
+     */
+    void add(LogEntry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * @return {@code true} if no entry has been added so far.
+     */
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * @return A copy of the entries added so far.
+     */
+    List<LogEntry> snapshot() {
+        return entries.snapshot();
+    }
+
+    /**
+     * @param logMsg - Look for this message part.
+     * @return {@code true} if the message of at least one entry contains {@code logMsg}.
+     */
+    synchronized boolean containsMessage(String logMsg) {
+        requireNonNull(logMsg, "logMsg");
+
+        if (logMsg.length() < TRIGRAM_LENGTH) {
+            return scanFrom(0, logMsg);
+        }
+
+        updateIndex();
+        var candidates = fewestCandidates(logMsg);
+        if (candidates >= 0) {
+            var positions = postings[candidates];
+            for (int i = 0; i < postingCounts[candidates]; i++) {
+                if (entries.get(positions[i]).logMsg().contains(logMsg)) {
+                    return true;
+                }
+            }
+        }
+        // Entries that were still being added when the index was updated.
+        return scanFrom(indexedCount, logMsg);
+    }
+
+    /**
+     * Look for all provided patterns with a single pass over the entries.
+     *
+     * @param matcher - Look for the patterns of this matcher.
+     * @param found - Indexed by pattern. Entries of patterns that are found are set to {@code true}.
+     * @param missing - The number of patterns that are not marked as found in {@code found}.
+     * @return The number of patterns that are still not found.
+     */
+    int markFound(MultiPatternMatcher matcher, boolean[] found, int missing) {
+        var size = entries.size();
+        for (long i = 0; i < size && missing > 0; i++) {
+            var entry = entries.get(i);
+            if (entry != null) {
+                missing -= matcher.markFound(entry.logMsg(), found);
+            }
+        }
+        return missing;
+    }
+
+    // Must hold this.
+    private boolean scanFrom(long start, String logMsg) {
+        var size = entries.size();
+        for (long i = start; i < size; i++) {
+            var entry = entries.get(i);
+            if (entry != null && entry.logMsg().contains(logMsg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Must hold this.
+    private void updateIndex() {
+        if (postings == null) {
+            postings = new int[1 << BUCKET_BITS][];
+            postingCounts = new int[1 << BUCKET_BITS];
+        }
+
+        var size = Math.min(entries.size(), Integer.MAX_VALUE);
+        while (indexedCount < size) {
+            var entry = entries.get(indexedCount);
+            if (entry == null) {
+                // Still being added. Entries from here on are scanned instead.
+                return;
+            }
+            var logMsg = entry.logMsg();
+            for (int i = 0; i + TRIGRAM_LENGTH <= logMsg.length(); i++) {
+                addPosting(bucketOf(logMsg, i), indexedCount);
+            }
+            indexedCount++;
+        }
+    }
+
+    // Must hold this.
+    private void addPosting(int bucket, int position) {
+        var count = postingCounts[bucket];
+        var positions = postings[bucket];
+        if (count > 0 && positions[count - 1] == position) {
+            // The same trigram, or one of the same bucket, occurs more than once in the message.
+            return;
+        }
+        if (positions == null) {
+            positions = new int[INITIAL_POSTINGS_CAPACITY];
+            postings[bucket] = positions;
+        } else if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+            postings[bucket] = positions;
+        }
+        positions[count] = position;
+        postingCounts[bucket] = count + 1;
+    }
+
+    // Must hold this. Returns -1 if some trigram of the provided text is not contained in any message.
+    private int fewestCandidates(String logMsg) {
+        var result = -1;
+        for (int i = 0; i + TRIGRAM_LENGTH <= logMsg.length(); i++) {
+            var bucket = bucketOf(logMsg, i);
+            if (postingCounts[bucket] == 0) {
+                return -1;
+            }
+            if (result < 0 || postingCounts[bucket] < postingCounts[result]) {
+                result = bucket;
+            }
+        }
+        return result;
+    }
+
+    private static int bucketOf(String text, int start) {
+        var hash = text.charAt(start) * 961 + text.charAt(start + 1) * 31 + text.charAt(start + 2);
+        // Spread the bits, so that trigrams of similar characters do not end up in neighbouring
+        // buckets only.
+        hash *= 0x9E3779B9;
+        return hash >>> (Integer.SIZE - BUCKET_BITS);
+    }
+}
@@ -0,0 +1,91 @@
+package com.itemis.fluffyj.tests.logging;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * <p>
+ * Counts the events captured by a {@link FluffyTestAppender} during a single test, by level and
+ * logger name. Messages are not kept.
+ * </p>
+ * <p>
+ * Counting an event looks up its counter without taking a lock and increments a {@link LongAdder},
+ * so that threads logging at the same time do not contend for a single counter.
+ * </p>
+ */
+final class LogCounts {
+
+    private final ConcurrentMap<Level, ConcurrentMap<String, LongAdder>> countsByLevel = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param logLevel - Level of the event.
+     * @param loggerName - Name of the logger the event has been logged with. {@code null} is counted
+     *        like an empty name.
+     */
+    void increment(Level logLevel, String loggerName) {
+        var key = loggerName == null ? "" : loggerName;
+        var countsByLogger = countsByLevel.get(logLevel);
+        if (countsByLogger == null) {
+            countsByLogger = countsByLevel.computeIfAbsent(logLevel, unused -> new ConcurrentHashMap<>());
+        }
+        var count = countsByLogger.get(key);
+        if (count == null) {
+            count = countsByLogger.computeIfAbsent(key, unused -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * @return The number of events with the provided {@code logLevel}.
+     */
+    long count(Level logLevel) {
+        return count(logLevel, loggerName -> true);
+    }
+
+    /**
+     * @param loggerFilter - Count the events of loggers whose name matches this filter only.
+     * @return The number of events with the provided {@code logLevel}.
+     */
+    long count(Level logLevel, Predicate<String> loggerFilter) {
+        var countsByLogger = countsByLevel.get(logLevel);
+        if (countsByLogger == null) {
+            return 0;
+        }
+
+        var result = 0L;
+        for (var entry : countsByLogger.entrySet()) {
+            if (loggerFilter.test(entry.getKey())) {
+                result += entry.getValue().sum();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of events of all levels.
+     */
+    long total() {
+        return countsByLevel.keySet().stream().mapToLong(this::count).sum();
+    }
+
+    /**
+     * @return Nanoseconds passed since counting started.
+     */
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        var result = new TreeMap<String, Long>();
+        countsByLevel.forEach((logLevel, countsByLogger) -> countsByLogger
+            .forEach((loggerName, count) -> result.put("[" + logLevel + "] " + loggerName, count.sum())));
+        return result.toString();
+    }
+}
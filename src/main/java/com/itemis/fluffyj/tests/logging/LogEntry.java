@@ -0,0 +1,169 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Objects.requireNonNull;
+
+import org.slf4j.helpers.MessageFormatter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Set;
+import java.util.UUID;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * <p>
+ * A log event as captured by {@link FluffyTestAppender}.
+ * </p>
+ * <p>
+ * Most captured messages are never asserted on. Hence, the message is kept as its pattern and
+ * arguments and is formatted the first time it is needed only. The formatted message is cached
+ * afterwards.
+ * </p>
+ * <p>
+ * Formatting later must not change the outcome, though. Thus, events with arguments that may
+ * change after logging, e. g. collections or other mutable objects, are formatted right away.
+ * </p>
+ * <p>
+ * Logs that keep entries apart, e. g. per level, assign each entry a sequence number when it is
+ * added, so that they are able to restore the order in which entries have been captured.
+ * </p>
+ */
+final class LogEntry {
+
+    private static final Set<Class<?>> IMMUTABLE_ARGUMENT_TYPES = Set.of(String.class, Boolean.class, Character.class, Byte.class,
+        Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, UUID.class);
+
+    // Rough sizes in bytes on a 64 bit JVM, used to estimate the heap retained by an entry.
+    private static final int ENTRY_BYTES = 40;
+    private static final int STRING_BYTES = 40;
+    private static final int ARRAY_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int BOXED_VALUE_BYTES = 24;
+
+    /**
+     * No entry is estimated to retain fewer bytes than this.
+     */
+    static final int MIN_ESTIMATED_BYTES = ENTRY_BYTES + STRING_BYTES;
+
+    private final Level logLevel;
+    private final String pattern;
+    private final Object[] arguments;
+    private final int estimatedBytes;
+
+    // Formatting the same message twice by accident does no harm.
+    private volatile String logMsg;
+    // Written by the log the entry is added to, before the entry is published to other threads.
+    // Volatile, so that the write is atomic on any JVM.
+    private volatile long sequence;
+
+    private LogEntry(Level logLevel, String pattern, Object[] arguments, String logMsg) {
+        this.logLevel = logLevel;
+        this.pattern = pattern;
+        this.arguments = arguments;
+        this.logMsg = logMsg;
+        this.estimatedBytes = estimateBytes(pattern, arguments, logMsg);
+    }
+
+    /**
+     * @param event - Capture this event.
+     * @return A new entry holding level and message of the provided {@code event}.
+     */
+    static LogEntry of(ILoggingEvent event) {
+        requireNonNull(event, "event");
+
+        var pattern = event.getMessage();
+        var arguments = event.getArgumentArray();
+        if (pattern == null || !canFormatLater(arguments)) {
+            return new LogEntry(event.getLevel(), null, null, event.getFormattedMessage());
+        }
+        if (arguments == null || arguments.length == 0) {
+            return new LogEntry(event.getLevel(), null, null, pattern);
+        }
+        return new LogEntry(event.getLevel(), pattern, arguments, null);
+    }
+
+    /**
+     * @param logLevel - Level of the entry.
+     * @param logMsg - The formatted message of the entry.
+     * @return A new entry with the provided level and message.
+     */
+    static LogEntry of(Level logLevel, String logMsg) {
+        return new LogEntry(requireNonNull(logLevel, "logLevel"), null, null, requireNonNull(logMsg, "logMsg"));
+    }
+
+    /**
+     * @return The level the message has been logged with.
+     */
+    Level logLevel() {
+        return logLevel;
+    }
+
+    /**
+     * @return The formatted message.
+     */
+    String logMsg() {
+        var result = logMsg;
+        if (result == null) {
+            result = MessageFormatter.arrayFormat(pattern, arguments).getMessage();
+            logMsg = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Tells the order in which entries have been added to their log. Greater for later
+     *         entries. Zero if the log does not assign sequence numbers.
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @param sequence - The position of this entry among the entries of its log. Must be set before
+     *        the entry is visible to other threads.
+     */
+    void sequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return A rough estimate of the heap retained by this entry in bytes. Does not change when the
+     *         message is formatted lazily.
+     */
+    int estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + logLevel + "] " + logMsg();
+    }
+
+    private static int estimateBytes(String pattern, Object[] arguments, String logMsg) {
+        var result = ENTRY_BYTES + estimateBytes(pattern) + estimateBytes(logMsg);
+        if (arguments != null) {
+            result += ARRAY_BYTES + arguments.length * REFERENCE_BYTES;
+            for (var argument : arguments) {
+                result += argument instanceof String ? estimateBytes((String) argument) : BOXED_VALUE_BYTES;
+            }
+        }
+        return result;
+    }
+
+    private static int estimateBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    private static boolean canFormatLater(Object[] arguments) {
+        if (arguments != null) {
+            for (var argument : arguments) {
+                if (argument != null && !(argument instanceof Enum) && !IMMUTABLE_ARGUMENT_TYPES.contains(argument.getClass())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
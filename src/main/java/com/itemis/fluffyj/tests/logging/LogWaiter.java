@@ -0,0 +1,47 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static com.itemis.fluffyj.concurrency.FluffyLatches.waitOnLatch;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * A test thread waiting for a message to be logged. Entries are offered to the waiter by the
+ * threads that log them, so that the test thread is woken up as soon as the message is there.
+ */
+final class LogWaiter {
+
+    private final Level logLevel;
+    private final String logMsg;
+    private final CountDownLatch found = new CountDownLatch(1);
+
+    /**
+     * @param logLevel - Wait for a message with this level.
+     * @param logMsg - Wait for a message containing this part.
+     */
+    LogWaiter(Level logLevel, String logMsg) {
+        this.logLevel = logLevel;
+        this.logMsg = logMsg;
+    }
+
+    /**
+     * Wake up the waiting thread if the provided {@code entry} is the one it waits for.
+     */
+    void offer(LogEntry entry) {
+        if (found.getCount() > 0 && entry.logLevel().equals(logLevel) && entry.logMsg().contains(logMsg)) {
+            found.countDown();
+        }
+    }
+
+    /**
+     * @param timeout - Wait for as long as this.
+     * @return {@code true} if a matching entry has been offered in time.
+     * @throws RuntimeException If the waiting thread is interrupted. The interrupt flag is
+     *         preserved.
+     */
+    boolean await(Duration timeout) {
+        return waitOnLatch(found, timeout);
+    }
+}
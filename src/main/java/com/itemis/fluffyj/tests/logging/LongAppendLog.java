@@ -0,0 +1,79 @@
+package com.itemis.fluffyj.tests.logging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Like {@link ConcurrentAppendLog} but for non negative {@code long} values, so that large numbers
+ * of values do not need to be boxed.
+ * </p>
+ * <p>
+ * Values are stored incremented by one, so that zero tells that a value has not been written yet.
+ * </p>
+ */
+final class LongAppendLog {
+
+    private static final int CHUNK_SIZE = ConcurrentAppendLog.CHUNK_SIZE;
+    private static final int CHUNK_BITS = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final Object chunkLock = new Object();
+
+    // Replaced as a whole whenever a chunk is added, so that readers never see a partially
+    // populated directory.
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * @param value - Add this value to the end of the log. Must not be negative.
+     */
+    void add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative.");
+        }
+
+        var index = reserved.getAndIncrement();
+        var chunkIndex = (int) (index >>> CHUNK_BITS);
+        var directory = chunks;
+        var chunk = chunkIndex < directory.length ? directory[chunkIndex] : allocateChunk(chunkIndex);
+        chunk.lazySet((int) (index & CHUNK_MASK), value + 1);
+    }
+
+    /**
+     * @param index - Index of a value, starting at zero.
+     * @return The value with the provided {@code index}, -1 if it has not been written yet or if
+     *         {@code index} is not less than {@link #size()}.
+     */
+    long get(long index) {
+        var directory = chunks;
+        var chunkIndex = index >>> CHUNK_BITS;
+        if (index < 0 || chunkIndex >= directory.length) {
+            return -1;
+        }
+        return directory[(int) chunkIndex].get((int) (index & CHUNK_MASK)) - 1;
+    }
+
+    /**
+     * @return The number of values whose {@code add} has at least started.
+     */
+    long size() {
+        return reserved.get();
+    }
+
+    private AtomicLongArray allocateChunk(int chunkIndex) {
+        synchronized (chunkLock) {
+            var directory = chunks;
+            if (chunkIndex >= directory.length) {
+                var grown = Arrays.copyOf(directory, Math.max(chunkIndex + 1, directory.length * 2));
+                for (int i = directory.length; i < grown.length; i++) {
+                    grown[i] = new AtomicLongArray(CHUNK_SIZE);
+                }
+                chunks = grown;
+                directory = grown;
+            }
+            return directory[chunkIndex];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Finds any number of patterns in a text with a single pass over the text by means of the
+ * Aho-Corasick algorithm.
+ * </p>
+ * <p>
+ * The patterns are arranged in a trie. Each node has a failure link to the node of the longest
+ * proper suffix of its path that is also in the trie and an output link to the nearest node on the
+ * failure path that ends a pattern. Thus, scanning a text takes time linear in its length plus the
+ * number of matches.
+ * </p>
+ * <p>
+ * A matcher created by {@link #forUtf8(List)} scans UTF-8 encoded text without decoding it. Since
+ * UTF-8 is self synchronizing, an encoding contains the encoding of a pattern exactly if the text
+ * contains the pattern.
+ * </p>
+ * <p>
+ * Immutable and thread safe.
+ * </p>
+ */
+final class MultiPatternMatcher {
+
+    private final Node root = new Node();
+    private final int patternCount;
+
+    /**
+     * @param patterns - The patterns to look for. Must not contain {@code null}. The empty pattern
+     *        is contained in any text.
+     */
+    MultiPatternMatcher(List<String> patterns) {
+        requireNonNull(patterns, "patterns");
+
+        patternCount = patterns.size();
+        for (int i = 0; i < patternCount; i++) {
+            var node = root;
+            var pattern = requireNonNull(patterns.get(i), "pattern");
+            for (int j = 0; j < pattern.length(); j++) {
+                node = node.children.computeIfAbsent(pattern.charAt(j), unused -> new Node());
+            }
+            node.patternIndices.add(i);
+        }
+        linkNodes();
+    }
+
+    /**
+     * @param patterns - The patterns to look for. Must not contain {@code null}.
+     * @return A matcher that looks for the UTF-8 encodings of the provided {@code patterns}. Scan
+     *         text with {@link #markFound(ByteBuffer, int, int, boolean[])} only.
+     */
+    static MultiPatternMatcher forUtf8(List<String> patterns) {
+        requireNonNull(patterns, "patterns");
+
+        var encodedPatterns = new ArrayList<String>(patterns.size());
+        for (var pattern : patterns) {
+            // Turns each byte of the encoding into a char of the same value.
+            encodedPatterns.add(new String(requireNonNull(pattern, "pattern").getBytes(UTF_8), ISO_8859_1));
+        }
+        return new MultiPatternMatcher(encodedPatterns);
+    }
+
+    /**
+     * @return The number of patterns.
+     */
+    int patternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Mark all patterns contained in the provided {@code text} as found.
+     *
+     * @param text - Look for the patterns in this text.
+     * @param found - Indexed by pattern. Entries of patterns contained in {@code text} are set to
+     *        {@code true}.
+     * @return The number of patterns that were not marked as found before.
+     */
+    int markFound(String text, boolean[] found) {
+        var result = markOutputs(root, found);
+        var node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            result += markOutputs(node, found);
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #markFound(String, boolean[])} but for UTF-8 encoded text. Requires a matcher
+     * created by {@link #forUtf8(List)}.
+     *
+     * @param text - Look for the patterns in the bytes of this buffer.
+     * @param start - Index of the first byte of the text in {@code text}.
+     * @param length - Number of bytes of the text.
+     * @param found - Indexed by pattern. Entries of patterns contained in the text are set to
+     *        {@code true}.
+     * @return The number of patterns that were not marked as found before.
+     */
+    int markFound(ByteBuffer text, int start, int length, boolean[] found) {
+        var result = markOutputs(root, found);
+        var node = root;
+        for (int i = start; i < start + length; i++) {
+            node = next(node, (char) (text.get(i) & 0xFF));
+            result += markOutputs(node, found);
+        }
+        return result;
+    }
+
+    private Node next(Node node, char c) {
+        var current = node;
+        while (current != root && !current.children.containsKey(c)) {
+            current = current.failure;
+        }
+        return current.children.getOrDefault(c, root);
+    }
+
+    private static int markOutputs(Node node, boolean[] found) {
+        var result = 0;
+        for (var output = node.patternIndices.isEmpty() ? node.output : node; output != null; output = output.output) {
+            for (var patternIndex : output.patternIndices) {
+                if (!found[patternIndex]) {
+                    found[patternIndex] = true;
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Breadth first, so that the failure target of a node is always linked before the node itself.
+    private void linkNodes() {
+        var queue = new ArrayDeque<Node>();
+        for (var child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            var node = queue.poll();
+            for (var entry : node.children.entrySet()) {
+                var c = entry.getKey();
+                var child = entry.getValue();
+                var failure = node.failure;
+                while (failure != root && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                child.failure = failure.children.getOrDefault(c, root);
+                child.output = child.failure.patternIndices.isEmpty() ? child.failure.output : child.failure;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> patternIndices = new ArrayList<>();
+        private Node failure;
+        // Nearest node on the failure path, excluding this node, that ends a pattern.
+        private Node output;
+    }
+}
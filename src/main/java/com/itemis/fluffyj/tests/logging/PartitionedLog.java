@@ -0,0 +1,76 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.util.Comparator.comparingLong;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * <p>
+ * A {@link CapturedLog} that keeps all entries, partitioned by level.
+ * </p>
+ * <p>
+ * Each entry is assigned the next sequence number of this log when it is added, so that a
+ * {@link #snapshot()} restores the order across levels. All threads that log increment the same
+ * counter. Thus, it is kept on a cache line of its own, so that it does not slow down reading the
+ * fields next to it.
+ * </p>
+ */
+final class PartitionedLog implements CapturedLog {
+
+    // The counter is surrounded by this many unused longs on either side.
+    private static final int SEQUENCE_PADDING = 7;
+
+    private final ConcurrentMap<Level, LevelPartition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLongArray sequence = new AtomicLongArray(2 * SEQUENCE_PADDING + 1);
+
+    @Override
+    public void add(LogEntry entry) {
+        entry.sequence(sequence.getAndIncrement(SEQUENCE_PADDING));
+        var partition = partitions.get(entry.logLevel());
+        if (partition == null) {
+            partition = partitions.computeIfAbsent(entry.logLevel(), unused -> new LevelPartition());
+        }
+        partition.add(entry);
+    }
+
+    @Override
+    public boolean contains(Level logLevel, String logMsg) {
+        var partition = partitions.get(logLevel);
+        return partition != null && partition.containsMessage(logMsg);
+    }
+
+    @Override
+    public List<String> missing(Level logLevel, List<String> logMsgs) {
+        var found = new boolean[logMsgs.size()];
+        var partition = partitions.get(logLevel);
+        if (partition != null && !partition.isEmpty()) {
+            var matcher = new MultiPatternMatcher(logMsgs);
+            partition.markFound(matcher, found, matcher.patternCount());
+        }
+        return CapturedLog.notFound(logMsgs, found);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return partitions.values().stream().allMatch(LevelPartition::isEmpty);
+    }
+
+    @Override
+    public List<LogEntry> snapshot() {
+        var result = new ArrayList<LogEntry>();
+        partitions.values().forEach(partition -> result.addAll(partition.snapshot()));
+        result.sort(comparingLong(LogEntry::sequence));
+        return result;
+    }
+
+    @Override
+    public long evictedCount(Level logLevel) {
+        return 0;
+    }
+}
@@ -0,0 +1,325 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * <p>
+ * A {@link CapturedLog} that writes the messages to a memory mapped temporary file instead of
+ * keeping them on the heap. Only the offsets of the messages are kept in memory, one index per
+ * level.
+ * </p>
+ * <p>
+ * The file is mapped in segments of equal size. Each message is stored as a record consisting of
+ * the length of its UTF-8 encoding as an {@code int} followed by the encoding itself. Records do
+ * not span segments. Messages whose encoding does not fit into a segment are truncated at the last
+ * character that fits.
+ * </p>
+ * <p>
+ * Appending reserves space for the record by means of a compare and set, writes the record
+ * and publishes its offset to the index of its level afterwards. Thus, readers never see partially
+ * written records and appending threads do not wait for each other, except when a segment needs to
+ * be mapped.
+ * </p>
+ * <p>
+ * Looking for message parts compares the UTF-8 encoding of the parts to the records right in the
+ * mapped file, without decoding them. Since UTF-8 is self synchronizing, an encoding contains the
+ * encoding of a part exactly if the message contains the part.
+ * </p>
+ * <p>
+ * The file is created with the first message and deleted on {@link #close()}. Lookups fail after
+ * that. Failing to write the file must not break the code under test that is logging. Hence, the
+ * failure is recorded and reported by the next lookup instead.
+ * </p>
+ */
+final class SpilledLog implements CapturedLog {
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final int segmentSize;
+    private final AtomicLong writePosition = new AtomicLong();
+    private final ConcurrentMap<Level, LongAppendLog> offsetsByLevel = new ConcurrentHashMap<>();
+    private final Object segmentLock = new Object();
+
+    // Replaced as a whole whenever a segment is mapped, so that readers never see a partially
+    // populated directory.
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // Guarded by segmentLock.
+    private Path file;
+    private FileChannel channel;
+
+    /**
+     * @param segmentSize - Size of each mapped segment in bytes. Must be large enough for at least
+     *        the length of a record.
+     */
+    SpilledLog(int segmentSize) {
+        if (segmentSize <= LENGTH_BYTES) {
+            throw new IllegalArgumentException("segmentSize must be greater than " + LENGTH_BYTES + ".");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public void add(LogEntry entry) {
+        if (closed || failure != null) {
+            return;
+        }
+
+        var encoded = entry.logMsg().getBytes(UTF_8);
+        var length = truncatedLength(encoded, segmentSize - LENGTH_BYTES);
+        var recordSize = LENGTH_BYTES + length;
+        long start;
+        while (true) {
+            var position = writePosition.get();
+            var offsetInSegment = position % segmentSize;
+            // A record that does not fit into the rest of a segment is written to the next one.
+            // The rest is left unused. It is never read, because records are found via the index
+            // only.
+            start = offsetInSegment + recordSize > segmentSize ? position - offsetInSegment + segmentSize : position;
+            if (writePosition.compareAndSet(position, start + recordSize)) {
+                break;
+            }
+        }
+
+        var segment = segment((int) (start / segmentSize));
+        if (segment == null) {
+            return;
+        }
+        var offset = (int) (start % segmentSize);
+        segment.putInt(offset, length);
+        var target = segment.duplicate();
+        target.position(offset + LENGTH_BYTES);
+        target.put(encoded, 0, length);
+
+        offsetsByLevel.computeIfAbsent(entry.logLevel(), unused -> new LongAppendLog()).add(start);
+    }
+
+    @Override
+    public boolean contains(Level logLevel, String logMsg) {
+        checkReadable();
+        var offsets = offsetsByLevel.get(logLevel);
+        if (offsets == null) {
+            return false;
+        }
+
+        var part = logMsg.getBytes(UTF_8);
+        var size = offsets.size();
+        for (long i = 0; i < size; i++) {
+            var start = offsets.get(i);
+            if (start >= 0) {
+                var segment = segmentOf(start);
+                var offset = (int) (start % segmentSize);
+                if (containsBytes(segment, offset + LENGTH_BYTES, segment.getInt(offset), part)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> missing(Level logLevel, List<String> logMsgs) {
+        checkReadable();
+        var found = new boolean[logMsgs.size()];
+        var offsets = offsetsByLevel.get(logLevel);
+        if (offsets != null) {
+            var matcher = MultiPatternMatcher.forUtf8(logMsgs);
+            var missing = matcher.patternCount();
+            var size = offsets.size();
+            for (long i = 0; i < size && missing > 0; i++) {
+                var start = offsets.get(i);
+                if (start >= 0) {
+                    var segment = segmentOf(start);
+                    var offset = (int) (start % segmentSize);
+                    missing -= matcher.markFound(segment, offset + LENGTH_BYTES, segment.getInt(offset), found);
+                }
+            }
+        }
+        return CapturedLog.notFound(logMsgs, found);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return offsetsByLevel.values().stream().allMatch(offsets -> offsets.size() == 0);
+    }
+
+    @Override
+    public List<LogEntry> snapshot() {
+        return latest(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LogEntry> latest(int maxCount) {
+        checkReadable();
+        // Space for records is reserved in the order in which messages arrive, regardless of their
+        // level. Thus, the offsets of the records tell the order of the messages.
+        var records = new ArrayList<Map.Entry<Long, Level>>();
+        offsetsByLevel.forEach((logLevel, offsets) -> {
+            var size = offsets.size();
+            for (long i = Math.max(0, size - maxCount); i < size; i++) {
+                var start = offsets.get(i);
+                if (start >= 0) {
+                    records.add(Map.entry(start, logLevel));
+                }
+            }
+        });
+        records.sort(Map.Entry.comparingByKey());
+
+        var result = new ArrayList<LogEntry>();
+        for (var record : records.subList(Math.max(0, records.size() - maxCount), records.size())) {
+            result.add(LogEntry.of(record.getValue(), read(record.getKey())));
+        }
+        return result;
+    }
+
+    @Override
+    public long evictedCount(Level logLevel) {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        synchronized (segmentLock) {
+            closed = true;
+            segments = new MappedByteBuffer[0];
+            if (file != null) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Some platforms refuse to delete files that are still mapped. Mappings are
+                    // released on garbage collection only.
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The temporary file, {@code null} if it has not been created yet.
+     */
+    Path file() {
+        synchronized (segmentLock) {
+            return file;
+        }
+    }
+
+    private String read(long start) {
+        var segment = segmentOf(start);
+        var offset = (int) (start % segmentSize);
+        var encoded = new byte[segment.getInt(offset)];
+        var source = segment.duplicate();
+        source.position(offset + LENGTH_BYTES);
+        source.get(encoded);
+        return new String(encoded, UTF_8);
+    }
+
+    private MappedByteBuffer segment(int segmentIndex) {
+        var directory = segments;
+        if (segmentIndex < directory.length) {
+            return directory[segmentIndex];
+        }
+
+        synchronized (segmentLock) {
+            if (closed || failure != null) {
+                return null;
+            }
+            try {
+                if (file == null) {
+                    file = Files.createTempFile("fluffyj-log", ".bin");
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                directory = segments;
+                if (segmentIndex >= directory.length) {
+                    var grown = Arrays.copyOf(directory, segmentIndex + 1);
+                    for (int i = directory.length; i < grown.length; i++) {
+                        grown[i] = channel.map(MapMode.READ_WRITE, (long) i * segmentSize, segmentSize);
+                    }
+                    segments = grown;
+                    directory = grown;
+                }
+                return directory[segmentIndex];
+            } catch (IOException e) {
+                failure = e;
+                return null;
+            }
+        }
+    }
+
+    // Must be called after the offset of the record has been read, because the segment may have
+    // been mapped after the last read.
+    private MappedByteBuffer segmentOf(long start) {
+        var directory = segments;
+        // Checked after reading the directory, because close() marks the log as closed before it
+        // empties the directory.
+        checkOpen();
+        return directory[(int) (start / segmentSize)];
+    }
+
+    private void checkReadable() {
+        checkOpen();
+        checkFailure();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The log has been closed. Its file has been deleted.");
+        }
+    }
+
+    private void checkFailure() {
+        var currentFailure = failure;
+        if (currentFailure != null) {
+            throw new UncheckedIOException("Could not spill the log to disk. Messages have been lost.", currentFailure);
+        }
+    }
+
+    // Cuts off continuation bytes of a character that would be split, so that the truncated
+    // encoding is valid UTF-8.
+    private static int truncatedLength(byte[] encoded, int maxLength) {
+        if (encoded.length <= maxLength) {
+            return encoded.length;
+        }
+        var result = maxLength;
+        while (result > 0 && (encoded[result] & 0xC0) == 0x80) {
+            result--;
+        }
+        return result;
+    }
+
+    private static boolean containsBytes(ByteBuffer segment, int start, int length, byte[] part) {
+        var last = start + length - part.length;
+        for (int i = start; i <= last; i++) {
+            var matches = true;
+            for (int j = 0; j < part.length && matches; j++) {
+                matches = segment.get(i + j) == part[j];
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Access to virtual threads.
+ * </p>
+ * <p>
+ * This is the variant for Java 21 and newer.
+ * </p>
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    /**
+     * @return {@code true} if the running JVM supports virtual threads, {@code false} otherwise.
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * @param namePrefix - Names of created threads start with this prefix.
+     * @return A {@link ThreadFactory} that creates virtual threads.
+     */
+    static ThreadFactory factory(String namePrefix) {
+        return Thread.ofVirtual().name(namePrefix + "-", 0).factory();
+    }
+}
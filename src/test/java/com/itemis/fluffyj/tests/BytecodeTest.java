@@ -0,0 +1,74 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertIsStaticHelper;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class BytecodeTest {
+
+    private static final int ALOAD_0 = 0x2A;
+    private static final int DUP = 0x59;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int ICONST_0 = 0x03;
+    private static final int ILOAD = 0x15;
+    private static final int TABLESWITCH = 0xAA;
+    private static final int LOOKUPSWITCH = 0xAB;
+    private static final int WIDE = 0xC4;
+    private static final int IINC = 0x84;
+    private static final int RETURN = 0xB1;
+
+    @Test
+    public void is_static_helper() {
+        assertIsStaticHelper(Bytecode.class);
+    }
+
+    @Test
+    public void walks_instructions_with_operands() {
+        var offsets = walk(ALOAD_0, Bytecode.NEW, 0, 7, DUP, INVOKESPECIAL, 0, 9, Bytecode.ATHROW);
+
+        assertThat(offsets).containsExactly(ALOAD_0, 0, Bytecode.NEW, 1, DUP, 4, INVOKESPECIAL, 5, Bytecode.ATHROW, 8);
+    }
+
+    @Test
+    public void walks_switches_with_padding() {
+        // tableswitch at 1: padding to 4, default, low 0, high 1, two offsets
+        var tableSwitch = walk(ICONST_0, TABLESWITCH, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, RETURN);
+        // lookupswitch at 0: padding to 4, default, one pair
+        var lookupSwitch = walk(LOOKUPSWITCH, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, RETURN);
+
+        assertThat(tableSwitch).containsExactly(ICONST_0, 0, TABLESWITCH, 1, RETURN, 24);
+        assertThat(lookupSwitch).containsExactly(LOOKUPSWITCH, 0, RETURN, 20);
+    }
+
+    @Test
+    public void walks_wide_instructions() {
+        var offsets = walk(WIDE, ILOAD, 1, 0, WIDE, IINC, 1, 0, 0, 1, RETURN);
+
+        assertThat(offsets).containsExactly(WIDE, 0, WIDE, 4, RETURN, 10);
+    }
+
+    @Test
+    public void rejects_truncated_instructions() {
+        assertThatThrownBy(() -> walk(ALOAD_0, Bytecode.NEW, 0)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Encountered truncated instruction.");
+    }
+
+    // Pairs of opcode and offset.
+    private static ArrayList<Integer> walk(int... code) {
+        var bytes = new byte[code.length];
+        for (int i = 0; i < code.length; i++) {
+            bytes[i] = (byte) code[i];
+        }
+        var result = new ArrayList<Integer>();
+        Bytecode.forEachInstruction(ByteBuffer.wrap(bytes), (opcode, offset) -> {
+            result.add(opcode);
+            result.add(offset);
+        });
+        return result;
+    }
+}
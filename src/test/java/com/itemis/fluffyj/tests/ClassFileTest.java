@@ -0,0 +1,106 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.ClassFile.ACC_ENUM;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_FINAL;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_PRIVATE;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_PUBLIC;
+import static com.itemis.fluffyj.tests.ClassFile.ACC_STATIC;
+import static com.itemis.fluffyj.tests.ClassFile.CONSTRUCTOR_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+import com.itemis.fluffyj.tests.scan.valid.SerializableEnum;
+import com.itemis.fluffyj.tests.scan.valid.SerializableWithId;
+import com.itemis.fluffyj.tests.scan.valid.ValidStaticHelper;
+
+public class ClassFileTest {
+
+    @Test
+    public void parses_names_and_flags() {
+        var underTest = ClassScanner.classFile(SerializableWithId.class.getName());
+
+        assertThat(underTest.name()).isEqualTo(SerializableWithId.class.getName());
+        assertThat(underTest.accessFlags() & ACC_PUBLIC).isEqualTo(ACC_PUBLIC);
+        assertThat(underTest.is(ACC_FINAL)).isFalse();
+        assertThat(underTest.superName()).isEqualTo(Object.class.getName());
+        assertThat(underTest.interfaceNames()).containsExactly(Serializable.class.getName());
+        assertThat(underTest.isAnonymousOrLocal()).isFalse();
+    }
+
+    @Test
+    public void parses_fields_and_methods() {
+        var underTest = ClassScanner.classFile(SerializableWithId.class.getName());
+
+        assertThat(underTest.fields()).singleElement().satisfies(field -> {
+            assertThat(field.name()).isEqualTo("serialVersionUID");
+            assertThat(field.descriptor()).isEqualTo("J");
+            assertThat(field.is(ACC_PRIVATE) && field.is(ACC_STATIC) && field.is(ACC_FINAL)).isTrue();
+        });
+        assertThat(underTest.methods()).extracting(ClassFile.Member::name).containsExactlyInAnyOrder(CONSTRUCTOR_NAME, "instanceMethod");
+    }
+
+    @Test
+    public void parses_constructor_code() {
+        var underTest = ClassScanner.classFile(ValidStaticHelper.class.getName());
+        var constructor = underTest.methods().stream().filter(method -> CONSTRUCTOR_NAME.equals(method.name())).findFirst().orElseThrow();
+
+        assertThat(underTest.instantiatedClassNames(constructor)).containsExactly(InstantiationNotPermittedException.class.getName());
+        assertThat(underTest.throwsIn(constructor)).isTrue();
+    }
+
+    @Test
+    public void nested_classes_have_flags_of_their_declaration() {
+        var underTest = ClassScanner.classFile(Nested.class.getName());
+
+        assertThat(underTest.is(ACC_PRIVATE) && underTest.is(ACC_STATIC) && underTest.is(ACC_FINAL)).isTrue();
+        assertThat(underTest.isAnonymousOrLocal()).isFalse();
+    }
+
+    @Test
+    public void detects_anonymous_classes() {
+        var anonymous = new Object() {};
+
+        assertThat(ClassScanner.classFile(anonymous.getClass().getName()).isAnonymousOrLocal()).isTrue();
+    }
+
+    @Test
+    public void enum_constant_bodies_extend_their_enum() {
+        var underTest = ClassScanner.classFile(SerializableEnum.VALUE_WITH_BODY.getClass().getName());
+
+        assertThat(underTest.superName()).isEqualTo(SerializableEnum.class.getName());
+        assertThat(ClassScanner.classFile(SerializableEnum.class.getName()).is(ACC_ENUM)).isTrue();
+    }
+
+    @Test
+    public void decodes_non_ascii_names() {
+        assertThat(ClassScanner.classFile(Nested.class.getName()).methods()).extracting(ClassFile.Member::name).contains("grüße");
+    }
+
+    @Test
+    public void rejects_invalid_class_files() {
+        assertThatThrownBy(() -> ClassFile.parse(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 0, 0, 0, 0, 0, 0})))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Not a class file.");
+    }
+
+    @Test
+    public void rejects_truncated_class_files() throws Exception {
+        var bytes = ClassScanner.class.getResourceAsStream("ClassFileTest.class").readAllBytes();
+
+        assertThatThrownBy(() -> ClassFile.parse(ByteBuffer.wrap(Arrays.copyOf(bytes, 20))))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Encountered truncated class file.");
+    }
+
+    private static final class Nested {
+
+        private static String grüße() {
+            return "grüße";
+        }
+    }
+}
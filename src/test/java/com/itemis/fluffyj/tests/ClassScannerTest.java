@@ -0,0 +1,96 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertIsStaticHelper;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.itemis.fluffyj.tests.scan.invalid.SerializableWithoutId;
+import com.itemis.fluffyj.tests.scan.valid.SerializableEnum;
+import com.itemis.fluffyj.tests.scan.valid.ValidStaticHelper;
+
+public class ClassScannerTest {
+
+    private static final String SCAN_PACKAGE = "com.itemis.fluffyj.tests.scan";
+
+    @Test
+    public void is_static_helper() {
+        assertIsStaticHelper(ClassScanner.class);
+    }
+
+    @Test
+    public void finds_classes_of_package_and_subpackages() {
+        assertThat(ClassScanner.classesIn(SCAN_PACKAGE)).contains(SerializableWithoutId.class, SerializableEnum.class, ValidStaticHelper.class);
+        assertThat(ClassScanner.classesIn(SCAN_PACKAGE + ".valid")).contains(ValidStaticHelper.class).doesNotContain(SerializableWithoutId.class);
+    }
+
+    @Test
+    public void finds_classes_in_jar_files() {
+        assertThat(ClassScanner.classesIn("org.junit.jupiter.api")).contains(Test.class);
+    }
+
+    @Test
+    public void scans_each_package_once() {
+        assertThat(ClassScanner.classesIn(SCAN_PACKAGE)).isSameAs(ClassScanner.classesIn(SCAN_PACKAGE));
+    }
+
+    @Test
+    public void does_not_keep_class_loaders_alive() {
+        var loaderReference = scanWithNewClassLoader();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            System.gc();
+            return loaderReference.get() == null;
+        });
+    }
+
+    @Test
+    public void finds_nothing_in_unknown_package() {
+        assertThat(ClassScanner.classesIn("com.itemis.fluffyj.tests.unknown")).isEmpty();
+    }
+
+    private static WeakReference<ClassLoader> scanWithNewClassLoader() {
+        // Delegates to the class loader of the test, so the scanned classes do not refer to it.
+        var loader = new URLClassLoader(new URL[0], ClassScannerTest.class.getClassLoader());
+        var thread = Thread.currentThread();
+        var contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            assertThat(ClassScanner.classesIn(SCAN_PACKAGE)).contains(ValidStaticHelper.class);
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+        }
+        return new WeakReference<>(loader);
+    }
+
+    @Test
+    public void parses_class_files_of_package_and_subpackages() {
+        assertThat(ClassScanner.classFilesIn(SCAN_PACKAGE)).extracting(ClassFile::name).contains(SerializableWithoutId.class.getName(),
+            SerializableEnum.class.getName(), ValidStaticHelper.class.getName()).isSorted();
+        assertThat(ClassScanner.classFilesIn(SCAN_PACKAGE + ".valid")).extracting(ClassFile::name)
+            .doesNotContain(SerializableWithoutId.class.getName());
+    }
+
+    @Test
+    public void parses_class_files_in_jar_files() {
+        assertThat(ClassScanner.classFilesIn("org.junit.jupiter.api")).extracting(ClassFile::name).contains(Test.class.getName());
+    }
+
+    @Test
+    public void parses_nothing_in_unknown_package() {
+        assertThat(ClassScanner.classFilesIn("com.itemis.fluffyj.tests.unknown")).isEmpty();
+    }
+
+    @Test
+    public void parses_single_class_file_including_jdk_classes() {
+        assertThat(ClassScanner.classFile(ValidStaticHelper.class.getName()).name()).isEqualTo(ValidStaticHelper.class.getName());
+        assertThat(ClassScanner.classFile(String.class.getName()).superName()).isEqualTo(Object.class.getName());
+        assertThat(ClassScanner.classFile("com.itemis.fluffyj.tests.Unknown")).isNull();
+    }
+}
@@ -0,0 +1,141 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertNullArgNotAccepted;
+import static com.itemis.fluffyj.tests.FluffyTestHelper.sleep;
+import static java.lang.Thread.currentThread;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+public class FluffyTestClockTest {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Duration LONG_SLEEP = Duration.ofHours(1);
+    private static final Duration SHORT_SLEEP = Duration.ofMillis(200);
+
+    private ExtensionContext extensionCtxMock;
+
+    private FluffyTestClock underTest;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        extensionCtxMock = mock(ExtensionContext.class);
+        underTest = new FluffyTestClock().startingAt(START);
+        underTest.beforeEach(extensionCtxMock);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        underTest.afterEach(extensionCtxMock);
+    }
+
+    @Test
+    public void sleep_advances_virtual_time_without_blocking() {
+        long startMillis = System.currentTimeMillis();
+        sleep(LONG_SLEEP);
+        long stopMillis = System.currentTimeMillis();
+
+        assertThat(stopMillis - startMillis).isLessThan(LONG_SLEEP.toMillis());
+        assertThat(underTest.elapsed()).isEqualTo(LONG_SLEEP);
+        assertThat(underTest.clock().instant()).isEqualTo(START.plus(LONG_SLEEP));
+    }
+
+    @Test
+    public void sleep_of_threads_started_by_test_advances_virtual_time() throws Exception {
+        var thread = new Thread(() -> sleep(LONG_SLEEP));
+        thread.start();
+        thread.join(Duration.ofSeconds(10).toMillis());
+
+        assertThat(underTest.elapsed()).isEqualTo(LONG_SLEEP);
+    }
+
+    @Test
+    public void threads_started_by_test_sleep_for_real_once_test_is_over() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            // Starts the thread of the executor while the virtual clock is active.
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+            // The next test uses the same extension instance.
+            underTest.afterEach(extensionCtxMock);
+            underTest.beforeEach(extensionCtxMock);
+
+            long startNanos = System.nanoTime();
+            executor.submit(() -> sleep(SHORT_SLEEP)).get(10, TimeUnit.SECONDS);
+            long stopNanos = System.nanoTime();
+
+            assertThat(Duration.ofNanos(stopNanos - startNanos)).isGreaterThanOrEqualTo(SHORT_SLEEP);
+            assertThat(underTest.elapsed()).isEqualTo(Duration.ZERO);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sleep_does_not_go_back_in_time() {
+        sleep(Duration.ofMillis(-1));
+
+        assertThat(underTest.elapsed()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void sleep_still_respects_interrupts() {
+        currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> sleep(LONG_SLEEP)).isInstanceOf(InterruptedException.class);
+            assertThat(currentThread().isInterrupted()).isTrue();
+            assertThat(underTest.elapsed()).isEqualTo(Duration.ZERO);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void clock_with_other_zone_shows_virtual_time() {
+        var zone = ZoneId.of("Europe/Berlin");
+        var clock = underTest.clock().withZone(zone);
+
+        underTest.advance(LONG_SLEEP);
+
+        assertThat(clock.getZone()).isEqualTo(zone);
+        assertThat(clock.instant()).isEqualTo(START.plus(LONG_SLEEP));
+    }
+
+    @Test
+    public void advance_does_not_accept_invalid_durations() {
+        assertNullArgNotAccepted(() -> underTest.advance(null), "duration");
+        assertThatThrownBy(() -> underTest.advance(Duration.ofMillis(-1))).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("duration");
+    }
+
+    @Test
+    public void beforeEach_resets_virtual_time() throws Exception {
+        underTest.advance(LONG_SLEEP);
+
+        underTest.afterEach(extensionCtxMock);
+        underTest.beforeEach(extensionCtxMock);
+
+        assertThat(underTest.elapsed()).isEqualTo(Duration.ZERO);
+        assertThat(underTest.clock().instant()).isEqualTo(START);
+    }
+
+    @Test
+    public void afterEach_deactivates_virtual_clock() throws Exception {
+        assertThat(FluffyTestClock.active()).isSameAs(underTest);
+
+        underTest.afterEach(extensionCtxMock);
+
+        assertThat(FluffyTestClock.active()).isNull();
+        underTest.beforeEach(extensionCtxMock);
+    }
+}
@@ -0,0 +1,56 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.sleep;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ * Measures how much {@link FluffyTestHelper#sleep(Duration)} overshoots the requested time for
+ * short durations. Results are published as report entries of the tests. Only the guarantee of
+ * never waking up early is asserted, because the overshoot depends on the load of the machine. Run
+ * with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class FluffyTestHelperSleepBenchmarkTest {
+
+    private static final int WARM_UP_SLEEPS = 100;
+    private static final long MEASURED_NANOS = Duration.ofMillis(500).toNanos();
+
+    @Test
+    public void sleep_overshoot_100_micros(TestReporter reporter) {
+        measureOvershoot(Duration.ofNanos(100_000), reporter);
+    }
+
+    @Test
+    public void sleep_overshoot_1_milli(TestReporter reporter) {
+        measureOvershoot(Duration.ofMillis(1), reporter);
+    }
+
+    private void measureOvershoot(Duration waitingTime, TestReporter reporter) {
+        var waitingNanos = waitingTime.toNanos();
+        for (int i = 0; i < WARM_UP_SLEEPS; i++) {
+            sleep(waitingTime);
+        }
+
+        var overshoots = new long[(int) Math.max(10, MEASURED_NANOS / waitingNanos)];
+        for (int i = 0; i < overshoots.length; i++) {
+            var start = System.nanoTime();
+            sleep(waitingTime);
+            overshoots[i] = System.nanoTime() - start - waitingNanos;
+        }
+
+        Arrays.sort(overshoots);
+        var mean = Arrays.stream(overshoots).sum() / overshoots.length;
+        reporter.publishEntry("sleep " + waitingNanos + " ns",
+            "mean overshoot " + mean + " ns (" + mean * 100 / waitingNanos + " %), median " + overshoots[overshoots.length / 2]
+                + " ns, 99th percentile " + overshoots[overshoots.length * 99 / 100] + " ns, max " + overshoots[overshoots.length - 1]
+                + " ns, sleeps " + overshoots.length);
+        assertThat(overshoots[0]).as("Sleep must not wake up early.").isGreaterThanOrEqualTo(0);
+    }
+}
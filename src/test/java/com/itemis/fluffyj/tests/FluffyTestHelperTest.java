@@ -120,6 +120,39 @@ public class FluffyTestHelperTest {
         assertThat(interruptFlagSet).as("In case sleep is interrupted, the interrupt flag must be preserved.").isTrue();
     }
 
+    @Test
+    public void sleep_honors_sub_millisecond_durations() {
+        var waitingTime = Duration.ofNanos(250_000);
+
+        long startNanos = System.nanoTime();
+        sleep(waitingTime);
+        long stopNanos = System.nanoTime();
+
+        assertThat(stopNanos - startNanos).as("Method did not sleep long enough.").isGreaterThanOrEqualTo(waitingTime.toNanos());
+    }
+
+    @Test
+    public void sleep_returns_right_away_for_non_positive_durations() {
+        assertDoesNotThrow(() -> sleep(Duration.ZERO));
+        assertDoesNotThrow(() -> sleep(Duration.ofMillis(-1)));
+    }
+
+    @Test
+    public void sleep_fails_right_away_if_thread_is_interrupted() {
+        currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> sleep(EXPECTED_SLEEP_TIME)).isInstanceOf(InterruptedException.class);
+            assertThat(currentThread().isInterrupted()).as("In case sleep is interrupted, the interrupt flag must be preserved.").isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void sleep_does_not_accept_null() {
+        assertNullArgNotAccepted(() -> sleep(null), "waitingTime");
+    }
+
     private void nullSafeTestMethod(Object arg) {
         requireNonNull(arg, "arg");
     }
@@ -0,0 +1,110 @@
+package com.itemis.fluffyj.tests;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertAllSerializableHaveSerialVersionUid;
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertAllStaticHelpersIn;
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertNullArgNotAccepted;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+import org.junit.jupiter.api.Test;
+
+import com.itemis.fluffyj.tests.scan.invalid.FailingInitializerStaticHelper;
+import com.itemis.fluffyj.tests.scan.invalid.InstantiatableStaticHelper;
+import com.itemis.fluffyj.tests.scan.invalid.NonFinalStaticHelper;
+import com.itemis.fluffyj.tests.scan.invalid.SerializableWithoutId;
+import com.itemis.fluffyj.tests.scan.invalid.StaticMainApplication;
+
+public class PackageChecksTest {
+
+    private static final String VALID_PACKAGE = "com.itemis.fluffyj.tests.scan.valid";
+    private static final String INVALID_PACKAGE = "com.itemis.fluffyj.tests.scan.invalid";
+    private static final String UNKNOWN_PACKAGE = "com.itemis.fluffyj.tests.scan.unknown";
+
+    @Test
+    public void assertAllStaticHelpersIn_passes_on_valid_static_helpers() {
+        assertDoesNotThrow(() -> assertAllStaticHelpersIn(VALID_PACKAGE));
+    }
+
+    @Test
+    public void assertAllStaticHelpersIn_reports_all_invalid_static_helpers() {
+        assertThatThrownBy(() -> assertAllStaticHelpersIn(INVALID_PACKAGE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Encountered invalid static helpers.").hasMessageContaining(NonFinalStaticHelper.class.getName())
+            .hasMessageContaining(InstantiatableStaticHelper.class.getName()).hasMessageNotContaining(SerializableWithoutId.class.getName())
+            .hasMessageNotContaining(StaticMainApplication.class.getName());
+    }
+
+    @Test
+    public void assertAllStaticHelpersIn_reports_failing_static_initializers() {
+        assertThatThrownBy(() -> assertAllStaticHelpersIn(INVALID_PACKAGE)).isInstanceOf(AssertionError.class)
+            .satisfiesAnyOf(
+                // The first attempt to initialize the class tells why it fails.
+                e -> assertThat(e).hasMessageContaining(FailingInitializerStaticHelper.class.getName() + ": Static initializer failed: "
+                    + NumberFormatException.class.getName()),
+                // Other tests may have attempted that already.
+                e -> assertThat(e).hasMessageContaining(FailingInitializerStaticHelper.class.getName() + ": Could not be initialized: "));
+    }
+
+    @Test
+    public void assertAllSerializableHaveSerialVersionUid_passes_on_valid_classes_and_enums() {
+        assertDoesNotThrow(() -> assertAllSerializableHaveSerialVersionUid(VALID_PACKAGE));
+    }
+
+    @Test
+    public void assertAllSerializableHaveSerialVersionUid_reports_classes_without_id() {
+        assertThatThrownBy(() -> assertAllSerializableHaveSerialVersionUid(INVALID_PACKAGE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining(SerializableWithoutId.class.getName()).hasMessageNotContaining(NonFinalStaticHelper.class.getName());
+    }
+
+    @Test
+    public void assertAllStaticHelpersIn_class_file_mode_passes_on_valid_static_helpers() {
+        assertDoesNotThrow(() -> assertAllStaticHelpersIn(VALID_PACKAGE, ScanMode.CLASS_FILE));
+    }
+
+    @Test
+    public void assertAllStaticHelpersIn_class_file_mode_reports_all_invalid_static_helpers() {
+        assertThatThrownBy(() -> assertAllStaticHelpersIn(INVALID_PACKAGE, ScanMode.CLASS_FILE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Encountered invalid static helpers.")
+            .hasMessageContaining(NonFinalStaticHelper.class.getName() + ": Class must be declared final.")
+            .hasMessageContaining(InstantiatableStaticHelper.class.getName()).hasMessageNotContaining(SerializableWithoutId.class.getName())
+            .hasMessageNotContaining(StaticMainApplication.class.getName());
+    }
+
+    @Test
+    public void assertAllSerializableHaveSerialVersionUid_class_file_mode_passes_on_valid_classes_and_enums() {
+        assertDoesNotThrow(() -> assertAllSerializableHaveSerialVersionUid(VALID_PACKAGE, ScanMode.CLASS_FILE));
+    }
+
+    @Test
+    public void assertAllSerializableHaveSerialVersionUid_class_file_mode_reports_classes_without_id() {
+        assertThatThrownBy(() -> assertAllSerializableHaveSerialVersionUid(INVALID_PACKAGE, ScanMode.CLASS_FILE))
+            .isInstanceOf(AssertionError.class).hasMessageContaining(SerializableWithoutId.class.getName())
+            .hasMessageNotContaining(NonFinalStaticHelper.class.getName());
+    }
+
+    @Test
+    public void class_file_mode_fails_on_unknown_package() {
+        assertThatThrownBy(() -> assertAllStaticHelpersIn(UNKNOWN_PACKAGE, ScanMode.CLASS_FILE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("No classes found in package " + UNKNOWN_PACKAGE);
+        assertThatThrownBy(() -> assertAllSerializableHaveSerialVersionUid(UNKNOWN_PACKAGE, ScanMode.CLASS_FILE))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("No classes found in package " + UNKNOWN_PACKAGE);
+    }
+
+    @Test
+    public void package_checks_fail_on_unknown_package() {
+        assertThatThrownBy(() -> assertAllStaticHelpersIn(UNKNOWN_PACKAGE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("No classes found in package " + UNKNOWN_PACKAGE);
+        assertThatThrownBy(() -> assertAllSerializableHaveSerialVersionUid(UNKNOWN_PACKAGE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("No classes found in package " + UNKNOWN_PACKAGE);
+    }
+
+    @Test
+    public void package_checks_do_not_accept_null() {
+        assertNullArgNotAccepted(() -> assertAllStaticHelpersIn(null), "packageName");
+        assertNullArgNotAccepted(() -> assertAllSerializableHaveSerialVersionUid(null), "packageName");
+        assertNullArgNotAccepted(() -> assertAllStaticHelpersIn(null, ScanMode.CLASS_FILE), "packageName");
+        assertNullArgNotAccepted(() -> assertAllStaticHelpersIn(VALID_PACKAGE, null), "scanMode");
+        assertNullArgNotAccepted(() -> assertAllSerializableHaveSerialVersionUid(null, ScanMode.CLASS_FILE), "packageName");
+        assertNullArgNotAccepted(() -> assertAllSerializableHaveSerialVersionUid(VALID_PACKAGE, null), "scanMode");
+    }
+}
@@ -0,0 +1,32 @@
+package com.itemis.fluffyj.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.itemis.fluffyj.tests.concurrency.AssertThreadSafety;
+
+/**
+ * Neither the class nor the method are accessible from the package of the thread safety extension.
+ * JUnit runs them anyway, so the extension must do so, too.
+ */
+class PackagePrivateThreadSafetyTest {
+
+    private static final int THREAD_COUNT = 4;
+
+    private final AtomicInteger invocationCount = new AtomicInteger();
+
+    @AfterEach
+    void assert_each_thread_called_test_method() {
+        assertThat(invocationCount).hasValue(THREAD_COUNT);
+    }
+
+    @AssertThreadSafety(threadCount = THREAD_COUNT)
+    @Test
+    void package_private_test_method() {
+        invocationCount.incrementAndGet();
+    }
+}
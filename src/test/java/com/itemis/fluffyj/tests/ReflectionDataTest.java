@@ -0,0 +1,31 @@
+package com.itemis.fluffyj.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ReflectionDataTest {
+
+    @Test
+    public void caches_metadata_per_class() {
+        var underTest = ReflectionData.of(String.class);
+
+        assertThat(ReflectionData.of(String.class)).isSameAs(underTest);
+        assertThat(underTest.methods()).isSameAs(underTest.methods()).containsExactlyInAnyOrder(String.class.getMethods());
+        assertThat(underTest.declaredMethods()).isSameAs(underTest.declaredMethods())
+            .containsExactlyInAnyOrder(String.class.getDeclaredMethods());
+        assertThat(underTest.declaredFields()).isSameAs(underTest.declaredFields()).containsExactlyInAnyOrder(String.class.getDeclaredFields());
+        assertThat(underTest.declaredConstructors()).isSameAs(underTest.declaredConstructors())
+            .containsExactlyInAnyOrder(String.class.getDeclaredConstructors());
+    }
+
+    @Test
+    public void metadata_is_unmodifiable() {
+        List<?> methods = ReflectionData.of(String.class).methods();
+
+        assertThatThrownBy(() -> methods.clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
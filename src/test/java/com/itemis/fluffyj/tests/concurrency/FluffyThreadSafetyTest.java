@@ -2,7 +2,6 @@ package com.itemis.fluffyj.tests.concurrency;
 
 import static com.itemis.fluffyj.concurrency.FluffyExecutors.kill;
 import static com.itemis.fluffyj.sneaky.Sneaky.throwThat;
-import static com.itemis.fluffyj.tests.FluffyTestAnswers.exceptionalAnswer;
 import static com.itemis.fluffyj.tests.FluffyTestAnswers.execute;
 import static com.itemis.fluffyj.tests.FluffyTestHelper.assertFinal;
 import static com.itemis.fluffyj.tests.concurrency.FluffyTestLatches.assertLatch;
@@ -16,31 +15,45 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.InstanceOfAssertFactories.LIST;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.InvocationInterceptor.Invocation;
+import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.time.Duration;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 // We do want to chose the time mocks are initialized by ourselves, even if they are not used later
@@ -54,6 +67,13 @@ public class FluffyThreadSafetyTest {
     private static final String TEST_METHOD_NO_ARGS = "test_method_no_args";
     private static final int DEFAULT_THREAD_COUNT = 2;
     private static final int EXPECTED_THREAD_COUNT = 10;
+    private static final int EXPECTED_ROUNDS = 50;
+    private static final long EXPECTED_DURATION_MILLIS = 200;
+    private static final long SLOW_METHOD_MILLIS = 50;
+    private static final long EXPLORE_SEED = 42;
+    private static final long TIMEOUT_MILLIS = 300;
+    private static final ExceptionInInitializerError EXPECTED_INITIALIZER_ERROR = new ExceptionInInitializerError("expected");
+    private static final String EXPECT_VIRTUAL_THREADS_PROPERTY = "fluffyj.tests.expectVirtualThreads";
 
     @Mock
     private ExtensionContext extensionContextMock;
@@ -61,12 +81,26 @@ public class FluffyThreadSafetyTest {
     private ReflectiveInvocationContext<Method> invocationContextMock;
     @Mock
     private Invocation<Void> invocationMock;
+    @Mock
+    private ExtensionContext.Store storeMock;
 
     private final AtomicInteger methodNoArgsInvocationCount = new AtomicInteger(0);
     private final AtomicInteger methodWithArgsInvocationCount = new AtomicInteger(0);
     private final Set<String> threadNamesThatCalledMethod = synchronizedSet(new HashSet<>());
     private final AtomicBoolean stopMethod = new AtomicBoolean(false);
+    private final AtomicInteger beforeRoundCount = new AtomicInteger();
+    private AtomicInteger roundState;
+    private final AtomicInteger exploreCounter = new AtomicInteger();
     private final CountDownLatch getTargetLatch = new CountDownLatch(1);
+    private final Map<Object, Object> store = new ConcurrentHashMap<>();
+    private final Set<Integer> threadIndicesThatCalledMethod = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> roundsSeenByMethod = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] deadLockLocks = {new ReentrantLock(), new ReentrantLock()};
+    private final CountDownLatch deadLockLatch = new CountDownLatch(DEFAULT_THREAD_COUNT);
+    private final ContendedLock contendedLock = new ContendedLock();
+
+    // Deliberately not thread safe. Explore tests take care of visibility.
+    private int unsafeCounter;
 
     private FluffyTestThreadSafety underTest;
 
@@ -75,6 +109,13 @@ public class FluffyThreadSafetyTest {
         underTest = new FluffyTestThreadSafety();
     }
 
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (final var value : store.values()) {
+            ((AutoCloseable) value).close();
+        }
+    }
+
     @Test
     public void is_final() {
         assertFinal(FluffyTestThreadSafety.class);
@@ -193,13 +234,8 @@ public class FluffyThreadSafetyTest {
      */
     @Test
     public void when_executable_throws_exception_initialize_error_assertion_error() throws Throwable {
-        final Throwable expectedThrowable = new ExceptionInInitializerError("expected");
-        final var realMethod = setupExecutable(TEST_METHOD_NO_ARGS);
-        final var methodMock = mock(Method.class);
-        when(methodMock.getDeclaredAnnotation(AssertThreadSafety.class))
-            .thenReturn(realMethod.getDeclaredAnnotation(AssertThreadSafety.class));
-        when(methodMock.invoke(this)).thenAnswer(exceptionalAnswer(expectedThrowable));
-        when(invocationContextMock.getExecutable()).thenReturn(methodMock);
+        final Throwable expectedThrowable = EXPECTED_INITIALIZER_ERROR;
+        setupExecutable("test_method_initializer_fails");
 
         assertThatThrownBy(
             () -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock),
@@ -246,6 +282,383 @@ public class FluffyThreadSafetyTest {
             .hasSize(EXPECTED_THREAD_COUNT);
     }
 
+    @Test
+    public void when_rounds_specified_then_thread_count_times_rounds_invocations() {
+        setupExecutable("test_method_with_rounds");
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(EXPECTED_THREAD_COUNT * EXPECTED_ROUNDS);
+    }
+
+    @Test
+    public void all_rounds_are_played_by_the_same_threads() {
+        setupExecutable("test_method_with_rounds");
+
+        runCodeToTest();
+
+        assertThat(threadNamesThatCalledMethod)
+            .as("All rounds must have been played by the same " + EXPECTED_THREAD_COUNT + " threads.")
+            .hasSize(EXPECTED_THREAD_COUNT);
+    }
+
+    @Test
+    public void when_duration_specified_then_rounds_are_played_until_duration_elapsed() {
+        setupExecutable("test_method_with_duration");
+
+        final var start = System.nanoTime();
+        runCodeToTest();
+        final var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(EXPECTED_DURATION_MILLIS));
+        assertThat(methodNoArgsInvocationCount).hasValueGreaterThan(DEFAULT_THREAD_COUNT);
+    }
+
+    @Test
+    public void when_a_round_fails_then_no_further_rounds_are_played() {
+        setupExecutable("test_method_exception_with_rounds");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class);
+        assertThat(methodNoArgsInvocationCount).hasValue(DEFAULT_THREAD_COUNT);
+    }
+
+    @Test
+    public void when_custom_backend_then_threads_are_created_by_custom_factory() {
+        setupExecutable("test_method_custom_backend");
+
+        runCodeToTest();
+
+        assertThat(threadNamesThatCalledMethod).hasSize(DEFAULT_THREAD_COUNT)
+            .allMatch(threadName -> threadName.startsWith(CustomThreadFactory.THREAD_NAME_PREFIX));
+    }
+
+    @Test
+    public void when_custom_backend_without_factory_then_exception() {
+        setupExecutable("test_method_custom_backend_without_factory");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("requires a threadFactory");
+    }
+
+    @Test
+    public void when_virtual_backend_is_not_supported_then_exception() {
+        assumeFalse(VirtualThreads.isSupported());
+        setupExecutable("test_method_virtual_backend");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(UnsupportedOperationException.class).hasMessageContaining("Java 21");
+    }
+
+    @Test
+    public void when_virtual_backend_is_supported_then_test_runs_in_virtual_threads() {
+        if (Boolean.getBoolean(EXPECT_VIRTUAL_THREADS_PROPERTY)) {
+            // Set when testing the multi release jar, which must not skip this test silently.
+            assertThat(VirtualThreads.isSupported()).as("Virtual threads must be supported by the multi release jar.").isTrue();
+        } else {
+            assumeTrue(VirtualThreads.isSupported());
+        }
+        setupExecutable("test_method_virtual_backend");
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(EXPECTED_THREAD_COUNT);
+    }
+
+    @Test
+    public void when_shared_pool_then_tests_reuse_threads() {
+        rootStoreWillBeAvailable();
+        setupExecutable("test_method_shared_pool");
+
+        runCodeToTest();
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(2 * EXPECTED_THREAD_COUNT);
+        assertThat(threadNamesThatCalledMethod)
+            .as("Both runs must have used the same " + EXPECTED_THREAD_COUNT + " threads.")
+            .hasSize(EXPECTED_THREAD_COUNT);
+    }
+
+    @Test
+    public void shared_pool_is_stored_in_root_store() {
+        rootStoreWillBeAvailable();
+        setupExecutable("test_method_shared_pool");
+
+        runCodeToTest();
+
+        assertThat(store.values()).hasSize(1).allMatch(SharedWorkerPool.class::isInstance);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void publishes_report_entries() {
+        setupExecutable("test_method_with_rounds");
+
+        runCodeToTest();
+
+        final ArgumentCaptor<Map<String, String>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(extensionContextMock).publishReportEntry(entries.capture());
+        assertThat(entries.getValue())
+            .containsEntry(ThreadSafetyReport.KEY_PREFIX + "threads", String.valueOf(EXPECTED_THREAD_COUNT))
+            .containsEntry(ThreadSafetyReport.KEY_PREFIX + "rounds", String.valueOf(EXPECTED_ROUNDS))
+            .containsEntry(ThreadSafetyReport.KEY_PREFIX + "invocations", String.valueOf(EXPECTED_THREAD_COUNT * EXPECTED_ROUNDS))
+            .containsKeys(ThreadSafetyReport.KEY_PREFIX + "throughputPerSecond", ThreadSafetyReport.KEY_PREFIX + "latencyP50Millis",
+                ThreadSafetyReport.KEY_PREFIX + "latencyP99Millis", ThreadSafetyReport.KEY_PREFIX + "latencyMaxMillis");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void when_spin_alignment_then_all_rounds_are_played_and_start_skew_is_reported() {
+        setupExecutable("test_method_with_spin_alignment");
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(EXPECTED_THREAD_COUNT * EXPECTED_ROUNDS);
+        final ArgumentCaptor<Map<String, String>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(extensionContextMock).publishReportEntry(entries.capture());
+        assertThat(entries.getValue())
+            .containsEntry(ThreadSafetyReport.KEY_PREFIX + "startAlignment", StartAlignment.SPIN.name())
+            .containsKeys(ThreadSafetyReport.KEY_PREFIX + "startSkewP50Millis", ThreadSafetyReport.KEY_PREFIX + "startSkewMaxMillis");
+    }
+
+    @Test
+    public void when_before_round_then_each_round_starts_from_fresh_state() {
+        setupExecutable("test_method_with_before_round");
+
+        runCodeToTest();
+
+        assertThat(beforeRoundCount).hasValue(EXPECTED_ROUNDS);
+        assertThat(methodNoArgsInvocationCount).hasValue(EXPECTED_THREAD_COUNT * EXPECTED_ROUNDS);
+    }
+
+    @Test
+    public void when_before_round_does_not_exist_then_exception() {
+        setupExecutable("test_method_with_missing_before_round");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("beforeRound method missing_before_round() does not exist in " + getClass().getName() + ".");
+        assertThat(methodNoArgsInvocationCount).hasValue(0);
+    }
+
+    @Test
+    public void when_before_round_throws_then_round_is_not_played() {
+        setupExecutable("test_method_with_failing_before_round");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class)
+            .hasMessage("Cannot test thread safety: beforeRound method threw an exception.")
+            .hasCause(EXPECTED_UNCHECKED_EXCEPTION);
+        assertThat(methodNoArgsInvocationCount).hasValue(0);
+    }
+
+    @Test
+    public void when_explore_then_threads_interleave_at_yield_points() {
+        setupExecutable("test_method_explore_lost_update");
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(DEFAULT_THREAD_COUNT * EXPECTED_ROUNDS);
+        assertThat(unsafeCounter).as("Some interleavings must have lost updates.").isLessThan(DEFAULT_THREAD_COUNT * EXPECTED_ROUNDS);
+    }
+
+    @Test
+    public void when_explore_fails_without_before_round_then_replay_plays_all_rounds_up_to_failing_one() {
+        setupExecutable("test_method_explore_detects_lost_update");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .satisfies(error -> {
+                final var description = failingScheduleDescription(error);
+                final var matcher = Pattern.compile("failed in round (\\d+) ").matcher(description);
+                assertThat(matcher.find()).as(description).isTrue();
+                final var failingRound = Integer.parseInt(matcher.group(1));
+                assertThat(description).contains("rounds = " + (failingRound + 1) + ", explore = true, seed = " + EXPLORE_SEED + "L)");
+            });
+    }
+
+    @Test
+    public void when_explore_with_same_seed_then_same_schedules_are_played() {
+        setupExecutable("test_method_explore_lost_update_with_seed");
+
+        runCodeToTest();
+        final var firstResult = unsafeCounter;
+        unsafeCounter = 0;
+        runCodeToTest();
+
+        assertThat(unsafeCounter).isEqualTo(firstResult);
+    }
+
+    @Test
+    public void when_explore_fails_then_failing_schedule_is_attached() {
+        setupExecutable("test_method_explore_failing");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class)
+            .satisfies(error -> assertThat(error.getSuppressed())
+                .anySatisfy(suppressed -> assertThat(suppressed).hasMessageContaining("explore = true, seed = ")));
+    }
+
+    @Test
+    public void when_thread_counts_specified_then_test_runs_once_per_thread_count() {
+        setupExecutable("test_method_sweep_scaling");
+
+        runCodeToTest();
+
+        assertThat(threadNamesThatCalledMethod).hasSize(1 + 2);
+        verify(extensionContextMock, times(2 + 1)).publishReportEntry(any(Map.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void when_thread_counts_specified_then_scaling_efficiency_is_reported() {
+        setupExecutable("test_method_sweep_scaling");
+
+        runCodeToTest();
+
+        final ArgumentCaptor<Map<String, String>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(extensionContextMock, times(2 + 1)).publishReportEntry(entries.capture());
+        assertThat(entries.getValue())
+            .containsEntry(ThreadSafetyReport.KEY_PREFIX + "scalingEfficiency.1", "1.000")
+            .containsKey(ThreadSafetyReport.KEY_PREFIX + "scalingEfficiency.2");
+    }
+
+    @Test
+    @Timeout(10)
+    public void when_thread_counts_and_explore_then_exception() {
+        setupExecutable("test_method_sweep_explore");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("explore cannot be combined with threadCounts.");
+        assertThat(methodNoArgsInvocationCount).hasValue(0);
+    }
+
+    @Test
+    public void when_throughput_does_not_scale_then_assertion_error() {
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Scaling can only be expected with at least 2 processors.");
+        setupExecutable("test_method_sweep_serialized");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("Scalability regressed").hasMessageContaining("2 threads");
+    }
+
+    @Test
+    public void supports_context_parameter_of_annotated_methods_only() throws Exception {
+        final var annotatedParameter = getClass().getDeclaredMethod("test_method_with_context", ThreadSafetyContext.class).getParameters()[0];
+        final var otherParameter = getClass().getDeclaredMethod("context_parameter_of_other_method", ThreadSafetyContext.class).getParameters()[0];
+
+        assertThat(underTest.supportsParameter(parameterContext(annotatedParameter), extensionContextMock)).isTrue();
+        assertThat(underTest.supportsParameter(parameterContext(otherParameter), extensionContextMock)).isFalse();
+    }
+
+    @Test
+    public void each_thread_gets_its_own_context() {
+        setupExecutable("test_method_with_context", contextPlaceholder());
+
+        runCodeToTest();
+
+        assertThat(threadIndicesThatCalledMethod).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(roundsSeenByMethod).hasSize(EXPECTED_ROUNDS);
+    }
+
+    @Test
+    public void when_results_are_identical_then_no_error() {
+        setupExecutable("test_method_identical_results", contextPlaceholder());
+
+        runCodeToTest();
+    }
+
+    @Test
+    public void when_results_are_not_distinct_then_assertion_error() {
+        setupExecutable("test_method_not_distinct_results", contextPlaceholder());
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("not distinct");
+    }
+
+    @Test
+    public void when_results_form_a_permutation_then_no_error() {
+        setupExecutable("test_method_permutation_results", contextPlaceholder());
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(EXPECTED_THREAD_COUNT * EXPECTED_ROUNDS);
+    }
+
+    @Test
+    public void when_thread_does_not_set_result_then_assertion_error() {
+        setupExecutable("test_method_missing_result", contextPlaceholder());
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("did not set a result");
+    }
+
+    @Test
+    public void when_threads_dead_lock_then_assertion_error_with_stack_dump() {
+        setupExecutable("test_method_dead_lock", contextPlaceholder());
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("Dead lock detected")
+            .hasMessageContaining("test_method_dead_lock")
+            // The order of the synchronizers is not defined, e. g. a pool thread also holds its worker.
+            .hasMessageFindingMatch("Locked synchronizers:.* " + Pattern.quote(ReentrantLock.class.getName()));
+    }
+
+    @Test
+    public void when_threads_do_not_finish_in_time_then_assertion_error_with_stack_dump() {
+        setupExecutable("test_method_hangs");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("did not finish within " + TIMEOUT_MILLIS + " ms")
+            .hasMessageContaining("test_method_hangs");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void when_record_contention_then_contended_classes_are_reported() {
+        setupExecutable("test_method_contended");
+
+        runCodeToTest();
+
+        final ArgumentCaptor<Map<String, String>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(extensionContextMock).publishReportEntry(entries.capture());
+        assertThat(entries.getValue()).containsKeys(ThreadSafetyReport.KEY_PREFIX + "blockedMillis",
+            ThreadSafetyReport.KEY_PREFIX + "monitorEnterBlockedMillis", ThreadSafetyReport.KEY_PREFIX + "topContendedMonitors");
+        assertThat(entries.getValue().get(ThreadSafetyReport.KEY_PREFIX + "topContendedClasses")).startsWith(ContendedLock.class.getName());
+    }
+
+    @Test
+    public void when_blocked_time_exceeds_maximum_then_assertion_error() {
+        setupExecutable("test_method_contended_with_max_blocked");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("Threads blocked for").hasMessageContaining(ContendedLock.class.getName());
+    }
+
+    @Test
+    public void when_p99_latency_exceeds_maximum_then_assertion_error() {
+        setupExecutable("test_method_slow_with_max_p99");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("p99");
+    }
+
+    @Test
+    public void when_throughput_below_minimum_then_assertion_error() {
+        setupExecutable("test_method_slow_with_min_throughput");
+
+        assertThatThrownBy(() -> underTest.interceptTestMethod(invocationMock, invocationContextMock, extensionContextMock))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("Throughput");
+    }
+
+    @Test
+    public void when_thresholds_are_met_then_no_error() {
+        setupExecutable("test_method_with_generous_thresholds");
+
+        runCodeToTest();
+
+        assertThat(methodNoArgsInvocationCount).hasValue(DEFAULT_THREAD_COUNT);
+    }
+
     @Test
     public void when_method_invocation_thread_is_interrupted_then_interrupt_exception() {
         setupExecutable("test_method_runs_forever");
@@ -309,6 +722,210 @@ public class FluffyThreadSafetyTest {
 
     }
 
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS)
+    public void test_method_with_rounds() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        threadNamesThatCalledMethod.add(Thread.currentThread().getName());
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS, beforeRound = "fresh_round_state")
+    public void test_method_with_before_round() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        assertThat(roundState.incrementAndGet()).as("State must not carry over from the previous round.")
+            .isLessThanOrEqualTo(EXPECTED_THREAD_COUNT);
+    }
+
+    @AssertThreadSafety(beforeRound = "missing_before_round")
+    public void test_method_with_missing_before_round() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @AssertThreadSafety(beforeRound = "failing_before_round")
+    public void test_method_with_failing_before_round() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @SuppressWarnings("unused")
+    private void fresh_round_state() {
+        beforeRoundCount.incrementAndGet();
+        roundState = new AtomicInteger();
+    }
+
+    @SuppressWarnings("unused")
+    private void failing_before_round() {
+        throw EXPECTED_UNCHECKED_EXCEPTION;
+    }
+
+    @AssertThreadSafety(durationMillis = EXPECTED_DURATION_MILLIS)
+    public void test_method_with_duration() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @AssertThreadSafety(rounds = EXPECTED_ROUNDS)
+    public void test_method_exception_with_rounds() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        throw EXPECTED_UNCHECKED_EXCEPTION;
+    }
+
+    @AssertThreadSafety(backend = ThreadBackend.CUSTOM, threadFactory = CustomThreadFactory.class)
+    public void test_method_custom_backend() {
+        threadNamesThatCalledMethod.add(Thread.currentThread().getName());
+    }
+
+    @AssertThreadSafety(backend = ThreadBackend.CUSTOM)
+    public void test_method_custom_backend_without_factory() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, backend = ThreadBackend.VIRTUAL)
+    public void test_method_virtual_backend() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, sharedPool = true)
+    public void test_method_shared_pool() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        threadNamesThatCalledMethod.add(Thread.currentThread().getName());
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS, startAlignment = StartAlignment.SPIN)
+    public void test_method_with_spin_alignment() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
+    @AssertThreadSafety(rounds = EXPECTED_ROUNDS, explore = true)
+    public void test_method_explore_lost_update() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        final var value = unsafeCounter;
+        FluffyYield.point();
+        unsafeCounter = value + 1;
+    }
+
+    @AssertThreadSafety(rounds = EXPECTED_ROUNDS, explore = true, seed = EXPLORE_SEED)
+    public void test_method_explore_detects_lost_update() {
+        final var value = exploreCounter.get();
+        FluffyYield.point();
+        if (!exploreCounter.compareAndSet(value, value + 1)) {
+            throw new AssertionError("Lost update.");
+        }
+    }
+
+    @AssertThreadSafety(rounds = EXPECTED_ROUNDS, explore = true, seed = EXPLORE_SEED)
+    public void test_method_explore_lost_update_with_seed() {
+        final var value = unsafeCounter;
+        FluffyYield.point();
+        unsafeCounter = value + 1;
+    }
+
+    @AssertThreadSafety(rounds = EXPECTED_ROUNDS, explore = true)
+    public void test_method_explore_failing() {
+        final var value = unsafeCounter;
+        FluffyYield.point();
+        unsafeCounter = value + 1;
+        FluffyYield.point();
+        assertThat(unsafeCounter).isEqualTo(value + 1);
+    }
+
+    @AssertThreadSafety(threadCounts = {2, 1}, durationMillis = EXPECTED_DURATION_MILLIS, minScalingEfficiency = 0.5)
+    public void test_method_sweep_scaling() throws InterruptedException {
+        threadNamesThatCalledMethod.add(Thread.currentThread().getName());
+        Thread.sleep(1);
+    }
+
+    @AssertThreadSafety(threadCounts = {1, 2}, durationMillis = EXPECTED_DURATION_MILLIS, minScalingEfficiency = 0.9)
+    public void test_method_sweep_serialized() throws InterruptedException {
+        synchronized (this) {
+            Thread.sleep(1);
+        }
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS)
+    public void test_method_with_context(final ThreadSafetyContext context) {
+        threadIndicesThatCalledMethod.add(context.threadIndex());
+        roundsSeenByMethod.add(context.round());
+    }
+
+    public void context_parameter_of_other_method(final ThreadSafetyContext context) {
+        // Not annotated, i. e. the extension must not resolve the parameter.
+    }
+
+    @AssertThreadSafety(threadCounts = {1, 2}, durationMillis = EXPECTED_DURATION_MILLIS, explore = true)
+    public void test_method_sweep_explore() {
+        methodNoArgsInvocationCount.incrementAndGet();
+        FluffyYield.point();
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS, results = ResultAssertion.ALL_IDENTICAL)
+    public void test_method_identical_results(final ThreadSafetyContext context) {
+        context.setResult("round " + context.round());
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, results = ResultAssertion.ALL_DISTINCT)
+    public void test_method_not_distinct_results(final ThreadSafetyContext context) {
+        context.setResult(context.threadIndex() % 2);
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, rounds = EXPECTED_ROUNDS, results = ResultAssertion.PERMUTATION)
+    public void test_method_permutation_results(final ThreadSafetyContext context) {
+        context.setResult(methodNoArgsInvocationCount.incrementAndGet());
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, results = ResultAssertion.ALL_IDENTICAL)
+    public void test_method_missing_result(final ThreadSafetyContext context) {
+        if (context.threadIndex() > 0) {
+            context.setResult(true);
+        }
+    }
+
+    @AssertThreadSafety
+    public void test_method_dead_lock(final ThreadSafetyContext context) throws InterruptedException {
+        final var ownLock = deadLockLocks[context.threadIndex()];
+        final var otherLock = deadLockLocks[1 - context.threadIndex()];
+        ownLock.lockInterruptibly();
+        try {
+            deadLockLatch.countDown();
+            deadLockLatch.await();
+            otherLock.lockInterruptibly();
+            otherLock.unlock();
+        } finally {
+            ownLock.unlock();
+        }
+    }
+
+    @AssertThreadSafety(timeoutMillis = TIMEOUT_MILLIS)
+    public void test_method_hangs() throws InterruptedException {
+        new CountDownLatch(1).await();
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, recordContention = true)
+    public void test_method_contended() throws InterruptedException {
+        synchronized (contendedLock) {
+            Thread.sleep(1);
+        }
+    }
+
+    @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT, recordContention = true, maxBlockedMillis = 1)
+    public void test_method_contended_with_max_blocked() throws InterruptedException {
+        synchronized (contendedLock) {
+            Thread.sleep(1);
+        }
+    }
+
+    @AssertThreadSafety(maxP99Millis = 1)
+    public void test_method_slow_with_max_p99() throws InterruptedException {
+        Thread.sleep(SLOW_METHOD_MILLIS);
+    }
+
+    @AssertThreadSafety(minThroughputPerSecond = 1000)
+    public void test_method_slow_with_min_throughput() throws InterruptedException {
+        Thread.sleep(SLOW_METHOD_MILLIS);
+    }
+
+    @AssertThreadSafety(maxP99Millis = 60_000, minThroughputPerSecond = 0.001)
+    public void test_method_with_generous_thresholds() {
+        methodNoArgsInvocationCount.incrementAndGet();
+    }
+
     @AssertThreadSafety(threadCount = EXPECTED_THREAD_COUNT)
     public void test_method_no_args_with_thread_count() {
         methodNoArgsInvocationCount.incrementAndGet();
@@ -325,11 +942,59 @@ public class FluffyThreadSafetyTest {
         methodNoArgsInvocationCount.incrementAndGet();
     }
 
+    @AssertThreadSafety
+    public void test_method_initializer_fails() {
+        throw EXPECTED_INITIALIZER_ERROR;
+    }
+
     @AssertThreadSafety
     public void test_method_with_args(final Object argOne, final String argTwo, final Boolean argThree) {
         methodWithArgsInvocationCount.incrementAndGet();
     }
 
+    private static final class ContendedLock {
+        // Only used for synchronization.
+    }
+
+    public static final class CustomThreadFactory implements ThreadFactory {
+        static final String THREAD_NAME_PREFIX = "custom-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            return new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+        }
+    }
+
+    private void rootStoreWillBeAvailable() {
+        when(extensionContextMock.getRoot()).thenReturn(extensionContextMock);
+        when(extensionContextMock.getStore(any())).thenReturn(storeMock);
+        when(storeMock.getOrComputeIfAbsent(any(), any(), any())).thenAnswer(invocation -> {
+            final Function<Object, Object> creator = invocation.getArgument(1);
+            return store.computeIfAbsent(invocation.getArgument(0), creator);
+        });
+    }
+
+    private ThreadSafetyContext contextPlaceholder() {
+        return (ThreadSafetyContext) underTest.resolveParameter(mock(ParameterContext.class), extensionContextMock);
+    }
+
+    private ParameterContext parameterContext(final Parameter parameter) {
+        final var result = mock(ParameterContext.class);
+        when(result.getParameter()).thenReturn(parameter);
+        when(result.getDeclaringExecutable()).thenReturn(parameter.getDeclaringExecutable());
+        return result;
+    }
+
+    private static String failingScheduleDescription(final Throwable error) {
+        return Stream.concat(Stream.of(error), Stream.of(error.getSuppressed()))
+            .flatMap(throwable -> Stream.concat(Stream.of(throwable), Stream.of(throwable.getSuppressed())))
+            .map(Throwable::getMessage)
+            .filter(message -> message != null && message.startsWith("Test failed in round"))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No failing schedule reported.", error));
+    }
+
     private void targetWillBeEmpty() {
         when(invocationContextMock.getTarget()).thenReturn(Optional.empty());
     }
@@ -0,0 +1,19 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertIsStaticHelper;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+import org.junit.jupiter.api.Test;
+
+public class FluffyYieldTest {
+
+    @Test
+    public void is_static_helper() {
+        assertIsStaticHelper(FluffyYield.class);
+    }
+
+    @Test
+    public void yield_point_outside_of_explore_test_does_nothing() {
+        assertDoesNotThrow(FluffyYield::point);
+    }
+}
@@ -0,0 +1,34 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class HangDetectorTest {
+
+    private final HangDetector underTest =
+        new HangDetector(new ThreadSafetyRun(1, 1, Duration.ZERO, false, StartAlignment.PARK, null, ResultAssertion.NONE, () -> {
+        }));
+
+    @Test
+    public void poll_interval_doubles_with_each_look_for_dead_locks() {
+        assertThat(underTest.pollInterval()).isEqualTo(HangDetector.INITIAL_POLL_INTERVAL);
+
+        assertThat(underTest.isDeadlocked()).isFalse();
+        assertThat(underTest.pollInterval()).isEqualTo(HangDetector.INITIAL_POLL_INTERVAL.multipliedBy(2));
+
+        assertThat(underTest.isDeadlocked()).isFalse();
+        assertThat(underTest.pollInterval()).isEqualTo(HangDetector.INITIAL_POLL_INTERVAL.multipliedBy(4));
+    }
+
+    @Test
+    public void poll_interval_does_not_exceed_max() {
+        for (int i = 0; i < 10; i++) {
+            underTest.isDeadlocked();
+        }
+
+        assertThat(underTest.pollInterval()).isEqualTo(HangDetector.MAX_POLL_INTERVAL);
+    }
+}
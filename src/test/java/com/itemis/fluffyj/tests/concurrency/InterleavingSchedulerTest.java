@@ -0,0 +1,21 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class InterleavingSchedulerTest {
+
+    @Test
+    public void round_seed_is_seed_plus_round_index() {
+        assertThat(InterleavingScheduler.seedOfRound(4711L, 0)).isEqualTo(4711L);
+        assertThat(InterleavingScheduler.seedOfRound(4711L, 3)).isEqualTo(4714L);
+    }
+
+    @Test
+    public void round_seed_is_never_zero() {
+        // 0 stands for a random seed and could not be used to replay the round.
+        assertThat(InterleavingScheduler.seedOfRound(-3L, 3)).isEqualTo(1L);
+        assertThat(InterleavingScheduler.seedOfRound(-3L, 2)).isEqualTo(-1L);
+    }
+}
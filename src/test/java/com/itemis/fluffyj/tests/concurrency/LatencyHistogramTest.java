@@ -0,0 +1,99 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new LatencyHistogram();
+    }
+
+    @Test
+    public void empty_histogram_has_zero_percentiles() {
+        assertThat(underTest.count()).isZero();
+        assertThat(underTest.percentile(99)).isZero();
+        assertThat(underTest.max()).isZero();
+    }
+
+    @Test
+    public void few_values_are_exact() {
+        underTest.record(300);
+        underTest.record(100);
+        underTest.record(200);
+
+        assertThat(underTest.count()).isEqualTo(3);
+        assertThat(underTest.percentile(50)).isEqualTo(200);
+        assertThat(underTest.percentile(100)).isEqualTo(300);
+        assertThat(underTest.max()).isEqualTo(300);
+    }
+
+    @Test
+    public void many_values_are_within_relative_error() {
+        for (long value = 1; value <= 100_000; value++) {
+            underTest.record(value * 1000);
+        }
+
+        assertThat(underTest.count()).isEqualTo(100_000);
+        assertThat(underTest.percentile(50)).isCloseTo(50_000_000L, within(50_000_000L / 16));
+        assertThat(underTest.percentile(99)).isCloseTo(99_000_000L, within(99_000_000L / 16));
+        assertThat(underTest.percentile(100)).isEqualTo(100_000_000L);
+        assertThat(underTest.max()).isEqualTo(100_000_000L);
+    }
+
+    @Test
+    public void percentiles_are_upper_bounds() {
+        for (long value = 1; value <= 10_000; value++) {
+            underTest.record(value * 997);
+        }
+
+        assertThat(underTest.percentile(50)).isGreaterThanOrEqualTo(5_000 * 997L);
+    }
+
+    @Test
+    public void negative_values_are_recorded_as_zero() {
+        underTest.record(-5);
+
+        assertThat(underTest.percentile(100)).isZero();
+    }
+
+    @Test
+    public void add_merges_values() {
+        var other = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            other.record(value);
+        }
+        underTest.record(5000);
+
+        underTest.add(other);
+
+        assertThat(underTest.count()).isEqualTo(1001);
+        assertThat(underTest.max()).isEqualTo(5000);
+        assertThat(underTest.percentile(50)).isCloseTo(500L, within(500L / 16));
+    }
+
+    @Test
+    public void add_merges_few_values() {
+        var other = new LatencyHistogram();
+        other.record(10);
+        underTest.record(20);
+
+        underTest.add(other);
+
+        assertThat(underTest.count()).isEqualTo(2);
+        assertThat(underTest.percentile(50)).isEqualTo(10);
+    }
+
+    @Test
+    public void invalid_percentile_is_rejected() {
+        assertThatThrownBy(() -> underTest.percentile(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> underTest.percentile(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,58 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class ResultAssertionTest {
+
+    private static final int ROUND = 7;
+
+    @Test
+    public void none_accepts_anything() {
+        assertThatCode(() -> ResultAssertion.NONE.check(new Object[] {null, "a"}, ROUND)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void all_identical_accepts_equal_results() {
+        assertThatCode(() -> ResultAssertion.ALL_IDENTICAL.check(new Object[] {"a", new String("a")}, ROUND)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void all_identical_rejects_different_results() {
+        assertThatThrownBy(() -> ResultAssertion.ALL_IDENTICAL.check(new Object[] {"a", "a", "b"}, ROUND))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("round " + ROUND).hasMessageContaining("thread 2 got b");
+    }
+
+    @Test
+    public void all_distinct_rejects_duplicates() {
+        assertThatThrownBy(() -> ResultAssertion.ALL_DISTINCT.check(new Object[] {1, 2, 1}, ROUND))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("Threads 0 and 2 both got 1");
+    }
+
+    @Test
+    public void permutation_accepts_shuffled_range() {
+        assertThatCode(() -> ResultAssertion.PERMUTATION.check(new Object[] {12L, 10, (short) 11, (byte) 13}, ROUND)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void permutation_rejects_gaps_and_duplicates() {
+        assertThatThrownBy(() -> ResultAssertion.PERMUTATION.check(new Object[] {1, 3, 4}, ROUND)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Missing 2");
+        assertThatThrownBy(() -> ResultAssertion.PERMUTATION.check(new Object[] {1, 2, 2}, ROUND)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Duplicate 2");
+    }
+
+    @Test
+    public void permutation_rejects_non_integral_results() {
+        assertThatThrownBy(() -> ResultAssertion.PERMUTATION.check(new Object[] {1, 2.0}, ROUND)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("not an integral number");
+    }
+
+    @Test
+    public void missing_results_are_rejected() {
+        assertThatThrownBy(() -> ResultAssertion.ALL_DISTINCT.check(new Object[] {1, null}, ROUND)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Thread 1 did not set a result in round " + ROUND);
+    }
+}
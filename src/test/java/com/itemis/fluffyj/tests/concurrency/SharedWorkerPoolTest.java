@@ -0,0 +1,138 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static com.itemis.fluffyj.tests.concurrency.FluffyTestLatches.assertLatch;
+import static java.util.Collections.synchronizedSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SharedWorkerPoolTest {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration RELEASE_TIMEOUT = Duration.ofMillis(200);
+    private static final String THREAD_NAME_PREFIX = "shared";
+    private static final int BACK_TO_BACK_LEASES = 500;
+
+    private final Set<Thread> threadsThatRanWorkers = synchronizedSet(new HashSet<>());
+    private final AtomicBoolean stopStubbornWorker = new AtomicBoolean(false);
+
+    private SharedWorkerPool underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new SharedWorkerPool(SharedWorkerPool.platformThreads(THREAD_NAME_PREFIX));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stopStubbornWorker.set(true);
+        underTest.close();
+    }
+
+    @Test
+    public void leases_reuse_threads() throws Exception {
+        runWorkersConcurrently(2);
+        runWorkersConcurrently(2);
+
+        assertThat(threadsThatRanWorkers).hasSize(2);
+    }
+
+    @Test
+    public void back_to_back_leases_keep_threads() throws Exception {
+        // Threads of a pool are still busy with bookkeeping right after their task has finished.
+        // This must not make the next lease replace them.
+        for (int i = 0; i < BACK_TO_BACK_LEASES; i++) {
+            runWorkersConcurrently(2);
+        }
+
+        assertThat(threadsThatRanWorkers).hasSize(2);
+    }
+
+    @Test
+    public void pool_grows_to_largest_thread_count() throws Exception {
+        runWorkersConcurrently(2);
+        runWorkersConcurrently(5);
+
+        assertThat(threadsThatRanWorkers).hasSize(5);
+    }
+
+    @Test
+    public void threads_are_named_and_daemon() throws Exception {
+        runWorkersConcurrently(1);
+
+        assertThat(threadsThatRanWorkers).allMatch(thread -> thread.getName().startsWith(THREAD_NAME_PREFIX) && thread.isDaemon());
+    }
+
+    @Test
+    public void when_workers_do_not_stop_then_release_fails_and_threads_are_replaced() throws Exception {
+        var lease = underTest.lease(1);
+        var stubbornWorkerStarted = new CountDownLatch(1);
+        var stubbornThread = new Thread[1];
+        lease.submit(() -> {
+            stubbornThread[0] = Thread.currentThread();
+            stubbornWorkerStarted.countDown();
+            while (!stopStubbornWorker.get()) {
+                // Ignore interrupts on purpose.
+            }
+        });
+        assertLatch(stubbornWorkerStarted, DEFAULT_TIMEOUT);
+
+        assertThat(lease.release(RELEASE_TIMEOUT)).as("Release must fail if workers do not stop.").isFalse();
+
+        runWorkersConcurrently(1);
+        assertThat(threadsThatRanWorkers).doesNotContain(stubbornThread[0]);
+    }
+
+    @Test
+    public void workers_of_released_lease_do_not_start() throws Exception {
+        var lease = underTest.lease(1);
+        var blockerStarted = new CountDownLatch(1);
+        var lateWorkerRan = new AtomicBoolean(false);
+        lease.submit(() -> {
+            blockerStarted.countDown();
+            try {
+                Thread.sleep(DEFAULT_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        lease.submit(() -> lateWorkerRan.set(true));
+        assertLatch(blockerStarted, DEFAULT_TIMEOUT);
+
+        assertThat(lease.release(RELEASE_TIMEOUT)).isTrue();
+        runWorkersConcurrently(1);
+
+        assertThat(lateWorkerRan).isFalse();
+    }
+
+    private void runWorkersConcurrently(int threadCount) throws Exception {
+        var lease = underTest.lease(threadCount);
+        var allWorkersStarted = new CountDownLatch(threadCount);
+        var workersDone = new CountDownLatch(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                lease.submit(() -> {
+                    threadsThatRanWorkers.add(Thread.currentThread());
+                    allWorkersStarted.countDown();
+                    try {
+                        allWorkersStarted.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    workersDone.countDown();
+                });
+            }
+            assertLatch(workersDone, DEFAULT_TIMEOUT);
+        } finally {
+            assertThat(lease.release(RELEASE_TIMEOUT)).isTrue();
+        }
+    }
+}
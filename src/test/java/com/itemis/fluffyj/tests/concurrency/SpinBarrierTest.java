@@ -0,0 +1,90 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpinBarrierTest {
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration SPIN_BUDGET = Duration.ofMillis(1);
+    private static final int PARTIES = 4;
+    private static final int ROUNDS = 100;
+
+    private final AtomicInteger barrierActionCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARTIES);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void barrier_action_runs_once_per_round_before_threads_are_released() throws Exception {
+        final var underTest = new SpinBarrier(PARTIES, barrierActionCount::incrementAndGet, SPIN_BUDGET);
+
+        assertThat(awaitRounds(underTest)).allMatch(Boolean::booleanValue);
+        assertThat(barrierActionCount).hasValue(ROUNDS);
+    }
+
+    @Test
+    public void threads_are_released_after_falling_back_to_parking() throws Exception {
+        final var underTest = new SpinBarrier(PARTIES, barrierActionCount::incrementAndGet, Duration.ZERO);
+
+        assertThat(awaitRounds(underTest)).allMatch(Boolean::booleanValue);
+        assertThat(barrierActionCount).hasValue(ROUNDS);
+    }
+
+    @Test
+    public void interrupted_thread_breaks_barrier() {
+        final var underTest = new SpinBarrier(2, barrierActionCount::incrementAndGet, SPIN_BUDGET);
+
+        Thread.currentThread().interrupt();
+        assertThatThrownBy(underTest::await).isInstanceOf(InterruptedException.class);
+        assertThatThrownBy(underTest::await).isInstanceOf(BrokenBarrierException.class);
+        assertThat(barrierActionCount).hasValue(0);
+    }
+
+    @Test
+    public void less_than_one_party_is_rejected() {
+        assertThatThrownBy(() -> new SpinBarrier(0, () -> {}, SPIN_BUDGET)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Boolean> awaitRounds(final SpinBarrier underTest) throws InterruptedException, ExecutionException {
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < PARTIES; i++) {
+            futures.add(executor.submit(() -> {
+                var sawAllActions = true;
+                for (int round = 1; round <= ROUNDS; round++) {
+                    underTest.await();
+                    sawAllActions &= barrierActionCount.get() >= round;
+                }
+                return sawAllActions;
+            }));
+        }
+
+        final List<Boolean> result = new ArrayList<>();
+        for (final var future : futures) {
+            try {
+                result.add(future.get(DEFAULT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (final TimeoutException e) {
+                throw new AssertionError("Threads did not pass the barrier in time.", e);
+            }
+        }
+        return result;
+    }
+}
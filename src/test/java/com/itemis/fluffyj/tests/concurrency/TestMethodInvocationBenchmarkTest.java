@@ -0,0 +1,105 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Compares the start skew of multi-threaded runs that call the test method through a
+ * {@link TestMethodInvocation} with runs that call it through
+ * {@link Method#invoke(Object, Object...)}. The start skew is what the method handle is supposed
+ * to improve, i. e. the time between the first and the last thread entering the test method after
+ * being released by the start barrier.
+ * </p>
+ * <p>
+ * Both paths are played by the same {@link ThreadSafetyRun} with the same settings. Results are
+ * published as report entries of the tests. Nothing about the results is asserted, because they
+ * depend on the machine, its load and the JIT. Run with {@code mvn test -Pbenchmarks}.
+ * </p>
+ */
+@Tag("benchmark")
+public class TestMethodInvocationBenchmarkTest {
+
+    private static final int THREAD_COUNT = 4;
+    private static final int WARM_UP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 20_000;
+
+    private final AtomicLong invocationCount = new AtomicLong();
+
+    @Test
+    public void start_skew_method_handle(TestReporter reporter) throws Exception {
+        var invocation = TestMethodInvocation.bind(testMethod(), this, new Object[] {"arg", 1}).orElseThrow();
+
+        measureStartSkew(() -> {
+            try {
+                invocation.invoke();
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }, "method handle", reporter);
+    }
+
+    @Test
+    public void start_skew_reflection(TestReporter reporter) throws Exception {
+        var method = testMethod();
+        var args = new Object[] {"arg", 1};
+
+        measureStartSkew(() -> {
+            try {
+                method.invoke(this, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "reflection", reporter);
+    }
+
+    public void test_method(String arg, int increment) {
+        invocationCount.addAndGet(increment);
+    }
+
+    private Method testMethod() throws NoSuchMethodException {
+        return getClass().getMethod("test_method", String.class, int.class);
+    }
+
+    private void measureStartSkew(Runnable body, String path, TestReporter reporter) throws InterruptedException {
+        play(WARM_UP_ROUNDS, body);
+        var run = play(MEASURED_ROUNDS, body);
+
+        var skews = run.startSkews();
+        reporter.publishEntry("start skew " + path,
+            "median " + skews.percentile(50) + " ns, 99th percentile " + skews.percentile(99) + " ns, max " + skews.max() + " ns, rounds "
+                + skews.count() + ", threads " + THREAD_COUNT);
+        assertThat(run.failures()).containsOnlyNulls();
+        assertThat(invocationCount).hasValue((long) THREAD_COUNT * (WARM_UP_ROUNDS + MEASURED_ROUNDS));
+    }
+
+    private static ThreadSafetyRun play(int rounds, Runnable body) throws InterruptedException {
+        var run = new ThreadSafetyRun(THREAD_COUNT, rounds, Duration.ZERO, false, StartAlignment.PARK, null, ResultAssertion.NONE, () -> {
+        });
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            var workerIndex = i;
+            var thread = new Thread(() -> {
+                try {
+                    run.work(workerIndex, body);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        return run;
+    }
+}
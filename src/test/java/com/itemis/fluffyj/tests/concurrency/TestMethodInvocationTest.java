@@ -0,0 +1,102 @@
+package com.itemis.fluffyj.tests.concurrency;
+
+import static com.itemis.fluffyj.tests.exceptions.ExpectedExceptions.EXPECTED_CHECKED_EXCEPTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMethodInvocationTest {
+
+    private static final String PACKAGE_PRIVATE_TEST_CLASS = "com.itemis.fluffyj.tests.PackagePrivateThreadSafetyTest";
+    private static final AtomicInteger STATIC_METHOD_INVOCATION_COUNT = new AtomicInteger();
+
+    private final AtomicInteger methodInvocationCount = new AtomicInteger();
+    private String receivedArg;
+
+    @Test
+    public void bound_invocation_calls_method_with_args() throws Throwable {
+        var invocation = TestMethodInvocation.bind(getClass().getMethod("method_with_arg", String.class), this, new Object[] {"expected"});
+
+        assertThat(invocation).isPresent();
+        invocation.get().invoke();
+
+        assertThat(methodInvocationCount).hasValue(1);
+        assertThat(receivedArg).isEqualTo("expected");
+    }
+
+    @Test
+    public void bound_invocation_calls_static_method() throws Throwable {
+        var invocation = TestMethodInvocation.bind(getClass().getMethod("static_method"), null, new Object[0]);
+
+        assertThat(invocation).isPresent();
+        invocation.get().invoke();
+
+        assertThat(STATIC_METHOD_INVOCATION_COUNT).hasPositiveValue();
+    }
+
+    @Test
+    public void bound_invocation_does_not_wrap_exceptions() throws Exception {
+        var invocation = TestMethodInvocation.bind(getClass().getMethod("method_throws"), this, new Object[0]);
+
+        assertThat(invocation).isPresent();
+        assertThatThrownBy(() -> invocation.get().invoke()).isSameAs(EXPECTED_CHECKED_EXCEPTION);
+    }
+
+    @Test
+    public void inaccessible_method_is_not_bound() throws Exception {
+        var invocation = TestMethodInvocation.bind(getClass().getDeclaredMethod("inaccessible_method"), this, new Object[0]);
+
+        assertThat(invocation).isEmpty();
+    }
+
+    @Test
+    public void method_of_package_private_class_is_bound_once_accessible() throws Throwable {
+        var testClass = Class.forName(PACKAGE_PRIVATE_TEST_CLASS);
+        var constructor = testClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        var method = testClass.getDeclaredMethod("package_private_test_method");
+        var target = constructor.newInstance();
+
+        assertThat(TestMethodInvocation.bind(method, target, new Object[0])).isEmpty();
+
+        // JUnit does the same before calling a test method.
+        method.setAccessible(true);
+        var invocation = TestMethodInvocation.bind(method, target, new Object[0]);
+
+        assertThat(invocation).isPresent();
+        invocation.get().invoke();
+    }
+
+    @Test
+    public void method_with_wrong_args_is_not_bound() throws Exception {
+        var invocation = TestMethodInvocation.bind(getClass().getMethod("method_with_arg", String.class), this, new Object[] {Boolean.TRUE});
+
+        assertThat(invocation).isEmpty();
+    }
+
+    @Test
+    public void method_with_superfluous_args_is_not_bound() throws Exception {
+        var invocation = TestMethodInvocation.bind(getClass().getMethod("method_throws"), this, new Object[] {"superfluous"});
+
+        assertThat(invocation).isEmpty();
+    }
+
+    public void method_with_arg(String arg) {
+        methodInvocationCount.incrementAndGet();
+        receivedArg = arg;
+    }
+
+    public void method_throws() throws Exception {
+        throw EXPECTED_CHECKED_EXCEPTION;
+    }
+
+    public static void static_method() {
+        STATIC_METHOD_INVOCATION_COUNT.incrementAndGet();
+    }
+
+    @SuppressWarnings("unused")
+    private void inaccessible_method() {}
+}
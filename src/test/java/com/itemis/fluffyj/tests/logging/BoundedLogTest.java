@@ -0,0 +1,160 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+
+public class BoundedLogTest {
+
+    private static final int CAPACITY = 3;
+
+    @Test
+    public void constructor_does_not_accept_invalid_bounds() {
+        assertThatThrownBy(() -> new BoundedLog(0, Long.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("capacity");
+        assertThatThrownBy(() -> new BoundedLog(CAPACITY, 0)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("maxBytes");
+    }
+
+    @Test
+    public void keeps_latest_entries() {
+        var underTest = new BoundedLog(CAPACITY, Long.MAX_VALUE);
+
+        for (int i = 0; i < 5; i++) {
+            underTest.add(createEntry(Level.INFO, "msg " + i));
+        }
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("msg 2", "msg 3", "msg 4");
+        assertThat(underTest.contains(Level.INFO, "msg 1")).isFalse();
+        assertThat(underTest.contains(Level.INFO, "msg 4")).isTrue();
+    }
+
+    @Test
+    public void keeps_latest_entries_across_chunks() {
+        var capacity = BoundedLog.CHUNK_SIZE + 3;
+        var underTest = new BoundedLog(capacity, Long.MAX_VALUE);
+
+        var expected = new ArrayList<String>();
+        for (int i = 0; i < 2 * BoundedLog.CHUNK_SIZE; i++) {
+            underTest.add(createEntry(Level.INFO, "msg " + i));
+            expected.add("msg " + i);
+        }
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactlyElementsOf(expected.subList(expected.size() - capacity,
+            expected.size()));
+        assertThat(underTest.contains(Level.INFO, "msg " + (2 * BoundedLog.CHUNK_SIZE - 1))).isTrue();
+    }
+
+    @Test
+    public void large_capacity_is_allocated_as_needed() {
+        var underTest = new BoundedLog(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        underTest.add(createEntry(Level.INFO, "first"));
+        underTest.add(createEntry(Level.WARN, "second"));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("first", "second");
+        assertThat(underTest.contains(Level.WARN, "second")).isTrue();
+        assertThat(underTest.missing(Level.INFO, List.of("first", "third"))).containsExactly("third");
+    }
+
+    @Test
+    public void counts_evicted_entries_per_level() {
+        var underTest = new BoundedLog(CAPACITY, Long.MAX_VALUE);
+
+        underTest.add(createEntry(Level.WARN, "warn"));
+        underTest.add(createEntry(Level.INFO, "info 1"));
+        underTest.add(createEntry(Level.INFO, "info 2"));
+        underTest.add(createEntry(Level.INFO, "info 3"));
+        underTest.add(createEntry(Level.INFO, "info 4"));
+
+        assertThat(underTest.evictedCount(Level.WARN)).isEqualTo(1);
+        assertThat(underTest.evictedCount(Level.INFO)).isEqualTo(1);
+        assertThat(underTest.evictedCount(Level.ERROR)).isZero();
+    }
+
+    @Test
+    public void keeps_entries_that_fit_byte_budget() {
+        var entry = createEntry(Level.INFO, "msg");
+        var underTest = new BoundedLog(10, entry.estimatedBytes() * 2L);
+
+        for (int i = 0; i < 5; i++) {
+            underTest.add(createEntry(Level.INFO, "ms" + i));
+        }
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("ms3", "ms4");
+        assertThat(underTest.retainedBytes()).isEqualTo(entry.estimatedBytes() * 2L);
+        assertThat(underTest.evictedCount(Level.INFO)).isEqualTo(3);
+    }
+
+    @Test
+    public void keeps_latest_entry_even_if_it_exceeds_byte_budget() {
+        var underTest = new BoundedLog(CAPACITY, 1);
+
+        underTest.add(createEntry(Level.INFO, "first"));
+        underTest.add(createEntry(Level.INFO, "second"));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("second");
+    }
+
+    @Test
+    public void log_with_evicted_entries_is_not_empty() {
+        var underTest = new BoundedLog(1, 1);
+        assertThat(underTest.isEmpty()).isTrue();
+
+        underTest.add(createEntry(Level.INFO, "first"));
+        underTest.add(createEntry(Level.INFO, "second"));
+
+        assertThat(underTest.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void missing_looks_at_kept_entries_of_level() {
+        var underTest = new BoundedLog(CAPACITY, Long.MAX_VALUE);
+        underTest.add(createEntry(Level.INFO, "evicted"));
+        underTest.add(createEntry(Level.INFO, "first"));
+        underTest.add(createEntry(Level.WARN, "second"));
+        underTest.add(createEntry(Level.INFO, "third"));
+
+        assertThat(underTest.missing(Level.INFO, List.of("evicted", "first", "second", "third"))).containsExactly("evicted", "second");
+    }
+
+    @Test
+    public void counters_are_exact_with_concurrent_adds() throws Exception {
+        var threadCount = 8;
+        var entriesPerThread = 10_000;
+        var underTest = new BoundedLog(100, 5_000);
+        var executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < entriesPerThread; j++) {
+                        underTest.add(createEntry(j % 2 == 0 ? Level.INFO : Level.WARN, "msg " + j));
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var kept = underTest.snapshot();
+        assertThat(kept.size() + underTest.evictedCount(Level.INFO) + underTest.evictedCount(Level.WARN))
+            .isEqualTo((long) threadCount * entriesPerThread);
+        assertThat(underTest.retainedBytes()).isEqualTo(kept.stream().mapToLong(LogEntry::estimatedBytes).sum());
+    }
+
+    private static LogEntry createEntry(Level level, String msg) {
+        return LogEntry.of(level, msg);
+    }
+}
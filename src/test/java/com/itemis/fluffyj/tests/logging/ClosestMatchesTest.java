@@ -0,0 +1,77 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static com.itemis.fluffyj.tests.FluffyTestHelper.assertIsStaticHelper;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+public class ClosestMatchesTest {
+
+    @Test
+    public void is_static_helper() {
+        assertIsStaticHelper(ClosestMatches.class);
+    }
+
+    @Test
+    public void distance_is_zero_for_contained_parts() {
+        assertThat(ClosestMatches.distance("a very fluffy message", "fluffy")).isZero();
+    }
+
+    @Test
+    public void distance_counts_edits_within_text() {
+        assertThat(ClosestMatches.distance("a very fluffy message", "fluffi")).isEqualTo(1);
+        assertThat(ClosestMatches.distance("a very fluffy message", "fluff message")).isEqualTo(1);
+        assertThat(ClosestMatches.distance("abc", "xyz")).isEqualTo(3);
+        assertThat(ClosestMatches.distance("", "abc")).isEqualTo(3);
+    }
+
+    @Test
+    public void describes_closest_entries_first() {
+        var entries = List.of(createEntry(Level.INFO, "connection closed"), createEntry(Level.INFO, "connection opened"),
+            createEntry(Level.INFO, "request handled"));
+
+        var result = ClosestMatches.describe(entries, Level.INFO, "connection openned", 2);
+
+        assertThat(result).isEqualTo("Closest matches: [INFO] connection opened; [INFO] connection closed");
+    }
+
+    @Test
+    public void prefers_entries_of_level_looked_for() {
+        var entries = List.of(createEntry(Level.WARN, "connection opened"), createEntry(Level.INFO, "connection opened"));
+
+        var result = ClosestMatches.describe(entries, Level.INFO, "connection openned", 1);
+
+        assertThat(result).isEqualTo("Closest matches: [INFO] connection opened");
+    }
+
+    @Test
+    public void shows_entries_of_other_levels() {
+        var entries = List.of(createEntry(Level.WARN, "connection opened"));
+
+        var result = ClosestMatches.describe(entries, Level.INFO, "connection opened", 1);
+
+        assertThat(result).isEqualTo("Closest matches: [WARN] connection opened");
+    }
+
+    @Test
+    public void tells_if_nothing_comes_close() {
+        var entries = List.of(createEntry(Level.INFO, "xyz"));
+
+        assertThat(ClosestMatches.describe(entries, Level.INFO, "abc", 1)).isEqualTo("No similar messages captured.");
+        assertThat(ClosestMatches.describe(List.of(), Level.INFO, "abc", 1)).isEqualTo("No similar messages captured.");
+    }
+
+    private static LogEntry createEntry(Level level, String msg) {
+        var event = mock(ILoggingEvent.class);
+        when(event.getLevel()).thenReturn(level);
+        when(event.getMessage()).thenReturn(msg);
+        return LogEntry.of(event);
+    }
+}
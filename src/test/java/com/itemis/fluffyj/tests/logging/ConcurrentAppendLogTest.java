@@ -0,0 +1,118 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ConcurrentAppendLogTest {
+
+    private static final int THREAD_COUNT = 8;
+    private static final int ELEMENTS_PER_THREAD = ConcurrentAppendLog.CHUNK_SIZE * 3 + 7;
+
+    private ConcurrentAppendLog<Integer> underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new ConcurrentAppendLog<>();
+    }
+
+    @Test
+    public void new_log_is_empty() {
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(underTest.snapshot()).isEmpty();
+    }
+
+    @Test
+    public void add_adds() {
+        underTest.add(1);
+
+        assertThat(underTest.isEmpty()).isFalse();
+        assertThat(underTest.snapshot()).containsExactly(1);
+    }
+
+    @Test
+    public void add_does_not_accept_null() {
+        assertThatThrownBy(() -> underTest.add(null)).isInstanceOf(NullPointerException.class).hasMessageContaining("element");
+    }
+
+    @Test
+    public void snapshot_keeps_order_across_chunks() {
+        var expected = IntStream.range(0, ConcurrentAppendLog.CHUNK_SIZE * 5 + 1).boxed().collect(Collectors.toList());
+
+        expected.forEach(underTest::add);
+
+        assertThat(underTest.snapshot()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void snapshot_is_a_copy() {
+        underTest.add(1);
+        var snapshot = underTest.snapshot();
+
+        underTest.add(2);
+
+        assertThat(snapshot).containsExactly(1);
+    }
+
+    @Test
+    public void concurrent_adds_are_all_kept() throws Exception {
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                var offset = i * ELEMENTS_PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ELEMENTS_PER_THREAD; j++) {
+                        underTest.add(offset + j);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.snapshot()).containsExactlyInAnyOrderElementsOf(
+            IntStream.range(0, THREAD_COUNT * ELEMENTS_PER_THREAD).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void elements_of_one_thread_keep_their_order() throws Exception {
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var writer = executor.submit(() -> {
+                for (int i = 0; i < ELEMENTS_PER_THREAD; i++) {
+                    underTest.add(i);
+                }
+            });
+            var noise = executor.submit(() -> {
+                for (int i = 0; i < ELEMENTS_PER_THREAD; i++) {
+                    underTest.add(-1);
+                }
+            });
+            writer.get(10, TimeUnit.SECONDS);
+            noise.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.snapshot().stream().filter(element -> element >= 0)).isSorted().hasSize(ELEMENTS_PER_THREAD);
+    }
+}
@@ -0,0 +1,142 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+public class FluffyDisabledLevelDetectorTest {
+
+    private static final Logger LOG = (Logger) LoggerFactory.getLogger(FluffyDisabledLevelDetectorTest.class);
+
+    private ExtensionContext extensionCtxMock;
+    private Level previousLevel;
+
+    private FluffyDisabledLevelDetector underTest;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        previousLevel = LOG.getLevel();
+        LOG.setLevel(Level.INFO);
+        extensionCtxMock = mock(ExtensionContext.class);
+
+        underTest = new FluffyDisabledLevelDetector();
+        underTest.beforeEach(extensionCtxMock);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        underTest.afterEach(extensionCtxMock);
+        LOG.setLevel(previousLevel);
+    }
+
+    @Test
+    public void counts_calls_at_disabled_levels_only() {
+        for (int i = 0; i < 2; i++) {
+            LOG.debug("constant");
+            LOG.debug("placeholder {}", i);
+            LOG.debug("constant argument {}", "constant");
+            LOG.info("enabled " + System.nanoTime());
+        }
+
+        assertThat(underTest.disabledCallCount()).isEqualTo(6);
+        assertThat(underTest.preformattedCallCount()).isZero();
+        Assertions.assertDoesNotThrow(() -> underTest.assertNoPreformattedMessages());
+    }
+
+    @Test
+    public void detects_preformatted_messages() {
+        var value = System.nanoTime();
+        for (int i = 0; i < 2; i++) {
+            LOG.debug("concatenated " + value);
+            LOG.trace(String.format("formatted %d", value));
+        }
+
+        assertThat(underTest.disabledCallCount()).isEqualTo(4);
+        assertThat(underTest.preformattedCallCount()).isEqualTo(2);
+        assertThatThrownBy(() -> underTest.assertNoPreformattedMessages()).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Found 2 of 4").hasMessageContaining("concatenated " + value + " (message built per call)")
+            .hasMessageContaining(FluffyDisabledLevelDetectorTest.class.getName() + ".detects_preformatted_messages");
+    }
+
+    @Test
+    public void detects_preformatted_arguments() {
+        var value = System.nanoTime();
+        var order = List.of(value);
+        for (int i = 0; i < 2; i++) {
+            LOG.debug("sum {}", "value " + value);
+            LOG.debug("order {} of {}", order.toString(), "constant");
+        }
+
+        assertThat(underTest.preformattedCallCount()).isEqualTo(2);
+        assertThatThrownBy(() -> underTest.assertNoPreformattedMessages()).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("sum {} (argument 1 built per call)").hasMessageContaining("order {} of {} (argument 1 built per call)");
+    }
+
+    @Test
+    public void does_not_report_strings_that_are_the_same_instance_on_each_call() {
+        var notConstant = "built once " + System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            LOG.debug(notConstant);
+            LOG.debug("value {}", notConstant);
+        }
+
+        assertThat(underTest.disabledCallCount()).isEqualTo(6);
+        assertThat(underTest.preformattedCallCount()).isZero();
+    }
+
+    @Test
+    public void judges_call_sites_from_second_call_on() {
+        LOG.debug("concatenated " + System.nanoTime());
+
+        assertThat(underTest.disabledCallCount()).isOne();
+        assertThat(underTest.preformattedCallCount()).isZero();
+    }
+
+    @Test
+    public void does_not_count_level_checks() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("guarded " + System.nanoTime());
+        }
+
+        assertThat(underTest.disabledCallCount()).isZero();
+    }
+
+    @Test
+    public void does_not_change_whether_messages_are_logged() throws Exception {
+        var appender = new FluffyTestAppender();
+        appender.beforeEach(extensionCtxMock);
+        try {
+            LOG.debug("disabled " + System.nanoTime());
+            LOG.info("enabled");
+
+            appender.assertLogContains(Level.INFO, "enabled");
+            assertThatThrownBy(() -> appender.assertLogContains(Level.DEBUG, "disabled")).isInstanceOf(AssertionError.class);
+        } finally {
+            appender.afterEach(extensionCtxMock);
+        }
+    }
+
+    @Test
+    public void afterEach_removes_filter_and_resets_counts() throws Exception {
+        LOG.debug("concatenated " + System.nanoTime());
+
+        underTest.afterEach(extensionCtxMock);
+        LOG.debug("concatenated " + System.nanoTime());
+
+        assertThat(underTest.disabledCallCount()).isZero();
+        assertThat(underTest.preformattedCallCount()).isZero();
+        underTest.beforeEach(extensionCtxMock);
+    }
+}
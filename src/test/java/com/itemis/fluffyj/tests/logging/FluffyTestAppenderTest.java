@@ -1,7 +1,11 @@
 package com.itemis.fluffyj.tests.logging;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.AfterEach;
@@ -11,6 +15,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
@@ -22,6 +35,11 @@ public class FluffyTestAppenderTest {
     private static final Level EXPECTED_LEVEL = Level.INFO;
     private static final String EXPECTED_MSG = "expectedMsg";
 
+    private static final int THREAD_COUNT = 16;
+    private static final int MESSAGES_PER_THREAD = 500;
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(5);
+    private static final String TEST_ID = "[test:this]";
+
     private ILoggingEvent logMsgMock;
     private ExtensionContext extensionCtxMock;
 
@@ -30,6 +48,7 @@ public class FluffyTestAppenderTest {
     @BeforeEach
     public void setUp() throws Exception {
         extensionCtxMock = mock(ExtensionContext.class);
+        when(extensionCtxMock.getUniqueId()).thenReturn(TEST_ID);
 
         logMsgMock = mock(ILoggingEvent.class);
         when(logMsgMock.getLevel()).thenReturn(EXPECTED_LEVEL);
@@ -80,12 +99,57 @@ public class FluffyTestAppenderTest {
         assertSuccess(EXPECTED_LEVEL, "part");
     }
 
+    @Test
+    public void asserts_formatted_messages() {
+        LOG.info("value {} of {}", 1, "two");
+        assertSuccess(EXPECTED_LEVEL, "value 1 of two");
+    }
+
+    @Test
+    public void asserts_messages_as_they_were_when_logged() {
+        var mutableArg = new StringBuilder("before");
+
+        LOG.info("value {}", mutableArg);
+        mutableArg.setLength(0);
+
+        assertSuccess(EXPECTED_LEVEL, "value before");
+    }
+
     @Test
     public void assert_respects_log_levels() {
         LOG.error(EXPECTED_MSG);
         assertFail(Level.INFO, EXPECTED_MSG);
     }
 
+    @Test
+    public void assertLogContainsAll_passes_if_all_parts_are_contained() {
+        LOG.info("first message");
+        LOG.info("second message");
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogContainsAll(EXPECTED_LEVEL, "first", "second message", "message"));
+    }
+
+    @Test
+    public void assertLogContainsAll_reports_all_missing_parts() {
+        LOG.info("first message");
+        LOG.warn("second message");
+
+        assertThatThrownBy(() -> underTest.assertLogContainsAll(EXPECTED_LEVEL, "first", "second", "third"))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Not found in log: [" + EXPECTED_LEVEL + "] [second, third]");
+    }
+
+    @Test
+    public void assertLogContainsAll_passes_without_parts() {
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogContainsAll(EXPECTED_LEVEL));
+    }
+
+    @Test
+    public void assertLogContainsAll_does_not_accept_null_parts() {
+        assertThatThrownBy(() -> underTest.assertLogContainsAll(EXPECTED_LEVEL, "first", null)).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("logMsgs");
+    }
+
     @Test
     public void no_log_means_log_is_empty() {
         underTest.assertLogIsEmpty();
@@ -108,6 +172,415 @@ public class FluffyTestAppenderTest {
         assertThatThrownBy(() -> underTest.assertLogIsNotEmpty()).isInstanceOf(AssertionError.class).hasMessageContaining("Encountered empty log");
     }
 
+    @Test
+    public void concurrent_log_messages_are_all_recorded() throws Exception {
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                var threadIndex = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < MESSAGES_PER_THREAD; j++) {
+                        LOG.info("thread {} message {};", threadIndex, j);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            for (int j = 0; j < MESSAGES_PER_THREAD; j++) {
+                assertSuccess(EXPECTED_LEVEL, "thread " + i + " message " + j + ";");
+            }
+        }
+    }
+
+    @Test
+    public void afterEach_clears_log() throws Exception {
+        LOG.info(EXPECTED_MSG);
+        underTest.afterEach(extensionCtxMock);
+        underTest.assertLogIsEmpty();
+    }
+
+    @Test
+    public void keepLast_keeps_latest_messages() throws Exception {
+        useAppender(new FluffyTestAppender().keepLast(2));
+
+        LOG.info("first");
+        LOG.info("second");
+        LOG.info("third");
+
+        assertSuccess(EXPECTED_LEVEL, "second");
+        assertSuccess(EXPECTED_LEVEL, "third");
+        assertThatThrownBy(() -> underTest.assertLogContains(EXPECTED_LEVEL, "first")).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("evicted entries of this level: 1");
+        assertThat(underTest.evictedCount(EXPECTED_LEVEL)).isEqualTo(1);
+    }
+
+    @Test
+    public void keepLastBytes_keeps_latest_message() throws Exception {
+        useAppender(new FluffyTestAppender().keepLastBytes(1));
+
+        LOG.info("first");
+        LOG.info("second");
+
+        assertSuccess(EXPECTED_LEVEL, "second");
+        assertThat(underTest.evictedCount(EXPECTED_LEVEL)).isEqualTo(1);
+    }
+
+    @Test
+    public void log_with_evicted_messages_is_not_empty() throws Exception {
+        useAppender(new FluffyTestAppender().keepLastBytes(1));
+
+        LOG.info("first");
+        LOG.info("second");
+
+        underTest.assertLogIsNotEmpty();
+        assertThatThrownBy(() -> underTest.assertLogIsEmpty()).isInstanceOf(AssertionError.class).hasMessageContaining("Encountered unempty log");
+    }
+
+    @Test
+    public void bounds_must_be_positive() {
+        assertThatThrownBy(() -> underTest.keepLast(0)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("maxEntries");
+        assertThatThrownBy(() -> underTest.keepLastBytes(0)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("maxBytes");
+    }
+
+    @Test
+    public void byte_budget_must_fit_into_heap() {
+        var maxHeapBytes = Runtime.getRuntime().maxMemory();
+        assumeTrue(maxHeapBytes < Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> underTest.keepLastBytes(maxHeapBytes + 1)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("maxBytes");
+    }
+
+    @Test
+    public void byte_budget_of_whole_heap_does_not_allocate_up_front() throws Exception {
+        useAppender(new FluffyTestAppender().keepLastBytes(Runtime.getRuntime().maxMemory()));
+
+        LOG.info("msg");
+
+        underTest.assertLogContains(Level.INFO, "msg");
+    }
+
+    @Test
+    public void afterEach_resets_evicted_count() throws Exception {
+        underTest.keepLast(1);
+        LOG.info("first");
+        LOG.info("second");
+
+        underTest.afterEach(extensionCtxMock);
+
+        assertThat(underTest.evictedCount(EXPECTED_LEVEL)).isZero();
+    }
+
+    @Test
+    public void captureFrom_captures_messages_of_provided_loggers_only() throws Exception {
+        useAppender(new FluffyTestAppender().captureFrom("fluffy.scoped"));
+
+        LoggerFactory.getLogger("fluffy.scoped").info("scoped");
+        LoggerFactory.getLogger("fluffy.scoped.child").info("child");
+        LoggerFactory.getLogger("fluffy.other").info("other");
+        LOG.info(EXPECTED_MSG);
+
+        underTest.assertLogContainsAll(EXPECTED_LEVEL, "scoped", "child");
+        assertFail(EXPECTED_LEVEL, "other");
+        assertFail(EXPECTED_LEVEL, EXPECTED_MSG);
+    }
+
+    @Test
+    public void captureFrom_accepts_classes() throws Exception {
+        useAppender(new FluffyTestAppender().captureFrom(FluffyTestAppenderTest.class));
+
+        LOG.info(EXPECTED_MSG);
+        LoggerFactory.getLogger("fluffy.other").info("other");
+
+        assertSuccess(EXPECTED_LEVEL, EXPECTED_MSG);
+        assertFail(EXPECTED_LEVEL, "other");
+    }
+
+    @Test
+    public void captureFrom_does_not_capture_messages_of_nested_loggers_twice() throws Exception {
+        // Capturing a message twice would evict the first copy.
+        useAppender(new FluffyTestAppender().captureFrom("fluffy.scoped", "fluffy.scoped.child").keepLast(1));
+
+        LoggerFactory.getLogger("fluffy.scoped.child").info("child");
+
+        assertSuccess(EXPECTED_LEVEL, "child");
+        assertThat(underTest.evictedCount(EXPECTED_LEVEL)).isZero();
+    }
+
+    @Test
+    public void captureFrom_does_not_accept_invalid_names() {
+        assertThatThrownBy(() -> underTest.captureFrom(new String[0])).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("loggerNames");
+        assertThatThrownBy(() -> underTest.captureFrom("fluffy", null)).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("loggerNames");
+    }
+
+    @Test
+    public void minLevel_rejects_lower_levels() throws Exception {
+        useAppender(new FluffyTestAppender().minLevel(Level.WARN));
+
+        LOG.info(EXPECTED_MSG);
+        LOG.warn(EXPECTED_MSG);
+        LOG.error(EXPECTED_MSG);
+
+        assertFail(Level.INFO, EXPECTED_MSG);
+        assertSuccess(Level.WARN, EXPECTED_MSG);
+        assertSuccess(Level.ERROR, EXPECTED_MSG);
+    }
+
+    @Test
+    public void minLevel_rejects_events_before_formatting() {
+        underTest.minLevel(Level.WARN);
+        var event = createLogMsg(Level.DEBUG, EXPECTED_MSG);
+
+        underTest.doAppend(event);
+
+        verify(event, never()).getFormattedMessage();
+        verify(event, never()).getMessage();
+        underTest.assertLogIsEmpty();
+    }
+
+    @Test
+    public void awaitLogContains_returns_if_message_has_been_logged_already() {
+        LOG.info(EXPECTED_MSG);
+
+        Assertions.assertDoesNotThrow(() -> underTest.awaitLogContains(EXPECTED_LEVEL, EXPECTED_MSG, Duration.ZERO));
+    }
+
+    @Test
+    public void awaitLogContains_wakes_up_when_message_is_logged() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var logged = executor.submit(() -> {
+                Thread.sleep(100);
+                LOG.info("logged asynchronously");
+                return System.nanoTime();
+            });
+
+            underTest.awaitLogContains(EXPECTED_LEVEL, "asynchronously", AWAIT_TIMEOUT);
+
+            var wokenUpNanos = System.nanoTime();
+            assertThat(Duration.ofNanos(wokenUpNanos - logged.get(10, TimeUnit.SECONDS))).isLessThan(AWAIT_TIMEOUT.dividedBy(2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void awaitLogContains_fails_with_closest_matches() {
+        LOG.info("connection opened");
+        LOG.warn("connection closed");
+
+        assertThatThrownBy(() -> underTest.awaitLogContains(EXPECTED_LEVEL, "connection closed", Duration.ofMillis(50)))
+            .isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Not found in log within 50 ms: [" + EXPECTED_LEVEL + "] connection closed")
+            .hasMessageContaining("Closest matches: [WARN] connection closed; [INFO] connection opened");
+    }
+
+    @Test
+    public void awaitLogContains_does_not_accept_null_args() {
+        assertThatThrownBy(() -> underTest.awaitLogContains(null, EXPECTED_MSG, AWAIT_TIMEOUT)).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("logLevel");
+        assertThatThrownBy(() -> underTest.awaitLogContains(EXPECTED_LEVEL, null, AWAIT_TIMEOUT)).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("logMsg");
+        assertThatThrownBy(() -> underTest.awaitLogContains(EXPECTED_LEVEL, EXPECTED_MSG, null)).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("timeout");
+    }
+
+    @Test
+    public void isolated_appender_captures_messages_of_test_thread_and_its_threads() throws Exception {
+        useAppender(new FluffyTestAppender().isolated());
+
+        LOG.info("test thread");
+        var thread = new Thread(() -> LOG.info("started thread"));
+        thread.start();
+        thread.join();
+
+        underTest.assertLogContainsAll(EXPECTED_LEVEL, "test thread", "started thread");
+    }
+
+    @Test
+    public void isolated_appender_ignores_messages_of_other_threads() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            // The thread exists before the test starts, so it does not inherit anything from it.
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+            useAppender(new FluffyTestAppender().isolated());
+
+            executor.submit(() -> LOG.info("other thread")).get(10, TimeUnit.SECONDS);
+
+            underTest.assertLogIsEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void isolated_appender_captures_messages_of_threads_with_propagated_mdc() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+            useAppender(new FluffyTestAppender().isolated());
+
+            var mdc = MDC.getCopyOfContextMap();
+            executor.submit(() -> {
+                MDC.setContextMap(mdc);
+                try {
+                    LOG.info("propagated");
+                } finally {
+                    MDC.clear();
+                }
+            }).get(10, TimeUnit.SECONDS);
+
+            assertSuccess(EXPECTED_LEVEL, "propagated");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void isolated_appenders_of_parallel_tests_do_not_see_each_others_messages() throws Exception {
+        useAppender(new FluffyTestAppender().isolated());
+        var otherCtxMock = mock(ExtensionContext.class);
+        when(otherCtxMock.getUniqueId()).thenReturn("[test:other]");
+        var other = new FluffyTestAppender().isolated();
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                other.beforeEach(otherCtxMock);
+                LOG.info("other test");
+                return null;
+            }).get(10, TimeUnit.SECONDS);
+            LOG.info("this test");
+
+            assertSuccess(EXPECTED_LEVEL, "this test");
+            assertFail(EXPECTED_LEVEL, "other test");
+            other.assertLogContains(EXPECTED_LEVEL, "other test");
+            assertThatThrownBy(() -> other.assertLogContains(EXPECTED_LEVEL, "this test")).isInstanceOf(AssertionError.class);
+        } finally {
+            executor.submit(() -> {
+                other.afterEach(otherCtxMock);
+                return null;
+            }).get(10, TimeUnit.SECONDS);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void isolated_appender_restores_mdc() throws Exception {
+        useAppender(new FluffyTestAppender().isolated());
+        assertThat(MDC.get(FluffyTestAppender.MDC_TEST_KEY)).isEqualTo(TEST_ID);
+
+        underTest.afterEach(extensionCtxMock);
+
+        assertThat(MDC.get(FluffyTestAppender.MDC_TEST_KEY)).isNull();
+    }
+
+    @Test
+    public void spillToDisk_captures_messages() throws Exception {
+        useAppender(new FluffyTestAppender().spillToDisk());
+
+        LOG.info(EXPECTED_MSG);
+        LOG.warn("other {}", 1);
+
+        assertSuccess(EXPECTED_LEVEL, EXPECTED_MSG);
+        assertSuccess(Level.WARN, "other 1");
+        assertFail(EXPECTED_LEVEL, "other 1");
+        underTest.assertLogContainsAll(Level.WARN, "other", "1");
+        underTest.assertLogIsNotEmpty();
+    }
+
+    @Test
+    public void spillToDisk_cannot_be_combined_with_bounds() {
+        assertThatThrownBy(() -> new FluffyTestAppender().keepLast(1).spillToDisk()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new FluffyTestAppender().keepLastBytes(1).spillToDisk()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new FluffyTestAppender().spillToDisk().keepLast(1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new FluffyTestAppender().spillToDisk().keepLastBytes(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void assertLogCount_counts_messages_of_level() {
+        LOG.warn("first");
+        LOG.warn("second");
+        LOG.info(EXPECTED_MSG);
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(Level.WARN, count -> count == 2));
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(Level.ERROR, count -> count == 0));
+        assertThatThrownBy(() -> underTest.assertLogCount(Level.WARN, count -> count <= 1)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("[WARN] 2");
+    }
+
+    @Test
+    public void assertLogCount_counts_messages_of_logger_and_its_descendants() {
+        LoggerFactory.getLogger("fluffy.counted").error("parent");
+        LoggerFactory.getLogger("fluffy.counted.child").error("child");
+        LoggerFactory.getLogger("fluffy.countedOther").error("other");
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(Level.ERROR, "fluffy.counted", count -> count == 2));
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(Level.ERROR, "fluffy.counted.child", count -> count == 1));
+        assertThatThrownBy(() -> underTest.assertLogCount(Level.ERROR, "fluffy.unknown", count -> count >= 1))
+            .isInstanceOf(AssertionError.class).hasMessageContaining("fluffy.unknown");
+    }
+
+    @Test
+    public void countOnly_counts_without_capturing_messages() throws Exception {
+        useAppender(new FluffyTestAppender().countOnly());
+
+        LOG.info(EXPECTED_MSG);
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(EXPECTED_LEVEL, count -> count == 1));
+        underTest.assertLogIsNotEmpty();
+        assertThatThrownBy(() -> underTest.assertLogContains(EXPECTED_LEVEL, EXPECTED_MSG)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> underTest.assertLogContainsAll(EXPECTED_LEVEL, EXPECTED_MSG)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> underTest.awaitLogContains(EXPECTED_LEVEL, EXPECTED_MSG, AWAIT_TIMEOUT))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> underTest.assertLogIsEmpty()).isInstanceOf(AssertionError.class).hasMessageContaining("[INFO]");
+    }
+
+    @Test
+    public void assertLogRateBelow_compares_rate_since_test_start() {
+        LOG.warn("first");
+        LOG.warn("second");
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogRateBelow(Level.WARN, Double.MAX_VALUE));
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogRateBelow(Level.ERROR, Double.MIN_VALUE));
+        assertThatThrownBy(() -> underTest.assertLogRateBelow(Level.WARN, Double.MIN_VALUE)).isInstanceOf(AssertionError.class)
+            .hasMessageContaining("Rate of messages in log too high: [WARN] 2");
+    }
+
+    @Test
+    public void assertLogRateBelow_does_not_accept_invalid_rate() {
+        assertThatThrownBy(() -> underTest.assertLogRateBelow(Level.WARN, 0)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("perSecond");
+        assertThatThrownBy(() -> underTest.assertLogRateBelow(Level.WARN, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void afterEach_resets_counts() throws Exception {
+        LOG.info(EXPECTED_MSG);
+
+        underTest.afterEach(extensionCtxMock);
+
+        Assertions.assertDoesNotThrow(() -> underTest.assertLogCount(EXPECTED_LEVEL, count -> count == 0));
+    }
+
+    private void useAppender(FluffyTestAppender appender) throws Exception {
+        underTest.afterEach(extensionCtxMock);
+        underTest = appender;
+        underTest.beforeEach(extensionCtxMock);
+    }
+
     private void assertSuccess(Level expectedLevel, String expectedMessage) {
         Assertions.assertDoesNotThrow(() -> underTest.assertLogContains(expectedLevel, expectedMessage));
     }
@@ -0,0 +1,37 @@
+package com.itemis.fluffyj.tests.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+import com.itemis.fluffyj.tests.concurrency.AssertThreadSafety;
+
+/**
+ * Compares the append throughput of {@link FluffyTestAppender} at different numbers of logging
+ * threads. The throughput of each thread count is published as a report entry of the test.
+ * Durations are kept short, because the appender keeps everything it captured until the test is
+ * over.
+ */
+public class FluffyTestAppenderThroughputTest {
+
+    private static final ILoggingEvent EVENT = createEvent();
+
+    @RegisterExtension
+    FluffyTestAppender underTest = new FluffyTestAppender();
+
+    @AssertThreadSafety(threadCounts = {1, 2, 4, 8, 16, 32, 64}, durationMillis = 50)
+    @Test
+    public void append_throughput() {
+        underTest.doAppend(EVENT);
+    }
+
+    private static ILoggingEvent createEvent() {
+        var result = new LoggingEvent();
+        result.setLevel(Level.INFO);
+        result.setMessage("throughput");
+        return result;
+    }
+}
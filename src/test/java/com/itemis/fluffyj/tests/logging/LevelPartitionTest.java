@@ -0,0 +1,90 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+
+public class LevelPartitionTest {
+
+    private LevelPartition underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new LevelPartition();
+    }
+
+    @Test
+    public void new_partition_is_empty() {
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(underTest.containsMessage("any")).isFalse();
+    }
+
+    @Test
+    public void finds_message_parts() {
+        add("I am a very fluffy log message");
+
+        assertThat(underTest.isEmpty()).isFalse();
+        assertThat(underTest.containsMessage("very fluffy")).isTrue();
+        assertThat(underTest.containsMessage("fluffy log message")).isTrue();
+        assertThat(underTest.containsMessage("very fluffy cat")).isFalse();
+    }
+
+    @Test
+    public void finds_short_message_parts() {
+        add("ab");
+
+        assertThat(underTest.containsMessage("")).isTrue();
+        assertThat(underTest.containsMessage("b")).isTrue();
+        assertThat(underTest.containsMessage("ba")).isFalse();
+    }
+
+    @Test
+    public void finds_entries_added_after_first_lookup() {
+        add("first message");
+        assertThat(underTest.containsMessage("second")).isFalse();
+
+        add("second message");
+
+        assertThat(underTest.containsMessage("second")).isTrue();
+        assertThat(underTest.containsMessage("first")).isTrue();
+    }
+
+    @Test
+    public void trigrams_must_be_contained_in_the_same_order() {
+        add("abc xyz");
+
+        assertThat(underTest.containsMessage("xyz abc")).isFalse();
+    }
+
+    @Test
+    public void finds_message_among_many() {
+        for (int i = 0; i < 10_000; i++) {
+            add("request " + i + " handled");
+        }
+
+        assertThat(underTest.containsMessage("request 9999 handled")).isTrue();
+        assertThat(underTest.containsMessage("request 10000 handled")).isFalse();
+    }
+
+    @Test
+    public void markFound_marks_patterns_of_all_entries() {
+        add("first message");
+        add("second message");
+        var matcher = new MultiPatternMatcher(List.of("first", "second", "third"));
+        var found = new boolean[3];
+
+        var missing = underTest.markFound(matcher, found, 3);
+
+        assertThat(missing).isEqualTo(1);
+        assertThat(found).containsExactly(true, true, false);
+    }
+
+    private void add(String msg) {
+        underTest.add(LogEntry.of(Level.INFO, msg));
+    }
+}
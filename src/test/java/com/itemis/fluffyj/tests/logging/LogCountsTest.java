@@ -0,0 +1,64 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+
+public class LogCountsTest {
+
+    private final LogCounts underTest = new LogCounts();
+
+    @Test
+    public void counts_by_level_and_logger() {
+        underTest.increment(Level.INFO, "a");
+        underTest.increment(Level.INFO, "b");
+        underTest.increment(Level.INFO, "b");
+        underTest.increment(Level.WARN, "a");
+
+        assertThat(underTest.count(Level.INFO)).isEqualTo(3);
+        assertThat(underTest.count(Level.INFO, "b"::equals)).isEqualTo(2);
+        assertThat(underTest.count(Level.WARN, "b"::equals)).isZero();
+        assertThat(underTest.count(Level.ERROR)).isZero();
+        assertThat(underTest.total()).isEqualTo(4);
+        assertThat(underTest).hasToString("{[INFO] a=1, [INFO] b=2, [WARN] a=1}");
+    }
+
+    @Test
+    public void counts_missing_logger_name_as_empty_name() {
+        underTest.increment(Level.INFO, null);
+
+        assertThat(underTest.count(Level.INFO, String::isEmpty)).isEqualTo(1);
+    }
+
+    @Test
+    public void counts_are_exact_with_concurrent_increments() throws Exception {
+        var threadCount = 8;
+        var incrementsPerThread = 10_000;
+        var executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        underTest.increment(Level.INFO, "logger " + j % 4);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.count(Level.INFO)).isEqualTo((long) threadCount * incrementsPerThread);
+    }
+}
@@ -0,0 +1,82 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+public class LogEntryTest {
+
+    private static final Level EXPECTED_LEVEL = Level.WARN;
+
+    @Test
+    public void keeps_level() {
+        var underTest = LogEntry.of(createEvent("msg", null, "msg"));
+
+        assertThat(underTest.logLevel()).isEqualTo(EXPECTED_LEVEL);
+    }
+
+    @Test
+    public void message_without_arguments_is_kept_as_is() {
+        var event = createEvent("plain message", null, "plain message");
+
+        var underTest = LogEntry.of(event);
+
+        assertThat(underTest.logMsg()).isEqualTo("plain message");
+        verify(event, never()).getFormattedMessage();
+    }
+
+    @Test
+    public void immutable_arguments_are_formatted_lazily() {
+        var event = createEvent("{} and {} and {}", new Object[] {1, "two", TimeUnit.SECONDS}, "ignored");
+
+        var underTest = LogEntry.of(event);
+
+        verify(event, never()).getFormattedMessage();
+        assertThat(underTest.logMsg()).isEqualTo("1 and two and SECONDS");
+    }
+
+    @Test
+    public void formatted_message_is_cached() {
+        var underTest = LogEntry.of(createEvent("value {}", new Object[] {1}, "ignored"));
+
+        assertThat(underTest.logMsg()).isSameAs(underTest.logMsg());
+    }
+
+    @Test
+    public void mutable_arguments_are_formatted_right_away() {
+        var mutableArg = new ArrayList<String>();
+        var event = createEvent("value {}", new Object[] {mutableArg}, "value []");
+
+        var underTest = LogEntry.of(event);
+        mutableArg.add("changed");
+
+        verify(event).getFormattedMessage();
+        assertThat(underTest.logMsg()).isEqualTo("value []");
+    }
+
+    @Test
+    public void event_without_pattern_uses_formatted_message() {
+        var underTest = LogEntry.of(createEvent(null, null, "formatted"));
+
+        assertThat(underTest.logMsg()).isEqualTo("formatted");
+    }
+
+    private ILoggingEvent createEvent(String pattern, Object[] arguments, String formattedMessage) {
+        var result = mock(ILoggingEvent.class);
+        when(result.getLevel()).thenReturn(EXPECTED_LEVEL);
+        when(result.getMessage()).thenReturn(pattern);
+        when(result.getArgumentArray()).thenReturn(arguments);
+        when(result.getFormattedMessage()).thenReturn(formattedMessage);
+        return result;
+    }
+}
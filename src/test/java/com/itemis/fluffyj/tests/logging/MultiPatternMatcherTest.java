@@ -0,0 +1,97 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void finds_all_contained_patterns() {
+        var underTest = new MultiPatternMatcher(List.of("he", "she", "his", "hers"));
+        var found = new boolean[4];
+
+        var newlyFound = underTest.markFound("ushers", found);
+
+        assertThat(newlyFound).isEqualTo(3);
+        assertThat(found).containsExactly(true, true, false, true);
+    }
+
+    @Test
+    public void finds_utf8_encoded_patterns_in_utf8_encoded_text() {
+        var underTest = MultiPatternMatcher.forUtf8(List.of("ße aus", "Köln €", "Koln"));
+        var found = new boolean[3];
+        var text = ByteBuffer.wrap("xGrüße aus Köln €x".getBytes(UTF_8));
+
+        var newlyFound = underTest.markFound(text, 1, text.capacity() - 2, found);
+
+        assertThat(newlyFound).isEqualTo(2);
+        assertThat(found).containsExactly(true, true, false);
+    }
+
+    @Test
+    public void finds_patterns_via_failure_links() {
+        var underTest = new MultiPatternMatcher(List.of("abcd", "bc", "c"));
+        var found = new boolean[3];
+
+        underTest.markFound("xabcx", found);
+
+        assertThat(found).containsExactly(false, true, true);
+    }
+
+    @Test
+    public void counts_patterns_found_before_only_once() {
+        var underTest = new MultiPatternMatcher(List.of("fluffy", "log"));
+        var found = new boolean[2];
+
+        assertThat(underTest.markFound("fluffy", found)).isEqualTo(1);
+        assertThat(underTest.markFound("fluffy log", found)).isEqualTo(1);
+        assertThat(underTest.markFound("fluffy log", found)).isZero();
+    }
+
+    @Test
+    public void duplicate_patterns_are_found_both() {
+        var underTest = new MultiPatternMatcher(List.of("log", "log"));
+        var found = new boolean[2];
+
+        assertThat(underTest.markFound("a log", found)).isEqualTo(2);
+    }
+
+    @Test
+    public void empty_pattern_is_contained_in_any_text() {
+        var underTest = new MultiPatternMatcher(List.of(""));
+        var found = new boolean[1];
+
+        underTest.markFound("", found);
+
+        assertThat(found).containsExactly(true);
+    }
+
+    @Test
+    public void agrees_with_contains() {
+        var patterns = List.of("aab", "ab", "ba", "bab", "aaa", "b");
+        var underTest = new MultiPatternMatcher(patterns);
+        for (var text : List.of("", "a", "aab", "abab", "baaab", "bbbb", "aaaa")) {
+            var found = new boolean[patterns.size()];
+            underTest.markFound(text, found);
+
+            var expected = new boolean[patterns.size()];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = text.contains(patterns.get(i));
+            }
+            assertThat(found).as(text).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void does_not_accept_null_patterns() {
+        assertThatThrownBy(() -> new MultiPatternMatcher(Arrays.asList("a", null))).isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("pattern");
+    }
+}
@@ -0,0 +1,53 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+
+public class PartitionedLogTest {
+
+    private PartitionedLog underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new PartitionedLog();
+    }
+
+    @Test
+    public void snapshot_keeps_order_across_levels() {
+        underTest.add(LogEntry.of(Level.INFO, "first"));
+        underTest.add(LogEntry.of(Level.WARN, "second"));
+        underTest.add(LogEntry.of(Level.DEBUG, "third"));
+        underTest.add(LogEntry.of(Level.INFO, "fourth"));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("first", "second", "third", "fourth");
+    }
+
+    @Test
+    public void each_log_numbers_its_own_entries() {
+        var first = LogEntry.of(Level.INFO, "first");
+        var second = LogEntry.of(Level.DEBUG, "second");
+        var other = LogEntry.of(Level.INFO, "other");
+
+        underTest.add(first);
+        underTest.add(second);
+        new PartitionedLog().add(other);
+
+        assertThat(first.sequence()).isZero();
+        assertThat(second.sequence()).isOne();
+        assertThat(other.sequence()).isZero();
+    }
+
+    @Test
+    public void latest_keeps_order_across_levels() {
+        underTest.add(LogEntry.of(Level.INFO, "first"));
+        underTest.add(LogEntry.of(Level.WARN, "second"));
+        underTest.add(LogEntry.of(Level.DEBUG, "third"));
+        underTest.add(LogEntry.of(Level.INFO, "fourth"));
+
+        assertThat(underTest.latest(2)).extracting(LogEntry::logMsg).containsExactly("third", "fourth");
+    }
+}
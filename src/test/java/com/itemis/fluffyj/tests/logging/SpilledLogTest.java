@@ -0,0 +1,168 @@
+package com.itemis.fluffyj.tests.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+
+public class SpilledLogTest {
+
+    // Small enough to make records spread across many segments.
+    private static final int SEGMENT_SIZE = 64;
+
+    private SpilledLog underTest = new SpilledLog(SEGMENT_SIZE);
+
+    @AfterEach
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void constructor_does_not_accept_too_small_segments() {
+        assertThatThrownBy(() -> new SpilledLog(Integer.BYTES)).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("segmentSize");
+    }
+
+    @Test
+    public void file_is_created_with_first_entry_and_deleted_on_close() {
+        assertThat(underTest.file()).isNull();
+        assertThat(underTest.isEmpty()).isTrue();
+
+        underTest.add(LogEntry.of(Level.INFO, "msg"));
+        var file = underTest.file();
+
+        assertThat(file).exists();
+        assertThat(underTest.isEmpty()).isFalse();
+
+        underTest.close();
+
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    public void finds_entries_across_segments() {
+        for (int i = 0; i < 100; i++) {
+            underTest.add(LogEntry.of(Level.INFO, "msg " + i + ";"));
+        }
+
+        assertThat(underTest.contains(Level.INFO, "msg 0;")).isTrue();
+        assertThat(underTest.contains(Level.INFO, "msg 99;")).isTrue();
+        assertThat(underTest.contains(Level.INFO, "msg 100;")).isFalse();
+        assertThat(underTest.missing(Level.INFO, List.of("msg 42;", "msg 100;", "msg 7;"))).containsExactly("msg 100;");
+        assertThat(underTest.snapshot()).hasSize(100);
+        assertThat(underTest.latest(2)).extracting(LogEntry::logMsg).containsExactly("msg 98;", "msg 99;");
+    }
+
+    @Test
+    public void latest_keeps_order_across_levels() {
+        underTest.add(LogEntry.of(Level.INFO, "first"));
+        underTest.add(LogEntry.of(Level.WARN, "second"));
+        underTest.add(LogEntry.of(Level.DEBUG, "third"));
+        underTest.add(LogEntry.of(Level.INFO, "fourth"));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("first", "second", "third", "fourth");
+        assertThat(underTest.latest(2)).extracting(LogEntry::logMsg).containsExactly("third", "fourth");
+    }
+
+    @Test
+    public void lookups_are_restricted_to_level() {
+        underTest.add(LogEntry.of(Level.INFO, "info"));
+        underTest.add(LogEntry.of(Level.WARN, "warn"));
+
+        assertThat(underTest.contains(Level.INFO, "warn")).isFalse();
+        assertThat(underTest.contains(Level.WARN, "warn")).isTrue();
+        assertThat(underTest.contains(Level.ERROR, "warn")).isFalse();
+        assertThat(underTest.missing(Level.INFO, List.of("info", "warn"))).containsExactly("warn");
+    }
+
+    @Test
+    public void finds_non_ascii_messages() {
+        underTest.add(LogEntry.of(Level.INFO, "Grüße aus Köln €"));
+
+        assertThat(underTest.contains(Level.INFO, "ße aus Kö")).isTrue();
+        assertThat(underTest.contains(Level.INFO, "Koln")).isFalse();
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly("Grüße aus Köln €");
+    }
+
+    @Test
+    public void truncates_messages_that_do_not_fit_into_a_segment() {
+        var msg = "x".repeat(SEGMENT_SIZE * 2);
+
+        underTest.add(LogEntry.of(Level.INFO, msg));
+        underTest.add(LogEntry.of(Level.INFO, "after"));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly(msg.substring(0, SEGMENT_SIZE - Integer.BYTES),
+            "after");
+    }
+
+    @Test
+    public void truncates_messages_at_character_boundary() {
+        // The last € does not fit completely. Each € takes three bytes.
+        var msg = "x".repeat(SEGMENT_SIZE - Integer.BYTES - 4) + "€€";
+
+        underTest.add(LogEntry.of(Level.INFO, msg));
+
+        assertThat(underTest.snapshot()).extracting(LogEntry::logMsg).containsExactly(msg.substring(0, msg.length() - 1));
+        assertThat(underTest.missing(Level.INFO, List.of("x€", "€€"))).containsExactly("€€");
+    }
+
+    @Test
+    public void lookups_after_close_fail() {
+        underTest.add(LogEntry.of(Level.INFO, "msg"));
+        underTest.close();
+
+        assertThatThrownBy(() -> underTest.contains(Level.INFO, "msg")).isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("closed");
+        assertThatThrownBy(() -> underTest.missing(Level.INFO, List.of("msg"))).isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("closed");
+        assertThatThrownBy(() -> underTest.snapshot()).isInstanceOf(IllegalStateException.class).hasMessageContaining("closed");
+    }
+
+    @Test
+    public void entries_added_after_close_are_dropped() {
+        underTest.close();
+
+        underTest.add(LogEntry.of(Level.INFO, "msg"));
+
+        assertThat(underTest.file()).isNull();
+        assertThat(underTest.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void concurrently_added_entries_are_all_found() throws Exception {
+        var threadCount = 8;
+        var entriesPerThread = 2_000;
+        var executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                var thread = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < entriesPerThread; j++) {
+                        underTest.add(LogEntry.of(Level.INFO, "thread " + thread + " msg " + j + ";"));
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(underTest.snapshot()).hasSize(threadCount * entriesPerThread);
+        for (int i = 0; i < threadCount; i++) {
+            assertThat(underTest.contains(Level.INFO, "thread " + i + " msg " + (entriesPerThread - 1) + ";")).isTrue();
+        }
+    }
+}
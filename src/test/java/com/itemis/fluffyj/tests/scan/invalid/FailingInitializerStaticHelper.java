@@ -0,0 +1,14 @@
+package com.itemis.fluffyj.tests.scan.invalid;
+
+// The constructor does not throw, but the static initializer fails before it could be invoked.
+public final class FailingInitializerStaticHelper {
+
+    static final int VALUE = Integer.parseInt("x");
+
+    private FailingInitializerStaticHelper() {
+    }
+
+    public static int value() {
+        return VALUE;
+    }
+}
@@ -0,0 +1,8 @@
+package com.itemis.fluffyj.tests.scan.invalid;
+
+public final class InstantiatableStaticHelper {
+
+    public static String helpOut() {
+        return "help";
+    }
+}
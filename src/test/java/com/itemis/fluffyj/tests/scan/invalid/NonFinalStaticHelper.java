@@ -0,0 +1,14 @@
+package com.itemis.fluffyj.tests.scan.invalid;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+public class NonFinalStaticHelper {
+
+    private NonFinalStaticHelper() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    public static String helpOut() {
+        return "help";
+    }
+}
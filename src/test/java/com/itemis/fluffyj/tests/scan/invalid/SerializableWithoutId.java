@@ -0,0 +1,12 @@
+package com.itemis.fluffyj.tests.scan.invalid;
+
+import java.io.Serializable;
+
+// No serialVersionUID by intention
+@SuppressWarnings("serial")
+public class SerializableWithoutId implements Serializable {
+
+    public String instanceMethod() {
+        return toString();
+    }
+}
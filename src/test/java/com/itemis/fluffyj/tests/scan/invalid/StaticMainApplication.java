@@ -0,0 +1,8 @@
+package com.itemis.fluffyj.tests.scan.invalid;
+
+public class StaticMainApplication {
+
+    public static void main(String[] args) {
+        System.out.println("started");
+    }
+}
@@ -0,0 +1,13 @@
+package com.itemis.fluffyj.tests.scan.valid;
+
+// Enums are serializable, but their serialVersionUID is ignored.
+public enum SerializableEnum {
+    VALUE,
+    // Compiles to a class of its own, which is an enum as well.
+    VALUE_WITH_BODY {
+        @Override
+        public String toString() {
+            return "body";
+        }
+    };
+}
@@ -0,0 +1,12 @@
+package com.itemis.fluffyj.tests.scan.valid;
+
+import java.io.Serializable;
+
+public class SerializableWithId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public String instanceMethod() {
+        return toString();
+    }
+}
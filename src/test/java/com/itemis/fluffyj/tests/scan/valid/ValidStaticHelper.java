@@ -0,0 +1,14 @@
+package com.itemis.fluffyj.tests.scan.valid;
+
+import com.itemis.fluffyj.exceptions.InstantiationNotPermittedException;
+
+public final class ValidStaticHelper {
+
+    private ValidStaticHelper() {
+        throw new InstantiationNotPermittedException();
+    }
+
+    public static String helpOut() {
+        return "help";
+    }
+}